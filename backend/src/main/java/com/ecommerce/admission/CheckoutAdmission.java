@@ -0,0 +1,326 @@
+package com.ecommerce.admission;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.dto.QueueTicket;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Admission control for order placement: a virtual waiting room in front of checkout.
+ *
+ * Customers are admitted at {@code app.checkout-queue.rate} per second from a lock-free
+ * {@link TokenRate}. While nobody is waiting a checkout just takes a token and goes through. When
+ * tokens run out it is turned away, the customer joins the queue and gets a signed ticket holding
+ * their place, and polls with it; every poll admits as many waiting tickets, oldest first, as tokens
+ * have accrued, so the queue drains at the configured rate with no background thread. Polling costs
+ * no database work: the ticket is verified by its signature alone.
+ *
+ * A user holds one live ticket: joining again hands back the same one. A ticket that stops polling
+ * for {@link #ABANDON_AFTER_SECONDS} is dropped from the line without taking a token, so abandoned
+ * tabs do not slow everyone behind them; if it polls again it rejoins at its original number.
+ *
+ * Admitted checkouts then share a fixed number of concurrent slots, which keeps a surge from
+ * taking every pooled connection away from browsing and the rest of the API.
+ */
+@Component
+public class CheckoutAdmission {
+    private static final String AUDIENCE = "checkout-queue";
+    private static final long MAX_POLL_SECONDS = 30;
+    // A few missed polls; clients are told to poll at most every MAX_POLL_SECONDS
+    static final long ABANDON_AFTER_SECONDS = 3 * MAX_POLL_SECONDS;
+
+    private final boolean enabled;
+    private final TokenRate rate;
+    private final Semaphore slots;
+    private final long slotWaitMillis;
+    private final long ticketTtlMillis;
+    private final SecretKey key;
+    private final TaskScheduler taskScheduler;
+    // Seeded from the clock so tickets issued before a restart do not share numbers with new ones
+    private final AtomicLong issued = new AtomicLong(System.currentTimeMillis());
+
+    // Guarded by this; the fast path only reads the volatile count
+    private final NavigableMap<Long, Waiter> waiting = new TreeMap<>();
+    private final Map<Long, Waiter> admitted = new HashMap<>();
+    private final Map<Long, Waiter> liveByUser = new HashMap<>();
+    private volatile int waitingCount;
+
+    public CheckoutAdmission(TaskScheduler taskScheduler,
+                             @Value("${app.checkout-queue.enabled:true}") boolean enabled,
+                             @Value("${app.checkout-queue.rate:20}") double ratePerSecond,
+                             @Value("${app.checkout-queue.burst:20}") int burst,
+                             @Value("${app.checkout-queue.max-concurrent:5}") int maxConcurrent,
+                             @Value("${app.checkout-queue.slot-wait-millis:2000}") long slotWaitMillis,
+                             @Value("${app.checkout-queue.ticket-ttl-minutes:30}") long ticketTtlMinutes,
+                             @Value("${app.checkout-queue.ticket-secret:${app.jwtSecret:mySecretKeyForJWTTokenGenerationThatIsVeryLongAndShouldBeAtLeast256Bits}}") String secret) {
+        this.enabled = enabled;
+        this.rate = new TokenRate(ratePerSecond, burst, System.nanoTime());
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+        this.slotWaitMillis = slotWaitMillis;
+        this.ticketTtlMillis = TimeUnit.MINUTES.toMillis(ticketTtlMinutes);
+        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.taskScheduler = taskScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Duration interval = Duration.ofSeconds(MAX_POLL_SECONDS);
+        taskScheduler.scheduleWithFixedDelay(this::forgetStaleTickets, Instant.now().plus(interval), interval);
+    }
+
+    /**
+     * Gives the user a place at the back of the queue, or their current place if they already hold a live ticket.
+     */
+    public synchronized QueueTicket join(long userId) {
+        long now = System.currentTimeMillis();
+        Waiter live = liveByUser.get(userId);
+        if (live != null && !live.completed && live.expiresAt > now) {
+            return status(track(live, now));
+        }
+        long number = issued.incrementAndGet();
+        String ticket = Jwts.builder()
+                .setAudience(AUDIENCE)
+                .setSubject(Long.toString(userId))
+                .setId(Long.toString(number))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ticketTtlMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        Waiter waiter = new Waiter(userId, number, ticket, now + ticketTtlMillis);
+        liveByUser.put(userId, waiter);
+        return status(track(waiter, now));
+    }
+
+    /**
+     * Where a ticket stands now. Polling keeps the ticket's place in line.
+     * @throws IllegalArgumentException if the ticket is forged or expired
+     */
+    public QueueTicket poll(String ticket) {
+        Waiter parsed = parse(ticket);
+        synchronized (this) {
+            return status(track(parsed, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Lets one checkout by the user through, holding a concurrent slot until the permit is closed.
+     * @param ticket the user's admitted queue ticket, or null to try without queueing
+     * @return null if the user has to queue (or keep polling) first
+     * @throws IllegalArgumentException if the ticket is forged, expired, someone else's or already used
+     */
+    public Permit admit(long userId, String ticket) {
+        if (!enabled) {
+            return new Permit(null, null);
+        }
+        Waiter waiter = null;
+        if (ticket != null && !ticket.isBlank()) {
+            Waiter parsed = parse(ticket);
+            if (parsed.userId != userId) {
+                throw new IllegalArgumentException("Queue ticket belongs to another user");
+            }
+            synchronized (this) {
+                waiter = track(parsed, System.currentTimeMillis());
+                advance();
+                if (waiter.completed) {
+                    throw new IllegalArgumentException("Queue ticket already used");
+                }
+                if (!admitted.containsKey(waiter.number)) {
+                    return null;
+                }
+            }
+        } else if (waitingCount > 0 || !rate.tryAcquire(System.nanoTime())) {
+            // Someone is already waiting, or the rate is used up: no jumping the queue
+            return null;
+        }
+
+        try {
+            if (!slots.tryAcquire(slotWaitMillis, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (waiter != null) {
+            synchronized (this) {
+                if (waiter.inCheckout || waiter.completed) {
+                    slots.release();
+                    throw new IllegalArgumentException("Queue ticket already used");
+                }
+                waiter.inCheckout = true;
+            }
+        }
+        return new Permit(slots, waiter);
+    }
+
+    // The known entry for the ticket, refreshed; a ticket this instance no longer knows (dropped as
+    // abandoned, or issued before a restart) rejoins the line at its own number
+    private Waiter track(Waiter ticket, long now) {
+        Waiter known = admitted.get(ticket.number);
+        if (known == null) {
+            known = waiting.get(ticket.number);
+        }
+        if (known == null) {
+            known = ticket;
+            waiting.put(known.number, known);
+            waitingCount = waiting.size();
+            liveByUser.putIfAbsent(known.userId, known);
+        }
+        known.lastSeen = now;
+        return known;
+    }
+
+    // Admits as many waiting tickets as tokens have accrued since the last call, skipping abandoned ones
+    private void advance() {
+        long now = System.currentTimeMillis();
+        dropAbandonedHead(now);
+        long tokens = rate.acquireUpTo(waiting.size(), System.nanoTime());
+        while (tokens > 0 && !waiting.isEmpty()) {
+            Waiter next = waiting.pollFirstEntry().getValue();
+            if (isAbandoned(next, now)) {
+                forget(next);
+                continue;
+            }
+            admitted.put(next.number, next);
+            tokens--;
+        }
+        dropAbandonedHead(now);
+        waitingCount = waiting.size();
+    }
+
+    private void dropAbandonedHead(long now) {
+        while (!waiting.isEmpty() && isAbandoned(waiting.firstEntry().getValue(), now)) {
+            forget(waiting.pollFirstEntry().getValue());
+        }
+    }
+
+    private QueueTicket status(Waiter waiter) {
+        advance();
+        // An upper bound: tickets ahead that were abandoned are skipped when reached
+        long ahead = waiting.containsKey(waiter.number) ? waiter.number - waiting.firstKey() + 1 : 0;
+        long waitSeconds = (long) Math.ceil(ahead / rate.perSecond());
+        long pollAfter = ahead == 0 ? 0 : Math.max(1, Math.min(MAX_POLL_SECONDS, waitSeconds / 2));
+        return new QueueTicket(waiter.ticket, ahead == 0, ahead, waitSeconds, pollAfter);
+    }
+
+    private Waiter parse(String ticket) {
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .requireAudience(AUDIENCE)
+                    .build()
+                    .parseClaimsJws(ticket)
+                    .getBody();
+            return new Waiter(Long.parseLong(claims.getSubject()), Long.parseLong(claims.getId()), ticket,
+                    claims.getExpiration().getTime());
+        } catch (JwtException | NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid or expired queue ticket");
+        }
+    }
+
+    private boolean isAbandoned(Waiter waiter, long now) {
+        return waiter.expiresAt < now || now - waiter.lastSeen > TimeUnit.SECONDS.toMillis(ABANDON_AFTER_SECONDS);
+    }
+
+    private void forget(Waiter waiter) {
+        liveByUser.remove(waiter.userId, waiter);
+    }
+
+    private synchronized void forgetStaleTickets() {
+        long now = System.currentTimeMillis();
+        waiting.values().removeIf(waiter -> {
+            if (isAbandoned(waiter, now)) {
+                forget(waiter);
+                return true;
+            }
+            return false;
+        });
+        waitingCount = waiting.size();
+        // Admitted and used tickets are remembered until they would have expired anyway
+        admitted.values().removeIf(waiter -> {
+            if (waiter.expiresAt < now) {
+                forget(waiter);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    // Guarded by the enclosing instance
+    private static final class Waiter {
+        final long userId;
+        final long number;
+        final String ticket;
+        final long expiresAt;
+        long lastSeen;
+        boolean inCheckout;
+        boolean completed;
+
+        Waiter(long userId, long number, String ticket, long expiresAt) {
+            this.userId = userId;
+            this.number = number;
+            this.ticket = ticket;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A checkout's concurrent slot. A ticket whose checkout fails can be used again, so a customer
+     * who fixes their cart is not sent back to the end of the queue.
+     */
+    public final class Permit implements AutoCloseable {
+        private final Semaphore slots;
+        private final Waiter waiter;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean completed;
+
+        private Permit(Semaphore slots, Waiter waiter) {
+            this.slots = slots;
+            this.waiter = waiter;
+        }
+
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void close() {
+            if (slots != null && closed.compareAndSet(false, true)) {
+                if (waiter != null) {
+                    synchronized (CheckoutAdmission.this) {
+                        waiter.inCheckout = false;
+                        if (completed) {
+                            // The user's next checkout needs a new ticket
+                            waiter.completed = true;
+                            forget(waiter);
+                        }
+                    }
+                }
+                slots.release();
+            }
+        }
+    }
+}
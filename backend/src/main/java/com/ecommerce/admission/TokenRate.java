@@ -0,0 +1,55 @@
+package com.ecommerce.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept in one atomic long, so admitting a request is a single compare-and-set and
+ * never a lock.
+ *
+ * Instead of a token count the bucket stores the instant up to which tokens have been spent, one
+ * token per interval. The tokens available now are the whole intervals between that instant and
+ * the current time, capped at one burst; taking {@code n} of them moves the instant forward by
+ * {@code n} intervals. Refill is implicit in the clock.
+ */
+final class TokenRate {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFree;
+
+    TokenRate(double perSecond, int burst, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.nextFree = new AtomicLong(nowNanos - burstNanos);
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        return acquireUpTo(1, nowNanos) == 1;
+    }
+
+    /**
+     * Takes as many tokens as are available, up to {@code max}.
+     * @return how many were taken
+     */
+    long acquireUpTo(long max, long nowNanos) {
+        if (max <= 0) {
+            return 0;
+        }
+        while (true) {
+            long current = nextFree.get();
+            // An idle bucket holds at most one burst
+            long base = Math.max(current, nowNanos - burstNanos);
+            long available = (nowNanos - base) / intervalNanos;
+            long take = Math.min(available, max);
+            if (take <= 0) {
+                return 0;
+            }
+            if (nextFree.compareAndSet(current, base + take * intervalNanos)) {
+                return take;
+            }
+        }
+    }
+
+    double perSecond() {
+        return 1_000_000_000.0 / intervalNanos;
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.dto.ProductPageRequest;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.util.BoundedCache;
+import com.ecommerce.util.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache for single products and for pages of the approved-product listings
+ * (all products, or one category).
+ *
+ * Every {@link ProductChangedEvent} bumps the catalog version, which doubles as the HTTP ETag for
+ * these reads, and drops only the entries the change can affect: the product itself, pages that
+ * contain it, and pages of the category it is now listed under.
+ *
+ * Nothing here takes a lock of its own. The version is bumped before entries are dropped, and a
+ * loader re-reads it after storing what it loaded, so a result that may predate a change is either
+ * dropped by that change's invalidation or by the loader itself.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+    private final BoundedCache<Long, ProductDTO> products;
+    private final BoundedCache<String, Listing> listings;
+
+    // Seeded from the clock so validators issued before a restart do not match afterwards
+    private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
+
+    public ProductCache(
+            @Value("${app.product-cache.max-products:10000}") int maxProducts,
+            @Value("${app.product-cache.max-listings:2000}") int maxListings,
+            @Value("${app.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.products = new BoundedCache<>(maxProducts, ttl);
+        this.listings = new BoundedCache<>(maxListings, ttl);
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public ProductDTO getProduct(Long id, Supplier<ProductDTO> loader) {
+        ProductDTO cached = products.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long version = getCatalogVersion();
+        ProductDTO loaded = loader.get();
+        // A change that landed while loading may not be reflected in what was read
+        products.put(id, loaded);
+        if (getCatalogVersion() != version) {
+            products.invalidate(id);
+        }
+        return loaded;
+    }
+
+    /**
+     * Cached products for the given ids, loading all the misses with one call to {@code loader}.
+     * Ids that the loader does not return are absent from the result.
+     */
+    public Map<Long, ProductDTO> getProducts(Collection<Long> ids, Function<List<Long>, List<ProductDTO>> loader) {
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            ProductDTO cached = products.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        long version = getCatalogVersion();
+        List<ProductDTO> loaded = loader.apply(misses);
+        for (ProductDTO product : loaded) {
+            found.put(product.getId(), product);
+            products.put(product.getId(), product);
+        }
+        if (getCatalogVersion() != version) {
+            loaded.forEach(product -> products.invalidate(product.getId()));
+        }
+        return found;
+    }
+
+    /**
+     * @param category the listing's category, or null for the listing of all approved products
+     */
+    public CursorPage<ProductDTO> getListing(String category, ProductPageRequest page,
+                                             Supplier<CursorPage<ProductDTO>> loader) {
+        String key = listingKey(category, page);
+        Listing cached = listings.get(key);
+        if (cached != null) {
+            return cached.page;
+        }
+        long version = getCatalogVersion();
+        CursorPage<ProductDTO> loaded = loader.get();
+        listings.put(key, new Listing(category, loaded));
+        if (getCatalogVersion() != version) {
+            listings.invalidate(key);
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        long version = catalogVersion.incrementAndGet();
+        Long productId = event.getProductId();
+        products.invalidate(productId);
+
+        // Keyset pages are anchored on their cursor, so a change only reaches pages that list the
+        // product now or that it may newly appear in; a stock change moves it onto no new page
+        boolean mayMove = event.isVisible() && !event.isStockOnly();
+        String listedUnder = mayMove ? event.getProduct().getCategory() : null;
+        int dropped = listings.invalidateIf((key, listing) ->
+                listing.contains(productId)
+                        || (mayMove && (listing.category == null || listing.category.equalsIgnoreCase(listedUnder))));
+        log.debug("Product {} changed: catalog version {}, dropped {} cached listing pages", productId, version, dropped);
+    }
+
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("products", products.stats());
+        stats.put("listings", listings.stats());
+        return stats;
+    }
+
+    private static String listingKey(String category, ProductPageRequest page) {
+        return (category == null ? "*" : category.toLowerCase(Locale.ROOT))
+                + '|' + page.getSortKey()
+                + '|' + (page.isDescending() ? 'D' : 'A')
+                + '|' + page.getSize()
+                + '|' + (page.getCursor() == null ? "" : page.getCursor().encode());
+    }
+
+    private static final class Listing {
+        final String category;
+        final CursorPage<ProductDTO> page;
+
+        Listing(String category, CursorPage<ProductDTO> page) {
+            this.category = category;
+            this.page = page;
+        }
+
+        boolean contains(Long productId) {
+            for (ProductDTO item : page.getItems()) {
+                if (productId.equals(item.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
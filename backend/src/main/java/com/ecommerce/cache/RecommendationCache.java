@@ -0,0 +1,108 @@
+package com.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.dto.RecommendationCacheStats;
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.event.UserActivityEvent;
+import com.ecommerce.util.BoundedCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user cache of recommended product ids, bounded by user count and time-to-live.
+ *
+ * Only ids are kept; callers hydrate them through {@link ProductCache} so prices and stock are as
+ * fresh as any other product read. A user's entry is dropped when they order or review, and every
+ * entry naming a product is dropped when that product leaves the catalog or sells out.
+ */
+@Component
+@Slf4j
+public class RecommendationCache {
+    private final BoundedCache<Long, Entry> entries;
+
+    // Bumped by every invalidation; a result computed across a bump may predate it and is not stored
+    private long generation;
+
+    private final LongAdder hitAgeMillis = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAccumulator maxHitAgeMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder userInvalidations = new LongAdder();
+    private final LongAdder productInvalidations = new LongAdder();
+
+    public RecommendationCache(
+            @Value("${app.recommendation-cache.max-users:50000}") int maxUsers,
+            @Value("${app.recommendation-cache.ttl-seconds:900}") long ttlSeconds) {
+        this.entries = new BoundedCache<>(maxUsers, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public List<Long> get(Long userId, Supplier<List<Long>> loader) {
+        Entry cached = entries.get(userId);
+        if (cached != null) {
+            long age = System.currentTimeMillis() - cached.createdAt;
+            hitAgeMillis.add(age);
+            hitCount.increment();
+            maxHitAgeMillis.accumulate(age);
+            return cached.productIds;
+        }
+        long startedAt;
+        synchronized (this) {
+            startedAt = generation;
+        }
+        List<Long> loaded = loader.get();
+        synchronized (this) {
+            if (startedAt == generation) {
+                entries.put(userId, new Entry(List.copyOf(loaded)));
+            }
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public synchronized void onUserActivity(UserActivityEvent event) {
+        generation++;
+        entries.invalidate(event.getUserId());
+        userInvalidations.increment();
+    }
+
+    @EventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getProduct();
+        boolean stillRecommendable = event.isVisible() && product.getQuantity() != null && product.getQuantity() > 0;
+        if (stillRecommendable) {
+            return;
+        }
+        generation++;
+        Long productId = event.getProductId();
+        int dropped = entries.invalidateIf((userId, entry) -> entry.productIds.contains(productId));
+        productInvalidations.add(dropped);
+        if (dropped > 0) {
+            log.debug("Product {} left the catalog: dropped {} cached recommendation lists", productId, dropped);
+        }
+    }
+
+    public RecommendationCacheStats stats() {
+        long hits = hitCount.sum();
+        double averageAge = hits == 0 ? 0.0 : hitAgeMillis.sum() / 1000.0 / hits;
+        return new RecommendationCacheStats(entries.stats(), averageAge, maxHitAgeMillis.get() / 1000.0,
+                userInvalidations.sum(), productInvalidations.sum());
+    }
+
+    private static final class Entry {
+        final List<Long> productIds;
+        final long createdAt = System.currentTimeMillis();
+
+        Entry(List<Long> productIds) {
+            this.productIds = productIds;
+        }
+    }
+}
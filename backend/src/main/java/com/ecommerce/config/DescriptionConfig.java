@@ -0,0 +1,36 @@
+package com.ecommerce.config;
+
+import java.util.Locale;
+
+import com.ecommerce.generation.DescriptionProvider;
+import com.ecommerce.generation.OpenAiDescriptionProvider;
+import com.ecommerce.generation.TemplateDescriptionProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chooses the {@link DescriptionProvider} for generated product descriptions: {@code template}
+ * (local, the default) or {@code openai}.
+ */
+@Configuration
+public class DescriptionConfig {
+
+    @Bean
+    DescriptionProvider descriptionProvider(
+            ObjectMapper objectMapper,
+            @Value("${app.descriptions.provider:template}") String provider,
+            @Value("${app.descriptions.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${app.descriptions.openai.api-key:}") String apiKey,
+            @Value("${app.descriptions.openai.model:gpt-4o-mini}") String model) {
+        switch (provider.trim().toLowerCase(Locale.ROOT)) {
+            case "openai":
+                return new OpenAiDescriptionProvider(objectMapper, baseUrl, apiKey, model);
+            case "template":
+                return new TemplateDescriptionProvider();
+            default:
+                throw new IllegalStateException("Unknown description provider: " + provider);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.config;
+
+import java.util.Locale;
+
+import com.ecommerce.embedding.EmbeddingProvider;
+import com.ecommerce.embedding.HashingEmbeddingProvider;
+import com.ecommerce.embedding.OpenAiEmbeddingProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chooses the {@link EmbeddingProvider} for semantic search: {@code hashing} (local, the default)
+ * or {@code openai}.
+ */
+@Configuration
+public class EmbeddingConfig {
+
+    @Bean
+    EmbeddingProvider embeddingProvider(
+            ObjectMapper objectMapper,
+            @Value("${app.embeddings.provider:hashing}") String provider,
+            @Value("${app.embeddings.dimensions:256}") int dimensions,
+            @Value("${app.embeddings.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${app.embeddings.openai.api-key:}") String apiKey,
+            @Value("${app.embeddings.openai.model:text-embedding-3-small}") String model) {
+        switch (provider.trim().toLowerCase(Locale.ROOT)) {
+            case "openai":
+                return new OpenAiEmbeddingProvider(objectMapper, baseUrl, apiKey, model, dimensions);
+            case "hashing":
+                return new HashingEmbeddingProvider(dimensions);
+            default:
+                throw new IllegalStateException("Unknown embedding provider: " + provider);
+        }
+    }
+}
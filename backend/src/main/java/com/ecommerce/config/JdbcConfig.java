@@ -0,0 +1,40 @@
+package com.ecommerce.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The application's {@link JdbcTemplate}s: the default one, and {@value #STREAMING} for jobs that
+ * walk whole tables. Declaring the second makes Spring Boot back off from its own, so the default
+ * is declared here too, with the same {@code spring.jdbc.template.*} settings.
+ */
+@Configuration
+public class JdbcConfig {
+    public static final String STREAMING = "streamingJdbcTemplate";
+
+    @Bean
+    @Primary
+    JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    // MySQL Connector/J streams rows one at a time, instead of buffering the result, only with this fetch size
+    @Bean(STREAMING)
+    JdbcTemplate streamingJdbcTemplate(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on Spring Boot's shared {@link org.springframework.scheduling.TaskScheduler}, sized by
+ * {@code spring.task.scheduling.pool.size}. Background jobs schedule themselves on it once the
+ * application is ready, and it stops them all when the context closes.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
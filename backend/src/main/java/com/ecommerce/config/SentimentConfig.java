@@ -0,0 +1,35 @@
+package com.ecommerce.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+import com.ecommerce.sentiment.LexiconSentimentModel;
+import com.ecommerce.sentiment.SentimentModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+/**
+ * Chooses the {@link SentimentModel} for review sentiment: {@code lexicon} (local, the default),
+ * reading its word list from {@code app.sentiment.lexicon}.
+ */
+@Configuration
+public class SentimentConfig {
+
+    @Bean
+    SentimentModel sentimentModel(
+            @Value("${app.sentiment.model:lexicon}") String model,
+            @Value("${app.sentiment.lexicon:classpath:sentiment-lexicon.txt}") Resource lexicon) throws IOException {
+        switch (model.trim().toLowerCase(Locale.ROOT)) {
+            case "lexicon":
+                try (InputStream in = lexicon.getInputStream()) {
+                    String name = String.valueOf(lexicon.getFilename()).replaceFirst("\\.[^.]*$", "");
+                    return LexiconSentimentModel.load(name, in);
+                }
+            default:
+                throw new IllegalStateException("Unknown sentiment model: " + model);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.UserRole;
+import com.ecommerce.security.AuthenticatedUserProvider;
+import com.ecommerce.service.ExportService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admin bulk exports. Bodies are written from an async thread while rows stream out of the
+ * database, so neither side holds a whole table in memory.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ExportController {
+
+    private final ExportService exportService;
+    private final AuthenticatedUserProvider authProvider;
+
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = resolveFormat(format);
+        return stream("products", exportFormat, out -> exportService.exportProducts(exportFormat, out));
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = resolveFormat(format);
+        return stream("orders", exportFormat, out -> exportService.exportOrders(exportFormat, out));
+    }
+
+    @GetMapping("/order-items")
+    public ResponseEntity<StreamingResponseBody> exportOrderItems(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = resolveFormat(format);
+        return stream("order-items", exportFormat, out -> exportService.exportOrderItems(exportFormat, out));
+    }
+
+    private ExportService.Format resolveFormat(String format) {
+        User currentUser = authProvider.getCurrentUser();
+        if (currentUser == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        // Only admin can export
+        if (currentUser.getRole() != UserRole.ADMIN) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin access required");
+        }
+        try {
+            return ExportService.Format.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportService.Format format, StreamingResponseBody body) {
+        if (!exportService.tryAcquireSlot()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports running, try again later");
+        }
+        StreamingResponseBody releasing = out -> {
+            try {
+                body.writeTo(out);
+            } finally {
+                exportService.releaseSlot();
+            }
+        };
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(releasing);
+    }
+}
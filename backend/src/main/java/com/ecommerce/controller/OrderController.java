@@ -12,19 +12,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.ecommerce.admission.CheckoutAdmission;
+import com.ecommerce.dto.CheckoutRequest;
 import com.ecommerce.dto.OrderDTO;
 import com.ecommerce.dto.OrderItemDTO;
+import com.ecommerce.dto.QueueTicket;
 import com.ecommerce.entity.Order;
 import com.ecommerce.entity.OrderItem;
 import com.ecommerce.entity.OrderStatus;
 import com.ecommerce.entity.User;
 import com.ecommerce.entity.UserRole;
 import com.ecommerce.security.AuthenticatedUserProvider;
+import com.ecommerce.service.CheckoutService;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.OrderService;
 
 import lombok.RequiredArgsConstructor;
@@ -34,12 +40,19 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class OrderController {
+    public static final String QUEUE_TICKET_HEADER = "X-Queue-Ticket";
 
     private final OrderService orderService;
+    private final CheckoutService checkoutService;
+    private final CheckoutAdmission checkoutAdmission;
+    private final IdempotencyService idempotencyService;
     private final AuthenticatedUserProvider authProvider;
 
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@RequestBody OrderDTO orderDTO) {
+    public ResponseEntity<OrderDTO> createOrder(
+            @RequestBody OrderDTO orderDTO,
+            @RequestHeader(value = QUEUE_TICKET_HEADER, required = false) String queueTicket,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         User currentUser = authProvider.getCurrentUser();
         if (currentUser == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
@@ -53,8 +66,64 @@ public class OrderController {
         order.setShippingAddress(orderDTO.getShippingAddress());
         order.setPaymentMethod(orderDTO.getPaymentMethod());
 
-        Order savedOrder = orderService.createOrder(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDTO(savedOrder));
+        // A retried request gets the first response back without queueing or writing again
+        try (IdempotencyService.Claim claim = idempotencyService.claim(currentUser.getId(), idempotencyKey,
+                "POST /api/orders", orderDTO)) {
+            if (claim.isReplay()) {
+                return claim.replay(OrderDTO.class);
+            }
+            try (CheckoutAdmission.Permit permit = admit(currentUser.getId(), queueTicket)) {
+                ResponseEntity<OrderDTO> response = claim.complete(() -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(convertToDTO(orderService.createOrder(order))));
+                permit.complete();
+                return response;
+            }
+        }
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderDTO> checkout(
+            @RequestBody CheckoutRequest request,
+            @RequestHeader(value = QUEUE_TICKET_HEADER, required = false) String queueTicket,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        User currentUser = authProvider.getCurrentUser();
+        if (currentUser == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        validate(request);
+
+        try (IdempotencyService.Claim claim = idempotencyService.claim(currentUser.getId(), idempotencyKey,
+                "POST /api/orders/checkout", request)) {
+            if (claim.isReplay()) {
+                return claim.replay(OrderDTO.class);
+            }
+            try (CheckoutAdmission.Permit permit = admit(currentUser.getId(), queueTicket)) {
+                // The whole cart in one transaction; totals are computed from catalog prices
+                ResponseEntity<OrderDTO> response = claim.complete(() -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(checkoutService.checkout(currentUser.getId(), request)));
+                permit.complete();
+                return response;
+            }
+        }
+    }
+
+    @PostMapping("/queue")
+    public ResponseEntity<QueueTicket> joinCheckoutQueue() {
+        Long userId = authProvider.getCurrentUserId();
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(checkoutAdmission.join(userId));
+    }
+
+    @GetMapping("/queue")
+    public ResponseEntity<QueueTicket> pollCheckoutQueue(@RequestHeader(QUEUE_TICKET_HEADER) String queueTicket) {
+        // No user lookup: the signed ticket is enough, so polling stays off the database
+        try {
+            return ResponseEntity.ok(checkoutAdmission.poll(queueTicket));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping
@@ -124,7 +193,8 @@ public class OrderController {
     public ResponseEntity<Void> addItemToOrder(
             @PathVariable Long orderId,
             @RequestParam Long productId,
-            @RequestParam Integer quantity) {
+            @RequestParam Integer quantity,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         User currentUser = authProvider.getCurrentUser();
         if (currentUser == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
@@ -134,9 +204,21 @@ public class OrderController {
         if (!order.getUser().getId().equals(currentUser.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
         }
+        if (quantity < 1 || quantity > CheckoutRequest.MAX_QUANTITY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Quantity must be from 1 to " + CheckoutRequest.MAX_QUANTITY);
+        }
 
-        orderService.addItemToOrder(orderId, productId, quantity);
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+        try (IdempotencyService.Claim claim = idempotencyService.claim(currentUser.getId(), idempotencyKey,
+                "POST /api/orders/" + orderId + "/items", List.of(productId, quantity))) {
+            if (claim.isReplay()) {
+                return claim.replay(Void.class);
+            }
+            return claim.complete(() -> {
+                orderService.addItemToOrder(orderId, productId, quantity);
+                return ResponseEntity.status(HttpStatus.CREATED).<Void>build();
+            });
+        }
     }
 
     @DeleteMapping("/items/{orderItemId}")
@@ -146,8 +228,14 @@ public class OrderController {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
         }
 
-        // Note: In production, you'd verify the item belongs to the user's order
-        orderService.removeItemFromOrder(orderItemId);
+        OrderItem item = orderService.getOrderItemById(orderItemId);
+        Long orderId = item.getOrder().getId();
+        Order order = orderService.getOrderById(orderId);
+        if (!order.getUser().getId().equals(currentUser.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+
+        orderService.removeItemFromOrder(orderId, orderItemId);
         return ResponseEntity.noContent().build();
     }
 
@@ -161,6 +249,42 @@ public class OrderController {
         return ResponseEntity.ok(convertToDTO(order));
     }
 
+    private CheckoutAdmission.Permit admit(Long userId, String queueTicket) {
+        CheckoutAdmission.Permit permit;
+        try {
+            permit = checkoutAdmission.admit(userId, queueTicket);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (permit == null) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Checkout is busy; join the queue at /api/orders/queue and retry once admitted");
+        }
+        return permit;
+    }
+
+    private void validate(CheckoutRequest request) {
+        if (request.getShippingAddress() == null || request.getShippingAddress().isBlank()
+                || request.getPaymentMethod() == null || request.getPaymentMethod().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Shipping address and payment method are required");
+        }
+        List<CheckoutRequest.Item> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one item is required");
+        }
+        if (items.size() > CheckoutRequest.MAX_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + CheckoutRequest.MAX_ITEMS + " items can be checked out at once");
+        }
+        for (CheckoutRequest.Item item : items) {
+            if (item == null || item.getProductId() == null || item.getQuantity() == null
+                    || item.getQuantity() < 1 || item.getQuantity() > CheckoutRequest.MAX_QUANTITY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Each item needs a product id and a quantity from 1 to " + CheckoutRequest.MAX_QUANTITY);
+            }
+        }
+    }
+
     private OrderDTO convertToDTO(Order order) {
         List<OrderItemDTO> itemDTOs = null;
         if (order.getOrderItems() != null) {
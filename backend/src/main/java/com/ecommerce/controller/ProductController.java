@@ -1,7 +1,12 @@
 package com.ecommerce.controller;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,10 +18,39 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.ecommerce.dto.BrowseResponse;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.DescriptionJobRequest;
+import com.ecommerce.dto.DescriptionJobStatus;
+import com.ecommerce.dto.FlashSaleStatus;
+import com.ecommerce.dto.ImportJobStatus;
+import com.ecommerce.dto.ProductBatchRequest;
+import com.ecommerce.dto.ProductBatchResponse;
+import com.ecommerce.dto.ProductCursor;
 import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.dto.ProductPageRequest;
+import com.ecommerce.dto.ProductSentimentSummary;
+import com.ecommerce.dto.RecommendationCacheStats;
+import com.ecommerce.dto.SearchCursor;
+import com.ecommerce.recommendation.EvaluationReport;
+import com.ecommerce.repository.ProductSortKey;
+import com.ecommerce.search.BrowseQuery;
+import com.ecommerce.search.SearchMode;
+import com.ecommerce.search.SimilarProductIndex;
+import com.ecommerce.search.TopRatedIndex;
 import com.ecommerce.security.AuthenticatedUserProvider;
+import com.ecommerce.service.DescriptionGenerationService;
+import com.ecommerce.service.FlashSaleService;
+import com.ecommerce.service.ProductImportService;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.service.RecommendationEvaluationService;
+import com.ecommerce.trending.TrendingTracker;
+import com.ecommerce.trending.TrendingWindow;
+import com.ecommerce.util.CacheStats;
 
 import lombok.RequiredArgsConstructor;
 
@@ -26,34 +60,115 @@ import lombok.RequiredArgsConstructor;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final DescriptionGenerationService descriptionGenerationService;
+    private final RecommendationEvaluationService recommendationEvaluationService;
+    private final FlashSaleService flashSaleService;
     private final AuthenticatedUserProvider authProvider;
 
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        return ResponseEntity.ok()
-                .header("Cache-Control", "no-cache, no-store, must-revalidate")
-                .header("Pragma", "no-cache")
-                .header("Expires", "0")
-                .body(productService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductDTO>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_SIZE) int size,
+            WebRequest request) {
+        ProductPageRequest page = pageRequest(cursor, sort, direction, size);
+        return conditional(request, () -> productService.getAllProducts(page));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok()
-                .header("Cache-Control", "no-cache, no-store, must-revalidate")
-                .header("Pragma", "no-cache")
-                .header("Expires", "0")
-                .body(productService.getProductById(id));
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
+        ResponseEntity<ProductDTO> response = conditional(request, () -> productService.getProductById(id));
+        // A revalidated (304) page is still a view
+        productService.recordProductView(id);
+        return response;
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ProductDTO>> getSimilarProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "" + SimilarProductIndex.DEFAULT_LIMIT) int limit,
+            WebRequest request) {
+        return conditional(request, () -> productService.getSimilarProducts(id, limit));
+    }
+
+    @GetMapping("/{id}/sentiment")
+    public ResponseEntity<ProductSentimentSummary> getProductSentiment(@PathVariable Long id) {
+        return ResponseEntity.ok(productService.getProductSentiment(id));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsBatch(@RequestParam List<Long> ids, WebRequest request) {
+        checkBatchSize(ids);
+        return conditional(request, () -> productService.getProductsByIds(ids));
+    }
+
+    // Same lookup for id lists too long for a query string
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> postProductsBatch(@RequestBody ProductBatchRequest batch) {
+        checkBatchSize(batch.getIds());
+        return ResponseEntity.ok(productService.getProductsByIds(batch.getIds()));
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<CursorPage<ProductDTO>> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_SIZE) int size,
+            WebRequest request) {
+        ProductPageRequest page = pageRequest(cursor, sort, direction, size);
+        return conditional(request, () -> productService.getProductsByCategory(category, page));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.searchProducts(keyword));
+    public ResponseEntity<CursorPage<ProductDTO>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "keyword") String mode,
+            @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_SIZE) int size) {
+        SearchMode searchMode;
+        try {
+            searchMode = SearchMode.fromParam(mode);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok(productService.searchProducts(keyword, searchMode, rankOffset(cursor), size));
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<BrowseResponse> browseProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_SIZE) int size) {
+        ProductSortKey sortKey;
+        try {
+            sortKey = ProductSortKey.fromParam(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        BrowseQuery query = BrowseQuery.builder()
+                .categories(category)
+                .brands(brand)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minRating(minRating)
+                .inStockOnly(inStock)
+                .sortKey(sortKey)
+                .descending("desc".equalsIgnoreCase(direction))
+                .offset(rankOffset(cursor))
+                .limit(Math.max(1, Math.min(size, ProductPageRequest.MAX_SIZE)))
+                .build();
+        return ResponseEntity.ok(productService.browseProducts(query));
     }
 
     @GetMapping("/search/suggestions")
@@ -62,8 +177,55 @@ public class ProductController {
     }
 
     @GetMapping("/trending/top-rated")
-    public ResponseEntity<List<ProductDTO>> getTopRatedProducts() {
-        return ResponseEntity.ok(productService.getTopRatedProducts());
+    public ResponseEntity<List<ProductDTO>> getTopRatedProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "" + TopRatedIndex.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(productService.getTopRatedProducts(category, limit));
+    }
+
+    @GetMapping("/trending/now")
+    public ResponseEntity<List<ProductDTO>> getTrendingProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "" + TrendingTracker.DEFAULT_LIMIT) int limit) {
+        TrendingWindow trendingWindow;
+        try {
+            trendingWindow = TrendingWindow.fromParam(window);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok(productService.getTrendingProducts(trendingWindow, category, limit));
+    }
+
+    @GetMapping("/trending/now/{category}")
+    public ResponseEntity<List<ProductDTO>> getTrendingProductsInCategory(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "" + TrendingTracker.DEFAULT_LIMIT) int limit) {
+        return getTrendingProducts(category, window, limit);
+    }
+
+    @GetMapping("/recommendations/cache/stats")
+    public ResponseEntity<RecommendationCacheStats> getRecommendationCacheStats() {
+        // Get userId from JWT token - only ADMIN can see cache statistics
+        Long userId = authProvider.getCurrentUserId();
+        return ResponseEntity.ok(productService.getRecommendationCacheStats(userId));
+    }
+
+    @GetMapping("/recommendations/evaluation")
+    public ResponseEntity<EvaluationReport> evaluateRecommendations(
+            @RequestParam(defaultValue = "orders") String source,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "42") long seed) {
+        // Get userId from JWT token - only ADMIN can run evaluations
+        Long userId = authProvider.getCurrentUserId();
+        RecommendationEvaluationService.Source evaluationSource;
+        try {
+            evaluationSource = RecommendationEvaluationService.Source.fromParam(source);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok(recommendationEvaluationService.evaluate(evaluationSource, k, seed, userId));
     }
 
     @GetMapping("/recommendations/{userId}")
@@ -81,6 +243,71 @@ public class ProductController {
         return ResponseEntity.status(201).body(productService.createProduct(productDTO, userId));
     }
 
+    @PostMapping("/import")
+    public ResponseEntity<ImportJobStatus> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) {
+        // Get userId from JWT token; the seller is authorized once for the whole file
+        Long userId = authProvider.getCurrentUserId();
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import file is empty");
+        }
+        ProductImportService.Format importFormat;
+        try {
+            importFormat = format != null
+                    ? ProductImportService.Format.fromParam(format)
+                    : ProductImportService.Format.fromFilename(file.getOriginalFilename());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        // Turn the upload away before it is read into memory when it would only be rejected
+        if (!productImportService.hasCapacity()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many imports queued, try again later");
+        }
+        byte[] content;
+        try {
+            content = file.getBytes();
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read import file");
+        }
+        ImportJobStatus status = productImportService.submit(content, importFormat, userId);
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many imports queued, try again later");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobStatus> getImportStatus(@PathVariable String jobId) {
+        Long userId = authProvider.getCurrentUserId();
+        ImportJobStatus status = productImportService.getStatus(jobId, userId);
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found");
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @PostMapping("/descriptions/generate")
+    public ResponseEntity<DescriptionJobStatus> generateDescriptions(@RequestBody DescriptionJobRequest request) {
+        // Get userId from JWT token; descriptions are generated in the background
+        Long userId = authProvider.getCurrentUserId();
+        DescriptionJobStatus status = descriptionGenerationService.submit(request.getProductIds(), userId);
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many descriptions queued, try again later");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/descriptions/jobs/{jobId}")
+    public ResponseEntity<DescriptionJobStatus> getDescriptionJobStatus(@PathVariable String jobId) {
+        Long userId = authProvider.getCurrentUserId();
+        DescriptionJobStatus status = descriptionGenerationService.getStatus(jobId, userId);
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Description job not found");
+        }
+        return ResponseEntity.ok(status);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(
             @PathVariable Long id,
@@ -98,18 +325,46 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/{id}/flash-sale")
+    public ResponseEntity<FlashSaleStatus> getFlashSale(@PathVariable Long id) {
+        return ResponseEntity.ok(flashSaleService.getStatus(id));
+    }
+
+    @PutMapping("/{id}/flash-sale")
+    public ResponseEntity<FlashSaleStatus> startFlashSale(@PathVariable Long id) {
+        // Get userId from JWT token - only ADMIN can run flash sales
+        Long userId = authProvider.getCurrentUserId();
+        return ResponseEntity.ok(flashSaleService.startSale(id, userId));
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    public ResponseEntity<FlashSaleStatus> endFlashSale(@PathVariable Long id) {
+        // Get userId from JWT token - only ADMIN can run flash sales
+        Long userId = authProvider.getCurrentUserId();
+        return ResponseEntity.ok(flashSaleService.endSale(id, userId));
+    }
+
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<List<ProductDTO>> getSellerProducts(@PathVariable Long sellerId) {
+    public ResponseEntity<CursorPage<ProductDTO>> getSellerProducts(
+            @PathVariable Long sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_SIZE) int size) {
         // Get userId from JWT token for authorization
         Long userId = authProvider.getCurrentUserId();
-        return ResponseEntity.ok(productService.getSellerProducts(sellerId, userId));
+        return ResponseEntity.ok(productService.getSellerProducts(sellerId, userId, pageRequest(cursor, sort, direction, size)));
     }
 
     @GetMapping("/pending")
-    public ResponseEntity<List<ProductDTO>> getPendingProducts() {
+    public ResponseEntity<CursorPage<ProductDTO>> getPendingProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "" + ProductPageRequest.DEFAULT_SIZE) int size) {
         // Get userId from JWT token - only ADMIN can see pending products
         Long userId = authProvider.getCurrentUserId();
-        return ResponseEntity.ok(productService.getPendingProducts(userId));
+        return ResponseEntity.ok(productService.getPendingProducts(userId, pageRequest(cursor, sort, direction, size)));
     }
 
     @PutMapping("/{id}/approve")
@@ -125,4 +380,69 @@ public class ProductController {
         Long adminId = authProvider.getCurrentUserId();
         return ResponseEntity.ok(productService.rejectProduct(id, adminId));
     }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        // Get userId from JWT token - only ADMIN can see cache statistics
+        Long userId = authProvider.getCurrentUserId();
+        return ResponseEntity.ok(productService.getCacheStats(userId));
+    }
+
+    // Answers If-None-Match with 304 before doing any work. The version is read before the body,
+    // so a body newer than its ETag only costs the client one extra full response later.
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        String etag = "\"" + Long.toString(productService.getCatalogVersion(), 36) + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+
+    private void checkBatchSize(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one id is required");
+        }
+        if (ids.size() > ProductBatchRequest.MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + ProductBatchRequest.MAX_IDS + " ids can be requested at once");
+        }
+    }
+
+    private int rankOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private ProductPageRequest pageRequest(String cursor, String sort, String direction, int size) {
+        ProductSortKey sortKey;
+        try {
+            sortKey = ProductSortKey.fromParam(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+
+        ProductCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = ProductCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            // A cursor is only meaningful for the ordering that produced it
+            if (after.getSortKey() != sortKey || after.isDescending() != descending) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+        }
+        return new ProductPageRequest(sortKey, descending, after, size);
+    }
 }
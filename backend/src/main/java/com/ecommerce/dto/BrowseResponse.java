@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of faceted browse results. Each facet's counts apply every active filter except
+ * that facet's own, so the client can show how many products each alternative would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BrowseResponse {
+    private List<ProductDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int totalHits;
+    private Map<String, List<FacetCount>> facets;
+}
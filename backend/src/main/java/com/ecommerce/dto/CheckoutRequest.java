@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequest {
+    public static final int MAX_ITEMS = 100;
+    public static final int MAX_QUANTITY = 100;
+
+    private String shippingAddress;
+    private String paymentMethod;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+    }
+}
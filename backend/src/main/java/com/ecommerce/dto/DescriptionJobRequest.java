@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DescriptionJobRequest {
+    public static final int MAX_PRODUCTS = 500;
+
+    private List<Long> productIds;
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a description generation job. {@code cachedProducts} got a description generated
+ * earlier for the same name, category and brand; {@code skippedProducts} had their description
+ * edited after they were queued and were left as is; {@code message} holds the last provider error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DescriptionJobStatus {
+    private String jobId;
+    private String state;
+    private long totalProducts;
+    private long generatedProducts;
+    private long cachedProducts;
+    private long failedProducts;
+    private long skippedProducts;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
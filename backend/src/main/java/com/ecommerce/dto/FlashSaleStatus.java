@@ -0,0 +1,17 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Whether a product is in flash-sale mode and, if so, how many units are left to sell.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleStatus {
+    private Long productId;
+    private boolean active;
+    private long available;
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a bulk product import. {@code errors} lists rejected rows, truncated to the first
+ * few hundred; {@code failedRows} is always the full count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobStatus {
+    private String jobId;
+    private String state;
+    private long totalRows;
+    private long validRows;
+    private long insertedRows;
+    private long failedRows;
+    private List<ImportRowError> errors;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+    public static final int MAX_IDS = 500;
+
+    private List<Long> ids;
+}
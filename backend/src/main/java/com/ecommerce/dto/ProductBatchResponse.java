@@ -0,0 +1,19 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Products for a multi-get, in the order their ids were requested, plus the requested ids that
+ * no longer exist so clients can drop them from carts and wishlists.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<ProductDTO> items;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.ProductRow;
+import com.ecommerce.repository.ProductSortKey;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * Encodes the sort key, direction and the (sortValue, id) of the last row on the previous page.
+ */
+public class ProductCursor {
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final ProductSortKey sortKey;
+    private final boolean descending;
+    private final Comparable<?> lastValue;
+    private final Long lastId;
+
+    public ProductCursor(ProductSortKey sortKey, boolean descending, Comparable<?> lastValue, Long lastId) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    public static ProductCursor after(Product product, ProductSortKey sortKey, boolean descending) {
+        return new ProductCursor(sortKey, descending, sortKey.valueOf(product), product.getId());
+    }
+
+    public static ProductCursor after(ProductRow row, ProductSortKey sortKey, boolean descending) {
+        return new ProductCursor(sortKey, descending, sortKey.valueOf(row), row.getProduct().getId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortKey.name(), descending ? "D" : "A",
+                String.valueOf(lastValue), String.valueOf(lastId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ProductSortKey sortKey = ProductSortKey.valueOf(parts[1]);
+            boolean descending = "D".equals(parts[2]);
+            return new ProductCursor(sortKey, descending, sortKey.parse(parts[3]), Long.valueOf(parts[4]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public ProductSortKey getSortKey() { return sortKey; }
+    public boolean isDescending() { return descending; }
+    public Comparable<?> getLastValue() { return lastValue; }
+    public Long getLastId() { return lastId; }
+}
@@ -2,6 +2,8 @@ package com.ecommerce.dto;
 
 import java.math.BigDecimal;
 
+import com.ecommerce.entity.Product;
+
 public class ProductDTO {
     private Long id;
     private String name;
@@ -33,6 +35,38 @@ public class ProductDTO {
         this.aiRecommendationScore = aiRecommendationScore;
     }
 
+    public static ProductDTO of(Product product) {
+        return of(product, product.getDescription());
+    }
+
+    /**
+     * The product without its description, for cards and in-memory indexes that never render it.
+     */
+    public static ProductDTO summaryOf(Product product) {
+        return of(product, null);
+    }
+
+    private static ProductDTO of(Product product, String description) {
+        ProductDTO dto = new ProductDTO(
+            product.getId(),
+            product.getName(),
+            description,
+            product.getPrice(),
+            product.getQuantity(),
+            product.getCategory(),
+            product.getBrand(),
+            product.getImageUrl(),
+            product.getRating(),
+            product.getReviewCount(),
+            product.getAiRecommendationScore()
+        );
+        dto.setSellerId(product.getSellerId());
+        if (product.getApprovalStatus() != null) {
+            dto.setApprovalStatus(product.getApprovalStatus().name());
+        }
+        return dto;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
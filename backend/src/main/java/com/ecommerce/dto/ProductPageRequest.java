@@ -0,0 +1,32 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.repository.ProductSortKey;
+
+/**
+ * Ordering, position and size requested for one page of a product listing.
+ */
+public class ProductPageRequest {
+    public static final int DEFAULT_SIZE = 24;
+    public static final int MAX_SIZE = 100;
+
+    private final ProductSortKey sortKey;
+    private final boolean descending;
+    private final ProductCursor cursor;
+    private final int size;
+
+    public ProductPageRequest(ProductSortKey sortKey, boolean descending, ProductCursor cursor, int size) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.cursor = cursor;
+        this.size = Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public static ProductPageRequest firstPage(int size) {
+        return new ProductPageRequest(ProductSortKey.ID, false, null, size);
+    }
+
+    public ProductSortKey getSortKey() { return sortKey; }
+    public boolean isDescending() { return descending; }
+    public ProductCursor getCursor() { return cursor; }
+    public int getSize() { return size; }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Review sentiment counts for one product, as of the last run of the review sentiment job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSentimentSummary {
+    private Long productId;
+    private long positiveCount;
+    private long neutralCount;
+    private long negativeCount;
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A place in the checkout queue. {@code ticket} is signed and is sent back unchanged, both to
+ * poll for the position and, once admitted, with the checkout itself.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueTicket {
+    private String ticket;
+    private boolean admitted;
+    // Place in line, 1 being next; 0 once admitted
+    private long position;
+    private long estimatedWaitSeconds;
+    private long pollAfterSeconds;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.util.CacheStats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters for the per-user recommendation cache. Staleness is how old an entry was when it
+ * was served; invalidations are entries dropped because a user's history or a product changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationCacheStats {
+    private CacheStats cache;
+    private double averageAgeOnHitSeconds;
+    private double maxAgeOnHitSeconds;
+    private long userInvalidations;
+    private long productInvalidations;
+}
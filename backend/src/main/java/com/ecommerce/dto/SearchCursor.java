@@ -0,0 +1,48 @@
+package com.ecommerce.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for ranked search and faceted browse results, which page by rank offset.
+ */
+public final class SearchCursor {
+    /** Deepest rank a cursor may point at; ranking deeper pages costs memory proportional to the offset. */
+    public static final int MAX_OFFSET = 10_000;
+
+    private static final String PREFIX = "s1|";
+
+    private SearchCursor() {}
+
+    public static String encode(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The cursor for the page starting at {@code nextOffset}, or null when there is none or it is
+     * past {@link #MAX_OFFSET}.
+     */
+    public static String next(int nextOffset, int totalHits) {
+        return nextOffset < totalHits && nextOffset <= MAX_OFFSET ? encode(nextOffset) : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or points past {@link #MAX_OFFSET}
+     */
+    public static int decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            int offset = Integer.parseInt(raw.substring(PREFIX.length()));
+            if (offset < 0 || offset > MAX_OFFSET) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return offset;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
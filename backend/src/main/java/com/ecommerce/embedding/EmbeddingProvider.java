@@ -0,0 +1,24 @@
+package com.ecommerce.embedding;
+
+import java.util.List;
+
+/**
+ * Turns text into dense vectors for semantic search. Implementations return L2-normalized vectors
+ * of {@link #dimensions()} floats, one per input, in input order.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Identifies the model and its settings; cached embeddings from a different model id are never reused.
+     */
+    String modelId();
+
+    int dimensions();
+
+    /**
+     * Most texts accepted by one {@link #embed} call.
+     */
+    int maxBatchSize();
+
+    List<float[]> embed(List<String> texts);
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ecommerce.search.SimHash;
+import com.ecommerce.search.Tokenizer;
+
+/**
+ * Deterministic, dependency-free embeddings for offline use and tests: words and their character
+ * trigrams are hashed into signed buckets (the hashing trick) with sublinear term frequency.
+ * Trigrams let morphological variants such as "headphone" and "headphones" land close together.
+ */
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+    private static final double WORD_WEIGHT = 1.0;
+    private static final double TRIGRAM_WEIGHT = 0.5;
+
+    private final int dimensions;
+
+    public HashingEmbeddingProvider(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public String modelId() {
+        return "hashing-v1-" + dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 1024;
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(embed(text));
+        }
+        return vectors;
+    }
+
+    private float[] embed(String text) {
+        double[] counts = new double[dimensions];
+        for (String word : Tokenizer.tokenize(text)) {
+            addFeature(counts, "w:" + word, WORD_WEIGHT);
+            String padded = "<" + word + ">";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(counts, "t:" + padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+        }
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            counts[i] = Math.signum(counts[i]) * Math.log1p(Math.abs(counts[i]));
+            norm += counts[i] * counts[i];
+        }
+        float[] vector = new float[dimensions];
+        if (norm > 0) {
+            double scale = 1.0 / Math.sqrt(norm);
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = (float) (counts[i] * scale);
+            }
+        }
+        return vector;
+    }
+
+    // The high bit of the hash picks the sign, so colliding features tend to cancel rather than pile up
+    private void addFeature(double[] counts, String feature, double weight) {
+        long hash = SimHash.key(feature);
+        int bucket = (int) Math.floorMod(hash, (long) dimensions);
+        counts[bucket] += hash < 0 ? -weight : weight;
+    }
+}
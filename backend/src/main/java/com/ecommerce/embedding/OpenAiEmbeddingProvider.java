@@ -0,0 +1,103 @@
+package com.ecommerce.embedding;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Embeddings from the OpenAI embeddings endpoint. Text-embedding-3 models accept a
+ * {@code dimensions} argument, which keeps vectors as small as the in-memory index needs.
+ */
+public class OpenAiEmbeddingProvider implements EmbeddingProvider {
+    // The endpoint accepts up to 2048 inputs; smaller batches keep each request well under its token limit
+    private static final int MAX_BATCH = 256;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+    private final int dimensions;
+
+    public OpenAiEmbeddingProvider(ObjectMapper objectMapper, String baseUrl, String apiKey, String model, int dimensions) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalStateException("OpenAI embeddings need an API key (OPENAI_API_KEY)");
+        }
+        this.objectMapper = objectMapper;
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/embeddings");
+        this.apiKey = apiKey;
+        this.model = model;
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public String modelId() {
+        return "openai-" + model + "-" + dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH;
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                    "model", model,
+                    "input", texts,
+                    "dimensions", dimensions,
+                    "encoding_format", "float"));
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Authorization", "Bearer " + apiKey)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("OpenAI embeddings request failed with HTTP " + response.statusCode());
+            }
+
+            JsonNode data = objectMapper.readTree(response.body()).path("data");
+            float[][] vectors = new float[texts.size()][];
+            for (JsonNode item : data) {
+                JsonNode values = item.path("embedding");
+                float[] vector = new float[values.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = (float) values.get(i).asDouble();
+                }
+                vectors[item.path("index").asInt()] = vector;
+            }
+            if (Arrays.stream(vectors).anyMatch(v -> v == null || v.length != dimensions)) {
+                throw new RuntimeException("OpenAI embeddings response did not cover every input");
+            }
+            return new ArrayList<>(Arrays.asList(vectors));
+        } catch (IOException e) {
+            throw new RuntimeException("OpenAI embeddings request failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for OpenAI embeddings", e);
+        }
+    }
+}
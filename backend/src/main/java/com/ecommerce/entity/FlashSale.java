@@ -0,0 +1,29 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product currently in flash-sale mode; the row exists only while the sale runs.
+ * While it does, the product's stock is sold from memory by {@code FlashSaleService}.
+ */
+@Entity
+@Table(name = "flash_sales")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSale {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "started_by")
+    private Long startedBy;
+
+    private LocalDateTime startedAt;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row naming the instance that runs flash sales, until {@code expiresAt} unless renewed.
+ * Written by {@code FlashSaleService}.
+ */
+@Entity
+@Table(name = "flash_sale_lease")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleLease {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A generated description keyed by the hash of the model id and the product's name, category and
+ * brand, so products with the same facts share one generation.
+ */
+@Entity
+@Table(name = "generated_descriptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneratedDescription {
+
+    // Hex SHA-256 of model id + normalized name, category and brand
+    @Id
+    @Column(length = 64)
+    private String inputHash;
+
+    @Column(nullable = false)
+    private String modelId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String description;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.entity;
+
+/**
+ * State of an idempotency key: claimed by a request still running (IN_PROGRESS), or holding the
+ * response of the request that finished (COMPLETED).
+ */
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
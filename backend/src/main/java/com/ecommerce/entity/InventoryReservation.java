@@ -0,0 +1,49 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock of one product taken out of {@code products.quantity} for a pending order.
+ * Written by {@code InventoryReservationService}; one row per order and product.
+ */
+@Entity
+@Table(name = "inventory_reservations", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_reservations_order_product", columnNames = {"order_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_inventory_reservations_expiry", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReservationStatus status;
+
+    // Active reservations past this have their stock returned; null for placed orders, which hold it until confirmed or cancelled
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
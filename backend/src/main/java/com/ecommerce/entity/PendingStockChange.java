@@ -0,0 +1,36 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a flash-sale product's stock that is not yet applied to {@code products.quantity}.
+ * Written in the same transaction as the order or cancellation that caused it, and deleted when
+ * the write-behind flush applies it, so after a crash the unapplied changes are still here.
+ */
+@Entity
+@Table(name = "pending_stock_changes", indexes = {
+    @Index(name = "idx_pending_stock_changes_product", columnList = "product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingStockChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Negative for units sold, positive for units returned
+    @Column(nullable = false)
+    private Integer delta;
+
+    private LocalDateTime createdAt;
+}
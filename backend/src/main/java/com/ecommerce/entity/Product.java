@@ -7,7 +7,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Composite indexes backing the keyset-paginated listings (sort column + id tie-breaker)
+    @Index(name = "idx_products_status_id", columnList = "approval_status, id"),
+    @Index(name = "idx_products_status_rating", columnList = "approval_status, rating, id"),
+    @Index(name = "idx_products_status_price", columnList = "approval_status, price, id"),
+    @Index(name = "idx_products_status_created", columnList = "approval_status, created_at, id"),
+    @Index(name = "idx_products_category_status", columnList = "category, approval_status, id"),
+    @Index(name = "idx_products_seller", columnList = "seller_id, id"),
+    // Non-personalized recommendations read the best scores first
+    @Index(name = "idx_ai_score", columnList = "ai_recommendation_score")
+})
 @SuppressWarnings("unused")
 public class Product {
     @Id
@@ -41,7 +51,8 @@ public class Product {
     @Column(nullable = false)
     private Integer reviewCount;
 
-    @Column(name = "ai_recommendation_score")
+    // Owned by the scoring job, which writes it directly; entity saves never overwrite it
+    @Column(name = "ai_recommendation_score", updatable = false)
     private Double aiRecommendationScore;
 
     @Column(name = "seller_id")
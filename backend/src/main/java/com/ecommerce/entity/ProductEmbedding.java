@@ -0,0 +1,38 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An embedding keyed by the hash of the model id and the exact text embedded, so any product
+ * whose text is unchanged, or identical to another's, reuses it instead of calling the model again.
+ */
+@Entity
+@Table(name = "product_embeddings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEmbedding {
+
+    // Hex SHA-256 of model id + text
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String modelId;
+
+    @Column(nullable = false)
+    private Integer dimensions;
+
+    // Little-endian float32 values
+    @Lob
+    @Column(nullable = false)
+    private byte[] vector;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How many of a product's reviews are positive, neutral and negative. Maintained incrementally by
+ * the review sentiment job and by review deletions.
+ */
+@Entity
+@Table(name = "product_sentiments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSentiment {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private long positiveCount;
+
+    @Column(nullable = false)
+    private long neutralCount;
+
+    @Column(nullable = false)
+    private long negativeCount;
+
+    private LocalDateTime updatedAt;
+}
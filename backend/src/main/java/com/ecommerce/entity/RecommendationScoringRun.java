@@ -0,0 +1,43 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of the catalog scoring job that writes {@code products.ai_recommendation_score}.
+ */
+@Entity
+@Table(name = "recommendation_scoring_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationScoringRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String modelVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private Long durationMillis;
+
+    private Integer productsScored;
+
+    // Rows whose score actually changed; unchanged rows are not rewritten
+    private Integer productsUpdated;
+
+    private boolean succeeded;
+
+    @Column(length = 1000)
+    private String error;
+}
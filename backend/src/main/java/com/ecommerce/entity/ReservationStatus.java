@@ -0,0 +1,14 @@
+package com.ecommerce.entity;
+
+/**
+ * Lifecycle of an inventory reservation: stock is held while ACTIVE, kept for good once the order
+ * moves past pending (COMMITTED), or handed back when the order is cancelled (RELEASED). An idle
+ * order's line whose stock was handed back while the order stays pending is EXPIRED, and is taken
+ * from stock again if the order is added to or confirmed.
+ */
+public enum ReservationStatus {
+    ACTIVE,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
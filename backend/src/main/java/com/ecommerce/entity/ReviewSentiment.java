@@ -0,0 +1,41 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The sentiment label of one review, written by the review sentiment job.
+ */
+@Entity
+@Table(name = "review_sentiments", indexes = {
+    @Index(name = "idx_review_sentiments_product", columnList = "product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSentiment {
+
+    @Id
+    @Column(name = "review_id")
+    private Long reviewId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SentimentLabel label;
+
+    // Polarity in [-1, 1]
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(nullable = false)
+    private String modelId;
+
+    private LocalDateTime scoredAt;
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far the review sentiment job has got: every review up to {@code lastReviewId} has been
+ * labeled by {@code modelId}. Saved in the same transaction as each chunk of labels.
+ */
+@Entity
+@Table(name = "sentiment_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentimentCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String jobName;
+
+    @Column(nullable = false)
+    private String modelId;
+
+    @Column(nullable = false)
+    private long lastReviewId;
+
+    @Column(nullable = false)
+    private long reviewsScored;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.entity;
+
+public enum SentimentLabel {
+    POSITIVE, NEUTRAL, NEGATIVE;
+
+    // Polarity scores this close to zero carry no clear opinion
+    private static final double NEUTRAL_BAND = 0.05;
+
+    public static SentimentLabel fromScore(double score) {
+        if (score >= NEUTRAL_BAND) {
+            return POSITIVE;
+        }
+        if (score <= -NEUTRAL_BAND) {
+            return NEGATIVE;
+        }
+        return NEUTRAL;
+    }
+}
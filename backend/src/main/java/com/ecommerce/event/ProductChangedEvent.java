@@ -0,0 +1,57 @@
+package com.ecommerce.event;
+
+import com.ecommerce.entity.Product;
+
+/**
+ * Published after a product row is created, updated, approved, rejected or deleted, or after
+ * orders take or return its stock. In-memory indexes and caches listen for it to stay in step with
+ * the products table.
+ */
+public class ProductChangedEvent {
+    private final Long productId;
+    private final Product product;
+    private final boolean stockOnly;
+
+    private ProductChangedEvent(Long productId, Product product, boolean stockOnly) {
+        this.productId = productId;
+        this.product = product;
+        this.stockOnly = stockOnly;
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product, false);
+    }
+
+    /**
+     * Only the product's quantity changed, as on every checkout.
+     */
+    public static ProductChangedEvent stockChanged(Product product) {
+        return new ProductChangedEvent(product.getId(), product, true);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null, false);
+    }
+
+    public Long getProductId() { return productId; }
+
+    /**
+     * The product as saved, or null when it was deleted.
+     */
+    public Product getProduct() { return product; }
+
+    public boolean isDeleted() { return product == null; }
+
+    /**
+     * Whether the quantity is all that changed. Listeners that neither index nor show stock can skip the event.
+     */
+    public boolean isStockOnly() { return stockOnly; }
+
+    /**
+     * Whether the product is visible to customers (approved, or added before approval existed).
+     */
+    public boolean isVisible() {
+        return product != null && (product.getApprovalStatus() == null
+                || product.getApprovalStatus() == Product.ProductApprovalStatus.APPROVED);
+    }
+}
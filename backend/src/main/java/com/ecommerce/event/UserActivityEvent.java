@@ -0,0 +1,29 @@
+package com.ecommerce.event;
+
+/**
+ * Published after a user places an order, adds to one, or writes or removes a review.
+ * Per-user caches listen for it to drop results computed from the user's older history.
+ */
+public class UserActivityEvent {
+    public enum Kind { ORDERED, REVIEWED }
+
+    private final Long userId;
+    private final Kind kind;
+
+    private UserActivityEvent(Long userId, Kind kind) {
+        this.userId = userId;
+        this.kind = kind;
+    }
+
+    public static UserActivityEvent ordered(Long userId) {
+        return new UserActivityEvent(userId, Kind.ORDERED);
+    }
+
+    public static UserActivityEvent reviewed(Long userId) {
+        return new UserActivityEvent(userId, Kind.REVIEWED);
+    }
+
+    public Long getUserId() { return userId; }
+
+    public Kind getKind() { return kind; }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.generation;
+
+/**
+ * The product facts a description is written from. Two products with the same facts get the same
+ * description, which is what lets generated descriptions be cached and shared.
+ */
+public final class DescriptionPrompt {
+    private final String name;
+    private final String category;
+    private final String brand;
+
+    public DescriptionPrompt(String name, String category, String brand) {
+        this.name = name;
+        this.category = category;
+        this.brand = brand;
+    }
+
+    public String getName() { return name; }
+    public String getCategory() { return category; }
+    public String getBrand() { return brand; }
+}
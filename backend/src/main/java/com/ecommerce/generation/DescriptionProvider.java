@@ -0,0 +1,25 @@
+package com.ecommerce.generation;
+
+import java.util.List;
+
+/**
+ * Writes product descriptions. Calls may be slow and may fail transiently; callers batch prompts
+ * and retry, so implementations should simply throw on failure.
+ */
+public interface DescriptionProvider {
+
+    /**
+     * Identifies the model and its settings; cached descriptions from a different model id are never reused.
+     */
+    String modelId();
+
+    /**
+     * Most prompts accepted by one {@link #generate} call.
+     */
+    int maxBatchSize();
+
+    /**
+     * One description per prompt, in prompt order.
+     */
+    List<String> generate(List<DescriptionPrompt> prompts);
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.generation;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Descriptions from the OpenAI chat completions endpoint. A whole batch goes in one request as a
+ * JSON array and comes back as a JSON object, so a batch costs one round trip instead of one per product.
+ */
+public class OpenAiDescriptionProvider implements DescriptionProvider {
+    // Keeps one response comfortably inside the model's output token limit
+    private static final int MAX_BATCH = 20;
+    private static final String INSTRUCTIONS = "You write product descriptions for an online store. "
+            + "For each product in the JSON array you are given, write a factual, appealing description "
+            + "of two or three sentences. Do not invent specifications. Reply with a JSON object "
+            + "{\"descriptions\": [...]} holding one string per product, in the same order.";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+
+    public OpenAiDescriptionProvider(ObjectMapper objectMapper, String baseUrl, String apiKey, String model) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalStateException("OpenAI descriptions need an API key (OPENAI_API_KEY)");
+        }
+        this.objectMapper = objectMapper;
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/chat/completions");
+        this.apiKey = apiKey;
+        this.model = model;
+    }
+
+    @Override
+    public String modelId() {
+        return "openai-" + model;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH;
+    }
+
+    @Override
+    public List<String> generate(List<DescriptionPrompt> prompts) {
+        if (prompts.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<Map<String, String>> products = new ArrayList<>(prompts.size());
+            for (DescriptionPrompt prompt : prompts) {
+                products.add(Map.of("name", prompt.getName(), "category", prompt.getCategory(), "brand", prompt.getBrand()));
+            }
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                    "model", model,
+                    "response_format", Map.of("type", "json_object"),
+                    "messages", List.of(
+                            Map.of("role", "system", "content", INSTRUCTIONS),
+                            Map.of("role", "user", "content", objectMapper.writeValueAsString(products)))));
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(Duration.ofSeconds(120))
+                    .header("Authorization", "Bearer " + apiKey)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("OpenAI completion request failed with HTTP " + response.statusCode());
+            }
+
+            String content = objectMapper.readTree(response.body())
+                    .path("choices").path(0).path("message").path("content").asText();
+            JsonNode descriptions = objectMapper.readTree(content).path("descriptions");
+            if (!descriptions.isArray() || descriptions.size() != prompts.size()) {
+                throw new RuntimeException("OpenAI completion did not return one description per product");
+            }
+            List<String> results = new ArrayList<>(prompts.size());
+            for (JsonNode description : descriptions) {
+                if (description.asText().isBlank()) {
+                    throw new RuntimeException("OpenAI completion returned an empty description");
+                }
+                results.add(description.asText().trim());
+            }
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException("OpenAI completion request failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for OpenAI completion", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills a fixed template from the product facts. Needs no network or credentials, so description
+ * generation works offline and in development; output is deterministic.
+ */
+public class TemplateDescriptionProvider implements DescriptionProvider {
+
+    @Override
+    public String modelId() {
+        return "template-v1";
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public List<String> generate(List<DescriptionPrompt> prompts) {
+        List<String> descriptions = new ArrayList<>(prompts.size());
+        for (DescriptionPrompt prompt : prompts) {
+            descriptions.add(String.format("High-quality %s from %s in our %s range. "
+                            + "Designed for optimal performance and durability. "
+                            + "Perfect for customers looking for premium quality at competitive prices.",
+                    prompt.getName(), prompt.getBrand(), prompt.getCategory()));
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.recommendation;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Purchase history and catalog for offline recommendation evaluation: one (user, product, time)
+ * row per purchased item, in time order, plus each product's features as they are now.
+ *
+ * Product features are a current snapshot, not their value at purchase time, so strategies that
+ * use ratings and review counts see slightly more than they would have live.
+ */
+public final class EvaluationDataset {
+    final long[] users;
+    final long[] products;
+    final long[] times;
+    final int size;
+
+    final long[] catalogIds;
+    final double[] ratings;
+    final int[] reviewCounts;
+    final int[] quantities;
+    final String[] categories;
+    final boolean[] visible;
+    final int catalogSize;
+
+    private EvaluationDataset(Builder builder) {
+        size = builder.size;
+        // Stable sort by time, so items of one order stay together
+        Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(i -> builder.times[i]));
+        users = new long[size];
+        products = new long[size];
+        times = new long[size];
+        for (int i = 0; i < size; i++) {
+            users[i] = builder.users[order[i]];
+            products[i] = builder.products[order[i]];
+            times[i] = builder.times[order[i]];
+        }
+        catalogSize = builder.catalogSize;
+        catalogIds = Arrays.copyOf(builder.catalogIds, catalogSize);
+        ratings = Arrays.copyOf(builder.ratings, catalogSize);
+        reviewCounts = Arrays.copyOf(builder.reviewCounts, catalogSize);
+        quantities = Arrays.copyOf(builder.quantities, catalogSize);
+        categories = Arrays.copyOf(builder.categories, catalogSize);
+        visible = Arrays.copyOf(builder.visible, catalogSize);
+    }
+
+    public int purchaseCount() { return size; }
+    public int catalogSize() { return catalogSize; }
+
+    public static final class Builder {
+        private long[] users = new long[1024];
+        private long[] products = new long[1024];
+        private long[] times = new long[1024];
+        private int size;
+
+        private long[] catalogIds = new long[256];
+        private double[] ratings = new double[256];
+        private int[] reviewCounts = new int[256];
+        private int[] quantities = new int[256];
+        private String[] categories = new String[256];
+        private boolean[] visible = new boolean[256];
+        private int catalogSize;
+
+        public Builder addPurchase(long userId, long productId, long epochMillis) {
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+                products = Arrays.copyOf(products, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            users[size] = userId;
+            products[size] = productId;
+            times[size] = epochMillis;
+            size++;
+            return this;
+        }
+
+        public Builder addProduct(long productId, double rating, int reviewCount, int quantity, String category,
+                                  boolean isVisible) {
+            if (catalogSize == catalogIds.length) {
+                int capacity = catalogSize * 2;
+                catalogIds = Arrays.copyOf(catalogIds, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+                reviewCounts = Arrays.copyOf(reviewCounts, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                visible = Arrays.copyOf(visible, capacity);
+            }
+            catalogIds[catalogSize] = productId;
+            ratings[catalogSize] = rating;
+            reviewCounts[catalogSize] = reviewCount;
+            quantities[catalogSize] = quantity;
+            categories[catalogSize] = category;
+            visible[catalogSize] = isVisible;
+            catalogSize++;
+            return this;
+        }
+
+        public EvaluationDataset build() {
+            return new EvaluationDataset(this);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.recommendation;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Result of one {@link OfflineEvaluator} run: the data it used and one row per strategy, so two
+ * runs on the same data and seed can be compared line by line.
+ */
+public class EvaluationReport {
+    private final String source;
+    private final int k;
+    private final int purchases;
+    private final int trainingPurchases;
+    private final int evaluatedUsers;
+    private final int catalogSize;
+    private final List<StrategyResult> strategies;
+
+    EvaluationReport(String source, int k, int purchases, int trainingPurchases, int evaluatedUsers,
+                     int catalogSize, List<StrategyResult> strategies) {
+        this.source = source;
+        this.k = k;
+        this.purchases = purchases;
+        this.trainingPurchases = trainingPurchases;
+        this.evaluatedUsers = evaluatedUsers;
+        this.catalogSize = catalogSize;
+        this.strategies = strategies;
+    }
+
+    public String getSource() { return source; }
+    public int getK() { return k; }
+    public int getPurchases() { return purchases; }
+    public int getTrainingPurchases() { return trainingPurchases; }
+    public int getEvaluatedUsers() { return evaluatedUsers; }
+    public int getCatalogSize() { return catalogSize; }
+    public List<StrategyResult> getStrategies() { return strategies; }
+
+    public StrategyResult strategy(String name) {
+        return strategies.stream().filter(s -> s.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    /**
+     * Fixed-width text table, one strategy per line.
+     */
+    public String toTable() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%s: %d purchases (%d for training), %d users evaluated, %d products%n",
+                source, purchases, trainingPurchases, evaluatedUsers, catalogSize));
+        out.append(String.format(Locale.ROOT, "%-16s %8s %8s %8s %8s %9s %9s %9s %9s%n",
+                "strategy", "prec@" + k, "recall@" + k, "hit@" + k, "coverage", "p50 us", "p95 us", "p99 us", "train ms"));
+        for (StrategyResult s : strategies) {
+            out.append(String.format(Locale.ROOT, "%-16s %8.4f %8.4f %8.4f %8.4f %9.1f %9.1f %9.1f %9d%n",
+                    s.getName(), s.getPrecisionAtK(), s.getRecallAtK(), s.getHitRateAtK(), s.getCoverage(),
+                    s.getP50Micros(), s.getP95Micros(), s.getP99Micros(), s.getTrainMillis()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Quality and per-call latency of one strategy. Precision and recall are averaged over users;
+     * coverage is the share of the catalog recommended to anyone.
+     */
+    public static class StrategyResult {
+        private final String name;
+        private final double precisionAtK;
+        private final double recallAtK;
+        private final double hitRateAtK;
+        private final double coverage;
+        private final double p50Micros;
+        private final double p95Micros;
+        private final double p99Micros;
+        private final double maxMicros;
+        private final long trainMillis;
+
+        StrategyResult(String name, double precisionAtK, double recallAtK, double hitRateAtK, double coverage,
+                       double p50Micros, double p95Micros, double p99Micros, double maxMicros, long trainMillis) {
+            this.name = name;
+            this.precisionAtK = precisionAtK;
+            this.recallAtK = recallAtK;
+            this.hitRateAtK = hitRateAtK;
+            this.coverage = coverage;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.trainMillis = trainMillis;
+        }
+
+        public String getName() { return name; }
+        public double getPrecisionAtK() { return precisionAtK; }
+        public double getRecallAtK() { return recallAtK; }
+        public double getHitRateAtK() { return hitRateAtK; }
+        public double getCoverage() { return coverage; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP95Micros() { return p95Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getMaxMicros() { return maxMicros; }
+        public long getTrainMillis() { return trainMillis; }
+    }
+}
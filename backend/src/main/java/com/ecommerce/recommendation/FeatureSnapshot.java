@@ -0,0 +1,99 @@
+package com.ecommerce.recommendation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of the catalog features the scoring model reads, one primitive array per
+ * feature, with products addressed by ordinal. Scoring kernels walk the columns sequentially
+ * without touching an object per product.
+ */
+public final class FeatureSnapshot {
+    final long[] productIds;
+    final double[] ratings;
+    final int[] reviewCounts;
+    final int[] quantities;
+    final int[] categoryOrdinals;
+    // Units sold on a log scale against the best seller, in [0, 1]
+    final double[] salesWeights;
+    final boolean[] visible;
+    private final Map<String, Integer> categories;
+    private final int size;
+
+    private FeatureSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.productIds = Arrays.copyOf(builder.productIds, size);
+        this.ratings = Arrays.copyOf(builder.ratings, size);
+        this.reviewCounts = Arrays.copyOf(builder.reviewCounts, size);
+        this.quantities = Arrays.copyOf(builder.quantities, size);
+        this.categoryOrdinals = Arrays.copyOf(builder.categoryOrdinals, size);
+        this.salesWeights = Arrays.copyOf(builder.salesWeights, size);
+        this.visible = Arrays.copyOf(builder.visible, size);
+        this.categories = Map.copyOf(builder.categories);
+    }
+
+    public int size() { return size; }
+
+    public long productId(int ordinal) { return productIds[ordinal]; }
+
+    /**
+     * Whether a customer can buy the product right now: visible in the catalog and in stock.
+     */
+    public boolean isAvailable(int ordinal) {
+        return visible[ordinal] && quantities[ordinal] > 0;
+    }
+
+    /**
+     * Ordinal of the category (case-insensitive), or -1 when no product is in it.
+     */
+    public int categoryOrdinal(String category) {
+        return categories.getOrDefault(categoryKey(category), -1);
+    }
+
+    public int categoryOf(int ordinal) { return categoryOrdinals[ordinal]; }
+
+    private static String categoryKey(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Builder {
+        private long[] productIds = new long[1024];
+        private double[] ratings = new double[1024];
+        private int[] reviewCounts = new int[1024];
+        private int[] quantities = new int[1024];
+        private int[] categoryOrdinals = new int[1024];
+        private double[] salesWeights = new double[1024];
+        private boolean[] visible = new boolean[1024];
+        private final Map<String, Integer> categories = new HashMap<>();
+        private int size;
+
+        public Builder add(long productId, double rating, int reviewCount, int quantity, String category,
+                           double salesWeight, boolean isVisible) {
+            if (size == productIds.length) {
+                int capacity = size * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+                reviewCounts = Arrays.copyOf(reviewCounts, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                categoryOrdinals = Arrays.copyOf(categoryOrdinals, capacity);
+                salesWeights = Arrays.copyOf(salesWeights, capacity);
+                visible = Arrays.copyOf(visible, capacity);
+            }
+            productIds[size] = productId;
+            ratings[size] = rating;
+            reviewCounts[size] = reviewCount;
+            quantities[size] = quantity;
+            categoryOrdinals[size] = categories.computeIfAbsent(categoryKey(category), k -> categories.size());
+            salesWeights[size] = salesWeight;
+            visible[size] = isVisible;
+            size++;
+            return this;
+        }
+
+        public FeatureSnapshot build() {
+            return new FeatureSnapshot(this);
+        }
+    }
+}
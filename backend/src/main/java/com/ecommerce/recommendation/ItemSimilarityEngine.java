@@ -0,0 +1,101 @@
+package com.ecommerce.recommendation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.config.JdbcConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the current {@link ItemSimilarityModel} and rebuilds it in the background from the
+ * order history, so recommendation requests only read in-memory arrays.
+ *
+ * A basket is everything one user has ordered, excluding cancelled orders.
+ */
+@Component
+@Slf4j
+public class ItemSimilarityEngine {
+    private static final String BASKET_SQL = "SELECT o.user_id, i.product_id FROM order_items i "
+            + "JOIN orders o ON o.id = i.order_id WHERE o.status <> 'CANCELLED' ORDER BY o.user_id";
+
+    private final JdbcTemplate streamingJdbc;
+    private final TaskScheduler taskScheduler;
+    private final int maxNeighbors;
+    private final int maxBasket;
+    private final long rebuildIntervalMinutes;
+
+    private volatile ItemSimilarityModel model = ItemSimilarityModel.EMPTY;
+
+    public ItemSimilarityEngine(@Qualifier(JdbcConfig.STREAMING) JdbcTemplate streamingJdbc,
+                                TaskScheduler taskScheduler,
+                                @Value("${app.recommendations.max-neighbors:50}") int maxNeighbors,
+                                @Value("${app.recommendations.max-basket:500}") int maxBasket,
+                                @Value("${app.recommendations.rebuild-interval-minutes:60}") long rebuildIntervalMinutes) {
+        this.streamingJdbc = streamingJdbc;
+        this.taskScheduler = taskScheduler;
+        this.maxNeighbors = maxNeighbors;
+        this.maxBasket = maxBasket;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::rebuild, Duration.ofMinutes(rebuildIntervalMinutes));
+    }
+
+    public ItemSimilarityModel getModel() {
+        return model;
+    }
+
+    /**
+     * @see ItemSimilarityModel#recommend(Collection, int, double[])
+     */
+    public long[] recommend(Collection<Long> purchasedProductIds, int limit, double[] scoresOut) {
+        return model.recommend(purchasedProductIds, limit, scoresOut);
+    }
+
+    void rebuild() {
+        try {
+            long started = System.nanoTime();
+            PairBuffer pairs = new PairBuffer();
+            streamingJdbc.query(BASKET_SQL, rs -> {
+                pairs.add(rs.getLong(1), rs.getLong(2));
+            });
+            ItemSimilarityModel rebuilt = ItemSimilarityModel.build(pairs.keys, pairs.items, pairs.size, maxNeighbors, maxBasket);
+            model = rebuilt;
+            log.info("Item similarity model rebuilt: {} products, {} baskets, {} neighbour links in {} ms",
+                    rebuilt.productCount(), rebuilt.basketCount(), rebuilt.neighborCount(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            // Keep serving the previous model; the next scheduled run tries again
+            log.error("Item similarity model rebuild failed", e);
+        }
+    }
+
+    private static final class PairBuffer {
+        long[] keys = new long[1024];
+        long[] items = new long[1024];
+        int size;
+
+        void add(long key, long item) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+            }
+            keys[size] = key;
+            items[size] = item;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.recommendation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+import com.ecommerce.util.TopK;
+
+/**
+ * Immutable item-item similarity model built from purchase baskets.
+ *
+ * Products are addressed by dense ordinals (their position in the sorted {@code productIds}).
+ * Each product's strongest neighbours are stored in compressed-sparse-row form: the neighbours of
+ * ordinal {@code i} are {@code neighbors[offsets[i] .. offsets[i + 1])}, best first, with their
+ * cosine similarities in the parallel {@code similarities} array.
+ */
+public final class ItemSimilarityModel {
+    public static final ItemSimilarityModel EMPTY =
+            new ItemSimilarityModel(new long[0], new int[1], new int[0], new float[0], 0);
+
+    private final long[] productIds;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final float[] similarities;
+    private final int basketCount;
+
+    private ItemSimilarityModel(long[] productIds, int[] offsets, int[] neighbors, float[] similarities, int basketCount) {
+        this.productIds = productIds;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+        this.basketCount = basketCount;
+    }
+
+    /**
+     * Build the model from baskets given as (basket, product) pairs grouped by basket.
+     *
+     * @param basketKeys   basket key per pair (e.g. user id); pairs of one basket must be adjacent
+     * @param basketItems  product id per pair
+     * @param pairCount    number of valid entries in the two arrays
+     * @param maxNeighbors neighbours kept per product
+     * @param maxBasket    items kept per basket, bounding the quadratic cost of very large baskets
+     */
+    public static ItemSimilarityModel build(long[] basketKeys, long[] basketItems, int pairCount,
+                                            int maxNeighbors, int maxBasket) {
+        long[] productIds = distinctSorted(basketItems, pairCount);
+        int n = productIds.length;
+        if (n == 0) {
+            return EMPTY;
+        }
+
+        // Baskets as CSR over product ordinals, each de-duplicated and capped
+        int[] basketOffsets = new int[pairCount + 1];
+        int[] basketOrdinals = new int[pairCount];
+        int baskets = 0;
+        int written = 0;
+        for (int start = 0; start < pairCount; ) {
+            int end = start;
+            while (end < pairCount && basketKeys[end] == basketKeys[start]) {
+                end++;
+            }
+            int[] ordinals = new int[end - start];
+            for (int i = start; i < end; i++) {
+                ordinals[i - start] = Arrays.binarySearch(productIds, basketItems[i]);
+            }
+            Arrays.sort(ordinals);
+            int kept = 0;
+            for (int i = 0; i < ordinals.length && kept < maxBasket; i++) {
+                if (i == 0 || ordinals[i] != ordinals[i - 1]) {
+                    basketOrdinals[written + kept++] = ordinals[i];
+                }
+            }
+            basketOffsets[baskets] = written;
+            written += kept;
+            baskets++;
+            basketOffsets[baskets] = written;
+            start = end;
+        }
+
+        // Inverted lists: for each product, the baskets containing it
+        int[] itemOffsets = new int[n + 1];
+        for (int i = 0; i < written; i++) {
+            itemOffsets[basketOrdinals[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            itemOffsets[i + 1] += itemOffsets[i];
+        }
+        int[] itemBaskets = new int[written];
+        int[] fill = Arrays.copyOf(itemOffsets, n);
+        for (int b = 0; b < baskets; b++) {
+            for (int i = basketOffsets[b]; i < basketOffsets[b + 1]; i++) {
+                itemBaskets[fill[basketOrdinals[i]]++] = b;
+            }
+        }
+
+        // Cosine similarity of binary purchase vectors: co(a, b) / sqrt(count(a) * count(b))
+        int[][] neighborLists = new int[n][];
+        float[][] similarityLists = new float[n][];
+        ThreadLocal<int[]> coCounts = ThreadLocal.withInitial(() -> new int[n]);
+        ThreadLocal<int[]> touchedBuffers = ThreadLocal.withInitial(() -> new int[n]);
+        IntStream.range(0, n).parallel().forEach(a -> {
+            int[] co = coCounts.get();
+            int[] touched = touchedBuffers.get();
+            int touchedCount = 0;
+            for (int i = itemOffsets[a]; i < itemOffsets[a + 1]; i++) {
+                int basket = itemBaskets[i];
+                for (int j = basketOffsets[basket]; j < basketOffsets[basket + 1]; j++) {
+                    int b = basketOrdinals[j];
+                    if (b != a && co[b]++ == 0) {
+                        touched[touchedCount++] = b;
+                    }
+                }
+            }
+            double countA = itemOffsets[a + 1] - itemOffsets[a];
+            TopK top = new TopK(maxNeighbors);
+            for (int t = 0; t < touchedCount; t++) {
+                int b = touched[t];
+                double countB = itemOffsets[b + 1] - itemOffsets[b];
+                top.offer(b, co[b] / Math.sqrt(countA * countB));
+                co[b] = 0;
+            }
+            double[] scores = new double[top.size()];
+            int[] ids = top.drainDescending(scores);
+            float[] sims = new float[scores.length];
+            for (int i = 0; i < scores.length; i++) {
+                sims[i] = (float) scores[i];
+            }
+            neighborLists[a] = ids;
+            similarityLists[a] = sims;
+        });
+
+        int[] offsets = new int[n + 1];
+        for (int a = 0; a < n; a++) {
+            offsets[a + 1] = offsets[a] + neighborLists[a].length;
+        }
+        int[] neighbors = new int[offsets[n]];
+        float[] similarities = new float[offsets[n]];
+        for (int a = 0; a < n; a++) {
+            System.arraycopy(neighborLists[a], 0, neighbors, offsets[a], neighborLists[a].length);
+            System.arraycopy(similarityLists[a], 0, similarities, offsets[a], similarityLists[a].length);
+        }
+        return new ItemSimilarityModel(productIds, offsets, neighbors, similarities, baskets);
+    }
+
+    /**
+     * Products most similar to the given purchase history, best first, excluding the history itself.
+     * A candidate's score is the sum of its similarities to every purchased product.
+     *
+     * @param scoresOut receives the score of each returned product; may be null
+     */
+    public long[] recommend(Collection<Long> purchasedProductIds, int limit, double[] scoresOut) {
+        int[] history = purchasedProductIds.stream()
+                .mapToInt(id -> Arrays.binarySearch(productIds, id))
+                .filter(ordinal -> ordinal >= 0)
+                .sorted()
+                .toArray();
+        if (history.length == 0 || limit <= 0) {
+            return new long[0];
+        }
+
+        int expected = 0;
+        for (int ordinal : history) {
+            expected += offsets[ordinal + 1] - offsets[ordinal];
+        }
+        Accumulator acc = new Accumulator(expected);
+        for (int ordinal : history) {
+            for (int i = offsets[ordinal]; i < offsets[ordinal + 1]; i++) {
+                if (Arrays.binarySearch(history, neighbors[i]) < 0) {
+                    acc.add(neighbors[i], similarities[i]);
+                }
+            }
+        }
+
+        TopK top = new TopK(limit);
+        acc.offerAll(top);
+        double[] scores = new double[top.size()];
+        int[] ordinals = top.drainDescending(scores);
+        long[] ids = new long[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ids[i] = productIds[ordinals[i]];
+            if (scoresOut != null && i < scoresOut.length) {
+                scoresOut[i] = scores[i];
+            }
+        }
+        return ids;
+    }
+
+    public int productCount() { return productIds.length; }
+    public int basketCount() { return basketCount; }
+    public int neighborCount() { return neighbors.length; }
+
+    private static long[] distinctSorted(long[] values, int count) {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    // Open-addressing ordinal -> score map sized for one request's candidates
+    private static final class Accumulator {
+        private final int[] keys;
+        private final double[] scores;
+
+        Accumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        void add(int ordinal, double score) {
+            int mask = keys.length - 1;
+            int slot = (ordinal * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != 0 && keys[slot] != ordinal + 1) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = ordinal + 1;
+            scores[slot] += score;
+        }
+
+        void offerAll(TopK top) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    top.offer(keys[i] - 1, scores[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Replays purchase history with a time split: strategies are trained on the earliest purchases and
+ * asked to predict what each customer bought afterwards.
+ *
+ * For every customer who bought something new after the split, each strategy recommends k products
+ * from the customer's pre-split history. A recommendation is a hit when the customer later bought
+ * it. Every call is timed individually, after a warm-up pass, for latency percentiles.
+ */
+public final class OfflineEvaluator {
+    private final int k;
+    private final double trainFraction;
+    private final int warmupCalls;
+
+    /**
+     * @param trainFraction share of purchases, by time, used for training
+     * @param warmupCalls   untimed calls per strategy before measuring, so the JIT has compiled it
+     */
+    public OfflineEvaluator(int k, double trainFraction, int warmupCalls) {
+        if (k <= 0 || !(trainFraction > 0 && trainFraction < 1)) {
+            throw new IllegalArgumentException("k must be positive and the training fraction between 0 and 1");
+        }
+        this.k = k;
+        this.trainFraction = trainFraction;
+        this.warmupCalls = warmupCalls;
+    }
+
+    public EvaluationReport evaluate(String source, EvaluationDataset data, List<RecommendationStrategy> strategies) {
+        int trainSize = (int) (data.size * trainFraction);
+        // Never split an order, whose items share a timestamp, across the two sides
+        while (trainSize > 0 && trainSize < data.size && data.times[trainSize] == data.times[trainSize - 1]) {
+            trainSize++;
+        }
+
+        Map<Long, Set<Long>> before = new HashMap<>();
+        for (int i = 0; i < trainSize; i++) {
+            before.computeIfAbsent(data.users[i], u -> new HashSet<>()).add(data.products[i]);
+        }
+        // Sorted by user so every run asks strategies in the same order
+        Map<Long, Set<Long>> after = new TreeMap<>();
+        for (int i = trainSize; i < data.size; i++) {
+            Set<Long> history = before.getOrDefault(data.users[i], Set.of());
+            if (!history.contains(data.products[i])) {
+                after.computeIfAbsent(data.users[i], u -> new HashSet<>()).add(data.products[i]);
+            }
+        }
+        List<long[]> histories = new ArrayList<>(after.size());
+        List<long[]> relevant = new ArrayList<>(after.size());
+        after.forEach((user, bought) -> {
+            histories.add(sorted(before.getOrDefault(user, Set.of())));
+            relevant.add(sorted(bought));
+        });
+
+        List<EvaluationReport.StrategyResult> results = new ArrayList<>(strategies.size());
+        for (RecommendationStrategy strategy : strategies) {
+            results.add(evaluate(strategy, data, trainSize, histories, relevant));
+        }
+        return new EvaluationReport(source, k, data.size, trainSize, histories.size(), data.catalogSize, results);
+    }
+
+    private EvaluationReport.StrategyResult evaluate(RecommendationStrategy strategy, EvaluationDataset data,
+                                                     int trainSize, List<long[]> histories, List<long[]> relevant) {
+        long trainStart = System.nanoTime();
+        strategy.train(data, trainSize);
+        long trainMillis = (System.nanoTime() - trainStart) / 1_000_000;
+
+        int users = histories.size();
+        for (int i = 0; i < Math.min(warmupCalls, users); i++) {
+            strategy.recommend(histories.get(i), k);
+        }
+
+        long[] latencies = new long[users];
+        double precision = 0;
+        double recall = 0;
+        int usersWithHit = 0;
+        Set<Long> recommended = new HashSet<>();
+        for (int u = 0; u < users; u++) {
+            long start = System.nanoTime();
+            long[] ids = strategy.recommend(histories.get(u), k);
+            latencies[u] = System.nanoTime() - start;
+
+            int hits = 0;
+            for (long id : ids) {
+                recommended.add(id);
+                if (Arrays.binarySearch(relevant.get(u), id) >= 0) {
+                    hits++;
+                }
+            }
+            precision += (double) hits / k;
+            recall += (double) hits / relevant.get(u).length;
+            if (hits > 0) {
+                usersWithHit++;
+            }
+        }
+
+        Arrays.sort(latencies);
+        double n = Math.max(1, users);
+        return new EvaluationReport.StrategyResult(strategy.name(),
+                precision / n, recall / n, usersWithHit / n,
+                data.catalogSize == 0 ? 0 : (double) recommended.size() / data.catalogSize,
+                percentileMicros(latencies, 0.50), percentileMicros(latencies, 0.95),
+                percentileMicros(latencies, 0.99), percentileMicros(latencies, 1.0), trainMillis);
+    }
+
+    // Nearest-rank percentile of sorted nanosecond latencies
+    private static double percentileMicros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    private static long[] sorted(Set<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+}
@@ -0,0 +1,245 @@
+package com.ecommerce.recommendation;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.config.JdbcConfig;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.RecommendationScoringRun;
+import com.ecommerce.repository.RecommendationScoringRunRepository;
+import com.ecommerce.util.TopK;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically computes the global recommendation score of every product and stores it in
+ * {@code products.ai_recommendation_score}, so non-personalized reads are an indexed
+ * {@code ORDER BY ai_recommendation_score DESC LIMIT k}.
+ *
+ * Each run streams the catalog once into a columnar {@link FeatureSnapshot}, scores fixed-size
+ * ordinal ranges in parallel with the best available {@link ScoreKernel}, and writes each range
+ * back in its own transaction with one batched UPDATE. The last snapshot and its scores stay in
+ * memory so the best products overall or in a category are a single pass with a bounded heap.
+ * Every run is recorded with the model version that produced the scores.
+ */
+@Component
+@Slf4j
+public class ProductScoringJob {
+    public static final String MODEL_VERSION = "rating-reviews-stock-sales/1";
+
+    private static final String SALES_SQL = "SELECT i.product_id, SUM(i.quantity) FROM order_items i "
+            + "JOIN orders o ON o.id = i.order_id WHERE o.status <> 'CANCELLED' GROUP BY i.product_id";
+    private static final String FEATURES_SQL = "SELECT id, rating, review_count, quantity, category, approval_status "
+            + "FROM products ORDER BY id";
+    // <=> is MySQL's null-safe equality: rows whose score is unchanged are not rewritten
+    private static final String UPDATE_SQL = "UPDATE products SET ai_recommendation_score = ? "
+            + "WHERE id = ? AND NOT (ai_recommendation_score <=> ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final RecommendationScoringRunRepository runRepository;
+    private final ScoreKernel kernel = ScoreKernel.best();
+    private final int chunkSize;
+    private final int parallelism;
+    private final long intervalMinutes;
+
+    private volatile RecommendationScoringRun lastRun;
+    private volatile ScoredCatalog scored;
+
+    public ProductScoringJob(JdbcTemplate jdbcTemplate,
+                             @Qualifier(JdbcConfig.STREAMING) JdbcTemplate streamingJdbc,
+                             TransactionTemplate transactionTemplate,
+                             TaskScheduler taskScheduler,
+                             RecommendationScoringRunRepository runRepository,
+                             @Value("${app.recommendations.scoring-chunk-size:1000}") int chunkSize,
+                             @Value("${app.recommendations.scoring-parallelism:4}") int parallelism,
+                             @Value("${app.recommendations.scoring-interval-minutes:60}") long intervalMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbc = streamingJdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.runRepository = runRepository;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lastRun = runRepository.findFirstByOrderByStartedAtDesc().orElse(null);
+        log.info("Product scoring uses the {} kernel", kernel.name());
+        taskScheduler.scheduleWithFixedDelay(this::run, Duration.ofMinutes(intervalMinutes));
+    }
+
+    public RecommendationScoringRun getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Ids of the best-scored products a customer can buy, best first, from the last run;
+     * empty until the first run has finished.
+     * @param category restrict to one category (case-insensitive), or null for all products
+     */
+    public long[] topProductIds(String category, int limit) {
+        ScoredCatalog catalog = scored;
+        if (catalog == null || limit <= 0) {
+            return new long[0];
+        }
+        FeatureSnapshot features = catalog.features;
+        int categoryOrdinal = category == null ? -1 : features.categoryOrdinal(category);
+        if (category != null && categoryOrdinal < 0) {
+            return new long[0];
+        }
+        double[] scores = catalog.scores;
+        TopK top = new TopK(limit);
+        for (int i = 0; i < features.size(); i++) {
+            // Ordinals ascend, so a score equal to the threshold can never displace an entry; testing
+            // the score first skips almost every product once the heap is full
+            if (scores[i] > top.threshold() && features.isAvailable(i)
+                    && (categoryOrdinal < 0 || features.categoryOf(i) == categoryOrdinal)) {
+                top.offer(i, scores[i]);
+            }
+        }
+        int[] ordinals = top.drainDescending(null);
+        long[] ids = new long[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ids[i] = features.productId(ordinals[i]);
+        }
+        return ids;
+    }
+
+    void run() {
+        RecommendationScoringRun run = new RecommendationScoringRun();
+        run.setModelVersion(MODEL_VERSION);
+        run.setStartedAt(LocalDateTime.now());
+        long started = System.nanoTime();
+        AtomicInteger updated = new AtomicInteger();
+        int productCount = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "product-scoring-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            FeatureSnapshot features = loadFeatures();
+            productCount = features.size();
+            double[] scores = new double[productCount];
+            List<Callable<Void>> partitions = new ArrayList<>();
+            for (int from = 0; from < productCount; from += chunkSize) {
+                int rangeStart = from;
+                int rangeEnd = Math.min(from + chunkSize, productCount);
+                partitions.add(() -> {
+                    kernel.score(features, rangeStart, rangeEnd, scores);
+                    updated.addAndGet(writeScores(features, scores, rangeStart, rangeEnd));
+                    return null;
+                });
+            }
+            for (Future<Void> partition : workers.invokeAll(partitions)) {
+                partition.get();
+            }
+            scored = new ScoredCatalog(features, scores);
+            run.setSucceeded(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.setError("Interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Product scoring run failed", cause);
+            run.setError(String.valueOf(cause.getMessage()));
+        } finally {
+            workers.shutdownNow();
+        }
+
+        run.setFinishedAt(LocalDateTime.now());
+        run.setDurationMillis(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        run.setProductsScored(productCount);
+        run.setProductsUpdated(updated.get());
+        try {
+            lastRun = runRepository.save(run);
+        } catch (RuntimeException e) {
+            log.error("Could not record product scoring run", e);
+            lastRun = run;
+        }
+        log.info("Product scoring {} with model {}: {} scored, {} updated in {} ms",
+                run.isSucceeded() ? "finished" : "failed", MODEL_VERSION,
+                run.getProductsScored(), run.getProductsUpdated(), run.getDurationMillis());
+    }
+
+    private FeatureSnapshot loadFeatures() {
+        Map<Long, Long> unitsSold = new HashMap<>();
+        jdbcTemplate.query(SALES_SQL, rs -> {
+            unitsSold.put(rs.getLong(1), rs.getLong(2));
+        });
+        long maxUnits = unitsSold.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        double logMaxUnits = Math.log1p(maxUnits);
+
+        FeatureSnapshot.Builder builder = new FeatureSnapshot.Builder();
+        streamingJdbc.query(FEATURES_SQL, rs -> {
+            long id = rs.getLong(1);
+            String status = rs.getString(6);
+            double salesWeight = logMaxUnits > 0 ? Math.log1p(unitsSold.getOrDefault(id, 0L)) / logMaxUnits : 0.0;
+            builder.add(id, rs.getDouble(2), rs.getInt(3), rs.getInt(4), rs.getString(5), salesWeight,
+                    status == null || Product.ProductApprovalStatus.APPROVED.name().equals(status));
+        });
+        return builder.build();
+    }
+
+    private int writeScores(FeatureSnapshot features, double[] scores, int from, int to) {
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setDouble(1, scores[from + i]);
+                        ps.setLong(2, features.productId(from + i));
+                        ps.setDouble(3, scores[from + i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return to - from;
+                    }
+                }));
+        int updated = 0;
+        for (int count : counts) {
+            // Unchanged scores match no row; a statement reporting SUCCESS_NO_INFO (-2) is not counted either
+            if (count > 0) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private static final class ScoredCatalog {
+        final FeatureSnapshot features;
+        final double[] scores;
+
+        ScoredCatalog(FeatureSnapshot features, double[] scores) {
+            this.features = features;
+            this.scores = scores;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.recommendation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line evaluation on seeded synthetic data; needs no database or Spring context:
+ *
+ * <pre>
+ * java -cp target/classes com.ecommerce.recommendation.RecommendationBenchmark \
+ *     --seed 42 --users 20000 --products 5000 --k 10 --min-precision 0.02 --max-p99-micros 500
+ * </pre>
+ *
+ * Prints the report table and exits with status 1 when the served strategy's precision@k is below
+ * {@code --min-precision} or any strategy's p99 latency is above {@code --max-p99-micros}, so a
+ * build can gate on quality and latency regressions.
+ */
+public final class RecommendationBenchmark {
+
+    private RecommendationBenchmark() {}
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value pairs, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int users = Integer.parseInt(options.getOrDefault("users", "20000"));
+        int products = Integer.parseInt(options.getOrDefault("products", "5000"));
+        int k = Integer.parseInt(options.getOrDefault("k", "10"));
+        double trainFraction = Double.parseDouble(options.getOrDefault("train-fraction", "0.8"));
+
+        EvaluationDataset data = SyntheticPurchases.generate(seed, users, products);
+        EvaluationReport report = new OfflineEvaluator(k, trainFraction, 1000).evaluate(
+                "synthetic seed " + seed, data, RecommendationStrategies.standard(50, 500, seed));
+        System.out.print(report.toTable());
+
+        boolean failed = false;
+        if (options.containsKey("min-precision")) {
+            double minPrecision = Double.parseDouble(options.get("min-precision"));
+            EvaluationReport.StrategyResult served = report.strategy("served");
+            if (served.getPrecisionAtK() < minPrecision) {
+                System.err.printf("FAIL: served precision@%d %.4f is below %.4f%n", k, served.getPrecisionAtK(), minPrecision);
+                failed = true;
+            }
+        }
+        if (options.containsKey("max-p99-micros")) {
+            double maxP99 = Double.parseDouble(options.get("max-p99-micros"));
+            for (EvaluationReport.StrategyResult result : report.getStrategies()) {
+                if (result.getP99Micros() > maxP99) {
+                    System.err.printf("FAIL: %s p99 %.1f us is above %.1f us%n", result.getName(), result.getP99Micros(), maxP99);
+                    failed = true;
+                }
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.ecommerce.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import com.ecommerce.util.TopK;
+
+/**
+ * The strategies the evaluation harness compares: what {@code RecommendationService} serves
+ * (item similarity topped up with global scores), its two halves on their own, and two baselines.
+ */
+public final class RecommendationStrategies {
+
+    private RecommendationStrategies() {}
+
+    public static List<RecommendationStrategy> standard(int maxNeighbors, int maxBasket, long seed) {
+        return List.of(
+                new Hybrid(maxNeighbors, maxBasket),
+                new ItemSimilarity(maxNeighbors, maxBasket),
+                new GlobalScore(),
+                new Popularity(),
+                new RandomChoice(seed));
+    }
+
+    /**
+     * Item-item collaborative filtering over training baskets, one basket per customer as in
+     * {@link ItemSimilarityEngine}.
+     */
+    static class ItemSimilarity implements RecommendationStrategy {
+        private final int maxNeighbors;
+        private final int maxBasket;
+        ItemSimilarityModel model = ItemSimilarityModel.EMPTY;
+
+        ItemSimilarity(int maxNeighbors, int maxBasket) {
+            this.maxNeighbors = maxNeighbors;
+            this.maxBasket = maxBasket;
+        }
+
+        @Override
+        public String name() {
+            return "item-similarity";
+        }
+
+        @Override
+        public void train(EvaluationDataset data, int trainSize) {
+            // The model expects each basket's pairs to be adjacent
+            Integer[] byUser = IntStream.range(0, trainSize).boxed().toArray(Integer[]::new);
+            Arrays.sort(byUser, Comparator.comparingLong(i -> data.users[i]));
+            long[] keys = new long[trainSize];
+            long[] items = new long[trainSize];
+            for (int i = 0; i < trainSize; i++) {
+                keys[i] = data.users[byUser[i]];
+                items[i] = data.products[byUser[i]];
+            }
+            model = ItemSimilarityModel.build(keys, items, trainSize, maxNeighbors, maxBasket);
+        }
+
+        @Override
+        public long[] recommend(long[] history, int limit) {
+            return model.recommend(boxed(history), limit, null);
+        }
+    }
+
+    /**
+     * The scoring job's global score ({@link ScalarScoreKernel}), with units sold counted from the
+     * training purchases only; the same list for every customer, minus what they bought.
+     */
+    static class GlobalScore implements RecommendationStrategy {
+        long[] ranked = new long[0];
+
+        @Override
+        public String name() {
+            return "global-score";
+        }
+
+        @Override
+        public void train(EvaluationDataset data, int trainSize) {
+            Map<Long, Long> unitsSold = new HashMap<>();
+            for (int i = 0; i < trainSize; i++) {
+                unitsSold.merge(data.products[i], 1L, Long::sum);
+            }
+            double logMaxUnits = Math.log1p(unitsSold.values().stream().mapToLong(Long::longValue).max().orElse(0));
+            FeatureSnapshot.Builder builder = new FeatureSnapshot.Builder();
+            for (int p = 0; p < data.catalogSize; p++) {
+                long id = data.catalogIds[p];
+                double salesWeight = logMaxUnits > 0 ? Math.log1p(unitsSold.getOrDefault(id, 0L)) / logMaxUnits : 0.0;
+                builder.add(id, data.ratings[p], data.reviewCounts[p], data.quantities[p], data.categories[p],
+                        salesWeight, data.visible[p]);
+            }
+            FeatureSnapshot features = builder.build();
+            double[] scores = new double[features.size()];
+            new ScalarScoreKernel().score(features, 0, features.size(), scores);
+            ranked = rank(features, scores);
+        }
+
+        @Override
+        public long[] recommend(long[] history, int limit) {
+            return firstNotIn(ranked, history, limit, null);
+        }
+    }
+
+    /**
+     * What customers are served: item similarity over-fetched and filtered to products that can be
+     * bought, then topped up from the global score list.
+     */
+    static class Hybrid implements RecommendationStrategy {
+        private final ItemSimilarity similarity;
+        private final GlobalScore global = new GlobalScore();
+        private Set<Long> available = Set.of();
+
+        Hybrid(int maxNeighbors, int maxBasket) {
+            this.similarity = new ItemSimilarity(maxNeighbors, maxBasket);
+        }
+
+        @Override
+        public String name() {
+            return "served";
+        }
+
+        @Override
+        public void train(EvaluationDataset data, int trainSize) {
+            similarity.train(data, trainSize);
+            global.train(data, trainSize);
+            available = availableProducts(data);
+        }
+
+        @Override
+        public long[] recommend(long[] history, int limit) {
+            long[] candidates = similarity.recommend(history, limit * 3);
+            long[] chosen = new long[limit];
+            int count = 0;
+            for (int i = 0; i < candidates.length && count < limit; i++) {
+                if (available.contains(candidates[i])) {
+                    chosen[count++] = candidates[i];
+                }
+            }
+            if (count < limit) {
+                long[] padding = firstNotIn(global.ranked, history, limit, Arrays.copyOf(chosen, count));
+                for (int i = 0; i < padding.length && count < limit; i++) {
+                    chosen[count++] = padding[i];
+                }
+            }
+            return Arrays.copyOf(chosen, count);
+        }
+    }
+
+    /**
+     * Baseline: the products bought most often in the training period.
+     */
+    static class Popularity implements RecommendationStrategy {
+        private long[] ranked = new long[0];
+
+        @Override
+        public String name() {
+            return "popularity";
+        }
+
+        @Override
+        public void train(EvaluationDataset data, int trainSize) {
+            Map<Long, Integer> purchases = new HashMap<>();
+            for (int i = 0; i < trainSize; i++) {
+                purchases.merge(data.products[i], 1, Integer::sum);
+            }
+            Set<Long> available = availableProducts(data);
+            long[] ids = purchases.keySet().stream()
+                    .filter(available::contains)
+                    .sorted()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            TopK top = new TopK(Math.max(1, ids.length));
+            for (int i = 0; i < ids.length; i++) {
+                top.offer(i, purchases.get(ids[i]));
+            }
+            int[] ordinals = top.drainDescending(null);
+            ranked = new long[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                ranked[i] = ids[ordinals[i]];
+            }
+        }
+
+        @Override
+        public long[] recommend(long[] history, int limit) {
+            return firstNotIn(ranked, history, limit, null);
+        }
+    }
+
+    /**
+     * Baseline: products drawn uniformly from those that can be bought, from a fixed seed.
+     */
+    static class RandomChoice implements RecommendationStrategy {
+        private final long seed;
+        private SplittableRandom random;
+        private long[] available = new long[0];
+
+        RandomChoice(long seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public String name() {
+            return "random";
+        }
+
+        @Override
+        public void train(EvaluationDataset data, int trainSize) {
+            random = new SplittableRandom(seed);
+            available = availableProducts(data).stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        @Override
+        public long[] recommend(long[] history, int limit) {
+            Set<Long> chosen = new HashSet<>();
+            int wanted = Math.min(limit, Math.max(0, available.length - history.length));
+            while (chosen.size() < wanted) {
+                long id = available[random.nextInt(available.length)];
+                if (Arrays.binarySearch(history, id) < 0) {
+                    chosen.add(id);
+                }
+            }
+            return chosen.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private static long[] rank(FeatureSnapshot features, double[] scores) {
+        TopK top = new TopK(Math.max(1, features.size()));
+        for (int i = 0; i < features.size(); i++) {
+            if (features.isAvailable(i)) {
+                top.offer(i, scores[i]);
+            }
+        }
+        int[] ordinals = top.drainDescending(null);
+        long[] ids = new long[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ids[i] = features.productId(ordinals[i]);
+        }
+        return ids;
+    }
+
+    // The first ids of a ranked list that are neither in the (sorted) history nor in the exclusions
+    private static long[] firstNotIn(long[] ranked, long[] history, int limit, long[] exclude) {
+        List<Long> chosen = new ArrayList<>(limit);
+        for (int i = 0; i < ranked.length && chosen.size() < limit; i++) {
+            long id = ranked[i];
+            if (Arrays.binarySearch(history, id) < 0 && (exclude == null || !contains(exclude, id))) {
+                chosen.add(id);
+            }
+        }
+        return chosen.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<Long> availableProducts(EvaluationDataset data) {
+        Set<Long> available = new HashSet<>();
+        for (int p = 0; p < data.catalogSize; p++) {
+            if (data.visible[p] && data.quantities[p] > 0) {
+                available.add(data.catalogIds[p]);
+            }
+        }
+        return available;
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.recommendation;
+
+/**
+ * One way of choosing products for a customer, in a form {@link OfflineEvaluator} can train on a
+ * prefix of purchase history and then query per customer.
+ */
+public interface RecommendationStrategy {
+
+    String name();
+
+    /**
+     * Fits the strategy to the first {@code trainSize} purchases of {@code data} (which is in time order).
+     */
+    void train(EvaluationDataset data, int trainSize);
+
+    /**
+     * Up to {@code limit} product ids, best first, for a customer who has bought {@code history}
+     * (distinct ids, ascending; possibly empty). Never returns a product in the history.
+     */
+    long[] recommend(long[] history, int limit);
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.recommendation;
+
+/**
+ * Plain loop over the feature columns; also scores the tail the vector kernel cannot fill a lane with.
+ */
+final class ScalarScoreKernel implements ScoreKernel {
+
+    @Override
+    public void score(FeatureSnapshot features, int from, int to, double[] out) {
+        for (int i = from; i < to; i++) {
+            out[i] = score(features, i);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    static double score(FeatureSnapshot f, int i) {
+        double score = f.ratings[i] / 5.0 * 0.4;
+        score += Math.min(f.reviewCounts[i] / 100.0, 1.0) * 0.3;
+        score += f.quantities[i] > 0 ? 0.2 : 0.0;
+        score += f.salesWeights[i] * 0.1;
+        return score;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.recommendation;
+
+/**
+ * Computes the global recommendation score for a range of a {@link FeatureSnapshot}.
+ *
+ * The score is in [0, 1]: rating (0.4), review volume capped at 100 reviews (0.3), availability
+ * (0.2) and log-scaled units sold (0.1). Every kernel evaluates the same expression in the same
+ * order, so they produce identical doubles and unchanged scores are recognised across runs.
+ */
+public interface ScoreKernel {
+
+    /**
+     * Writes the score of ordinals {@code [from, to)} into the same positions of {@code out}.
+     */
+    void score(FeatureSnapshot features, int from, int to, double[] out);
+
+    String name();
+
+    /**
+     * The Vector API kernel when the JVM was started with {@code --add-modules jdk.incubator.vector},
+     * otherwise the scalar loop.
+     */
+    static ScoreKernel best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorScoreKernel();
+            } catch (LinkageError e) {
+                // Fall through to the scalar kernel
+            }
+        }
+        return new ScalarScoreKernel();
+    }
+}
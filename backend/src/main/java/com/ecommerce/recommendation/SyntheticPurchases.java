@@ -0,0 +1,96 @@
+package com.ecommerce.recommendation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic catalog and order history with the structure recommenders exploit: customers
+ * favour one or two categories, product popularity is long-tailed, and many products have a
+ * companion that is often bought in the same order. The same seed always gives the same data.
+ */
+public final class SyntheticPurchases {
+    private static final int CATEGORIES = 20;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int DAYS = 365;
+    // Chance that an order line comes from the customer's favourite categories rather than anywhere
+    private static final double FAVOURITE_SHARE = 0.8;
+    // Chance that buying a product with a companion also buys the companion
+    private static final double COMPANION_SHARE = 0.5;
+
+    private SyntheticPurchases() {}
+
+    public static EvaluationDataset generate(long seed, int users, int products) {
+        SplittableRandom random = new SplittableRandom(seed);
+        EvaluationDataset.Builder builder = new EvaluationDataset.Builder();
+
+        // Product ids are 1..products; category c holds every product with id % CATEGORIES == c
+        double[] popularity = new double[products + 1];
+        long[] companion = new long[products + 1];
+        for (int id = 1; id <= products; id++) {
+            // Zipf-like: a few products sell far more than the rest
+            popularity[id] = 1.0 / Math.pow(1 + random.nextInt(products), 0.8);
+            boolean visible = random.nextDouble() >= 0.02;
+            int quantity = random.nextDouble() < 0.1 ? 0 : 1 + random.nextInt(200);
+            int reviewCount = (int) (popularity[id] * 400 * random.nextDouble());
+            double rating = Math.round((2.5 + 2.5 * random.nextDouble()) * 10) / 10.0;
+            builder.addProduct(id, rating, reviewCount, quantity, "category-" + id % CATEGORIES, visible);
+        }
+        for (int id = 1; id <= products; id++) {
+            if (random.nextDouble() < 0.6) {
+                // A companion from the same category
+                long candidate = id + CATEGORIES * (1 + random.nextInt(Math.max(1, products / CATEGORIES)));
+                companion[id] = candidate <= products ? candidate : 0;
+            }
+        }
+
+        Sampler anywhere = new Sampler(popularity, 1, products, 1);
+        Sampler[] byCategory = new Sampler[CATEGORIES];
+        for (int c = 0; c < CATEGORIES; c++) {
+            byCategory[c] = new Sampler(popularity, c == 0 ? CATEGORIES : c, products, CATEGORIES);
+        }
+
+        for (long user = 1; user <= users; user++) {
+            int[] favourites = {random.nextInt(CATEGORIES), random.nextInt(CATEGORIES)};
+            int orders = 1 + (int) Math.min(12, -Math.log(1 - random.nextDouble()) * 3);
+            for (int o = 0; o < orders; o++) {
+                long time = random.nextLong(DAYS * DAY_MILLIS);
+                int lines = 1 + random.nextInt(3);
+                for (int l = 0; l < lines; l++) {
+                    Sampler sampler = random.nextDouble() < FAVOURITE_SHARE
+                            ? byCategory[favourites[random.nextInt(favourites.length)]]
+                            : anywhere;
+                    long product = sampler.sample(random);
+                    builder.addPurchase(user, product, time);
+                    if (companion[(int) product] != 0 && random.nextDouble() < COMPANION_SHARE) {
+                        builder.addPurchase(user, companion[(int) product], time);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // Draws ids first, first + step, ... up to last with probability proportional to their weight
+    private static final class Sampler {
+        private final long[] ids;
+        private final double[] cumulative;
+
+        Sampler(double[] weights, int first, int last, int step) {
+            int count = first > last ? 0 : (last - first) / step + 1;
+            ids = new long[count];
+            cumulative = new double[count];
+            double total = 0;
+            for (int i = 0; i < count; i++) {
+                ids[i] = first + (long) i * step;
+                total += weights[(int) ids[i]];
+                cumulative[i] = total;
+            }
+        }
+
+        long sample(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int i = Arrays.binarySearch(cumulative, target);
+            return ids[i >= 0 ? i : Math.min(-i - 1, ids.length - 1)];
+        }
+    }
+}
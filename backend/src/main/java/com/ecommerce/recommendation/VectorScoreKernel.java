@@ -0,0 +1,48 @@
+package com.ecommerce.recommendation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scores a full SIMD register of products per step with the JDK Vector API. Only loaded by
+ * {@link ScoreKernel#best()} when the incubator module is present.
+ */
+final class VectorScoreKernel implements ScoreKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // Int columns are loaded with as many lanes as a double register holds, then widened
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+    @Override
+    public void score(FeatureSnapshot f, int from, int to, double[] out) {
+        int i = from;
+        int upper = from + DOUBLES.loopBound(to - from);
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector rating = DoubleVector.fromArray(DOUBLES, f.ratings, i);
+            DoubleVector reviews = (DoubleVector) IntVector.fromArray(INTS, f.reviewCounts, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            VectorMask<Double> inStock = IntVector.fromArray(INTS, f.quantities, i)
+                    .compare(VectorOperators.GT, 0)
+                    .cast(DOUBLES);
+            DoubleVector sales = DoubleVector.fromArray(DOUBLES, f.salesWeights, i);
+
+            rating.div(5.0).mul(0.4)
+                    .add(reviews.div(100.0).min(1.0).mul(0.3))
+                    .add(DoubleVector.zero(DOUBLES).blend(0.2, inStock))
+                    .add(sales.mul(0.1))
+                    .intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = ScalarScoreKernel.score(f, i);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + DOUBLES.length() + "x64";
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.ecommerce.entity.OrderStatus;
+
+/**
+ * Flat, read-only projection of an order for bulk export. Built by a JPQL constructor expression,
+ * so streaming millions of orders never instantiates an entity or touches the user association.
+ */
+public final class OrderExportRow {
+    private final Long id;
+    private final String orderNumber;
+    private final Long userId;
+    private final OrderStatus status;
+    private final BigDecimal totalAmount;
+    private final BigDecimal taxAmount;
+    private final BigDecimal shippingCost;
+    private final String shippingAddress;
+    private final String paymentMethod;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public OrderExportRow(Long id, String orderNumber, Long userId, OrderStatus status, BigDecimal totalAmount,
+                          BigDecimal taxAmount, BigDecimal shippingCost, String shippingAddress, String paymentMethod,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.userId = userId;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.taxAmount = taxAmount;
+        this.shippingCost = shippingCost;
+        this.shippingAddress = shippingAddress;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getOrderNumber() { return orderNumber; }
+    public Long getUserId() { return userId; }
+    public OrderStatus getStatus() { return status; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public BigDecimal getTaxAmount() { return taxAmount; }
+    public BigDecimal getShippingCost() { return shippingCost; }
+    public String getShippingAddress() { return shippingAddress; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat, read-only projection of an order line for bulk export, with the order number and product
+ * name joined in so consumers do not have to stitch the three exports back together.
+ */
+public final class OrderItemExportRow {
+    private final Long id;
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long productId;
+    private final String productName;
+    private final Integer quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal totalPrice;
+
+    public OrderItemExportRow(Long id, Long orderId, String orderNumber, Long productId, String productName,
+                              Integer quantity, BigDecimal unitPrice, BigDecimal totalPrice) {
+        this.id = id;
+        this.orderId = orderId;
+        this.orderNumber = orderNumber;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.totalPrice = totalPrice;
+    }
+
+    public Long getId() { return id; }
+    public Long getOrderId() { return orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public Long getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public Integer getQuantity() { return quantity; }
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    public BigDecimal getTotalPrice() { return totalPrice; }
+}
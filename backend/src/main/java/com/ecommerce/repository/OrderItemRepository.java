@@ -1,12 +1,30 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
     List<OrderItem> findByProductId(Long productId);
+
+    @Query("SELECT DISTINCT i.product.id FROM OrderItem i WHERE i.order.user.id = :userId AND i.order.status <> 'CANCELLED'")
+    List<Long> findPurchasedProductIds(@Param("userId") Long userId);
+
+    /**
+     * Every order line in id order, for bulk export. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.STREAMING_FETCH_SIZE))
+    @Query("SELECT new com.ecommerce.repository.OrderItemExportRow(i.id, o.id, o.orderNumber, p.id, p.name, "
+            + "i.quantity, i.unitPrice, i.totalPrice) "
+            + "FROM OrderItem i JOIN i.order o JOIN i.product p ORDER BY i.id")
+    Stream<OrderItemExportRow> streamAllForExport();
 }
@@ -1,13 +1,44 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    /**
+     * MySQL Connector/J only streams a result set row by row, instead of buffering all of it in
+     * the driver, when the fetch size is Integer.MIN_VALUE.
+     */
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
     List<Order> findByUserId(Long userId);
     Optional<Order> findByOrderNumber(String orderNumber);
+
+    /**
+     * The order with its row locked until the transaction ends, so status changes and the
+     * abandoned-order sweep cannot interleave.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Every order in id order, for bulk export. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query("SELECT new com.ecommerce.repository.OrderExportRow(o.id, o.orderNumber, o.user.id, o.status, "
+            + "o.totalAmount, o.taxAmount, o.shippingCost, o.shippingAddress, o.paymentMethod, o.createdAt, o.updatedAt) "
+            + "FROM Order o ORDER BY o.id")
+    Stream<OrderExportRow> streamAllForExport();
 }
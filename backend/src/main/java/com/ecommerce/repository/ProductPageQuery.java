@@ -0,0 +1,27 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.entity.Product;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Filter, ordering and position of one keyset page over the products table.
+ * Null filters are not applied.
+ */
+@Getter
+@Builder
+public class ProductPageQuery {
+    // Customer-visible listing: approval status is APPROVED or was never set
+    private final boolean approvedOnly;
+    private final Product.ProductApprovalStatus approvalStatus;
+    private final String category;
+    private final Long sellerId;
+
+    @Builder.Default
+    private final ProductSortKey sortKey = ProductSortKey.ID;
+    private final boolean descending;
+    private final ProductCursor after;
+    private final int limit;
+}
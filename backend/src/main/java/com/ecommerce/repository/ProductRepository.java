@@ -1,37 +1,79 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ProductCursor;
 import com.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findByCategory(String category);
     List<Product> findByBrand(String brand);
     List<Product> findByNameContainingIgnoreCase(String name);
     List<Product> findByApprovalStatus(Product.ProductApprovalStatus status);
     List<Product> findBySellerId(Long sellerId);
     
-    @Query("SELECT p FROM Product p WHERE p.quantity > 0 AND p.approvalStatus = 'APPROVED' ORDER BY p.rating DESC")
-    List<Product> findTopRatedProducts();
-    
-    // Enhanced search query that searches by name, brand, description, and category
-    @Query("SELECT DISTINCT p FROM Product p WHERE " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
-           "(p.approvalStatus IS NULL OR p.approvalStatus = 'APPROVED')")
-    List<Product> searchProducts(@Param("keyword") String keyword);
+    // Constructor expression for ProductRow; keep in step with its constructor
+    String ROW_SELECT = "SELECT new com.ecommerce.repository.ProductRow(p.id, p.name, p.description, p.price, "
+            + "p.quantity, p.category, p.brand, p.imageUrl, p.rating, p.reviewCount, p.aiRecommendationScore, "
+            + "p.sellerId, p.approvalStatus, p.createdAt) FROM Product p ";
+
+    @Transactional(readOnly = true)
+    @Query(ROW_SELECT + "WHERE p.id = :id")
+    Optional<ProductRow> findRowById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query(ROW_SELECT + "WHERE p.id IN :ids")
+    List<ProductRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Best globally scored in-stock products, walking the score index from the top.
+     * Scores are written by the scoring job; unscored products are left out.
+     */
+    @Transactional(readOnly = true)
+    @Query(ROW_SELECT + "WHERE p.aiRecommendationScore IS NOT NULL AND p.quantity > 0 "
+            + "AND (p.approvalStatus IS NULL OR p.approvalStatus = 'APPROVED') "
+            + "ORDER BY p.aiRecommendationScore DESC")
+    List<ProductRow> findTopScoredRows(Pageable pageable);
+
+    /**
+     * Every product in id order, for bulk export. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.STREAMING_FETCH_SIZE))
+    @Query(ROW_SELECT + "ORDER BY p.id")
+    Stream<ProductRow> streamAllRows();
     
-    // Search for autocomplete suggestions (only name and brand, limited results)
-    @Query("SELECT DISTINCT p FROM Product p WHERE " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
-           "(p.approvalStatus IS NULL OR p.approvalStatus = 'APPROVED') " +
-           "ORDER BY p.name ASC")
-    List<Product> findSuggestions(@Param("keyword") String keyword);
+    /**
+     * Walk every customer-visible product in id order, one keyset batch at a time,
+     * so in-memory indexes can be built without loading the whole table at once.
+     */
+    default void forEachVisibleProduct(Consumer<Product> action) {
+        final int batchSize = 1000;
+        ProductCursor after = null;
+        List<Product> batch;
+        do {
+            batch = findKeysetPage(ProductPageQuery.builder()
+                    .approvedOnly(true)
+                    .sortKey(ProductSortKey.ID)
+                    .after(after)
+                    .limit(batchSize)
+                    .build());
+            batch.forEach(action);
+            if (!batch.isEmpty()) {
+                after = ProductCursor.after(batch.get(batch.size() - 1), ProductSortKey.ID, false);
+            }
+        } while (batch.size() == batchSize);
+    }
 }
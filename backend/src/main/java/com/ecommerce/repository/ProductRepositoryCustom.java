@@ -0,0 +1,18 @@
+package com.ecommerce.repository;
+
+import java.util.List;
+
+import com.ecommerce.entity.Product;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Fetch the rows strictly after {@code query.after} in (sortKey, id) order, at most {@code query.limit} of them.
+     * Uses a seek predicate instead of OFFSET so the cost per page does not grow with the page number.
+     */
+    List<Product> findKeysetPage(ProductPageQuery query);
+
+    /**
+     * Same page as {@link #findKeysetPage}, projected to read-only rows instead of managed entities.
+     */
+    List<ProductRow> findKeysetRows(ProductPageQuery query);
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.entity.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> findKeysetPage(ProductPageQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> cq = cb.createQuery(Product.class);
+        Root<Product> root = cq.from(Product.class);
+        cq.select(root);
+        return keysetQuery(cb, cq, root, query);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductRow> findKeysetRows(ProductPageQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductRow> cq = cb.createQuery(ProductRow.class);
+        Root<Product> root = cq.from(Product.class);
+        // Argument order must match the ProductRow constructor
+        cq.select(cb.construct(ProductRow.class,
+                root.get("id"), root.get("name"), root.get("description"), root.get("price"),
+                root.get("quantity"), root.get("category"), root.get("brand"), root.get("imageUrl"),
+                root.get("rating"), root.get("reviewCount"), root.get("aiRecommendationScore"),
+                root.get("sellerId"), root.get("approvalStatus"), root.get("createdAt")));
+        return keysetQuery(cb, cq, root, query);
+    }
+
+    private <T> List<T> keysetQuery(CriteriaBuilder cb, CriteriaQuery<T> cq, Root<Product> root, ProductPageQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.isApprovedOnly()) {
+            predicates.add(cb.or(
+                    cb.isNull(root.get("approvalStatus")),
+                    cb.equal(root.get("approvalStatus"), Product.ProductApprovalStatus.APPROVED)));
+        }
+        if (query.getApprovalStatus() != null) {
+            predicates.add(cb.equal(root.get("approvalStatus"), query.getApprovalStatus()));
+        }
+        if (query.getCategory() != null) {
+            predicates.add(cb.equal(root.get("category"), query.getCategory()));
+        }
+        if (query.getSellerId() != null) {
+            predicates.add(cb.equal(root.get("sellerId"), query.getSellerId()));
+        }
+        if (query.getAfter() != null) {
+            predicates.add(seekPredicate(cb, root, query));
+        }
+
+        Expression<Long> id = root.get("id");
+        List<Order> orders = new ArrayList<>();
+        if (query.getSortKey() != ProductSortKey.ID) {
+            Expression<?> sortPath = root.get(query.getSortKey().getAttribute());
+            orders.add(query.isDescending() ? cb.desc(sortPath) : cb.asc(sortPath));
+        }
+        orders.add(query.isDescending() ? cb.desc(id) : cb.asc(id));
+
+        cq.where(predicates.toArray(new Predicate[0])).orderBy(orders);
+        return entityManager.createQuery(cq)
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+
+    // (sortValue, id) > (lastValue, lastId), or < when descending
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Product> root, ProductPageQuery query) {
+        ProductCursor after = query.getAfter();
+        boolean descending = query.isDescending();
+        Expression<Long> id = root.get("id");
+        Predicate idPastCursor = descending
+                ? cb.lessThan(id, after.getLastId())
+                : cb.greaterThan(id, after.getLastId());
+
+        if (query.getSortKey() == ProductSortKey.ID) {
+            return idPastCursor;
+        }
+
+        Expression<Comparable> sortPath = root.get(query.getSortKey().getAttribute());
+        Comparable lastValue = after.getLastValue();
+        Predicate valuePastCursor = descending
+                ? cb.lessThan(sortPath, lastValue)
+                : cb.greaterThan(sortPath, lastValue);
+        return cb.or(valuePastCursor, cb.and(cb.equal(sortPath, lastValue), idPastCursor));
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.entity.Product;
+
+/**
+ * Read-only projection of a product row, built by JPQL/Criteria constructor expressions straight
+ * from the result set. No entity is instantiated, so nothing enters the persistence context and
+ * the order/review collections are never touched.
+ *
+ * Carries {@code createdAt} alongside the DTO because keyset cursors may need it as a sort value.
+ */
+public final class ProductRow {
+    private final ProductDTO product;
+    private final LocalDateTime createdAt;
+
+    public ProductRow(Long id, String name, String description, BigDecimal price, Integer quantity,
+                      String category, String brand, String imageUrl, Double rating, Integer reviewCount,
+                      Double aiRecommendationScore, Long sellerId, Product.ProductApprovalStatus approvalStatus,
+                      LocalDateTime createdAt) {
+        this.product = new ProductDTO(id, name, description, price, quantity, category, brand, imageUrl,
+                rating, reviewCount, aiRecommendationScore);
+        this.product.setSellerId(sellerId);
+        if (approvalStatus != null) {
+            this.product.setApprovalStatus(approvalStatus.name());
+        }
+        this.createdAt = createdAt;
+    }
+
+    public ProductDTO getProduct() { return product; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import com.ecommerce.entity.Product;
+
+/**
+ * Stable sort keys for keyset-paginated product listings.
+ * Every key except ID is paired with the id as a tie-breaker so the ordering is total.
+ */
+public enum ProductSortKey {
+    ID("id", Product::getId, row -> row.getProduct().getId(), Long::valueOf),
+    RATING("rating", Product::getRating, row -> row.getProduct().getRating(), Double::valueOf),
+    PRICE("price", Product::getPrice, row -> row.getProduct().getPrice(), BigDecimal::new),
+    CREATED_AT("createdAt", Product::getCreatedAt, ProductRow::getCreatedAt, LocalDateTime::parse);
+
+    private final String attribute;
+    private final Function<Product, Comparable<?>> extractor;
+    private final Function<ProductRow, Comparable<?>> rowExtractor;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSortKey(String attribute, Function<Product, Comparable<?>> extractor,
+                   Function<ProductRow, Comparable<?>> rowExtractor, Function<String, Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+        this.rowExtractor = rowExtractor;
+        this.parser = parser;
+    }
+
+    public String getAttribute() { return attribute; }
+
+    public Comparable<?> valueOf(Product product) {
+        return extractor.apply(product);
+    }
+
+    public Comparable<?> valueOf(ProductRow row) {
+        return rowExtractor.apply(row);
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * Resolve a request parameter such as "rating" or "createdAt" to a sort key.
+     * @throws IllegalArgumentException if the value does not name a supported key
+     */
+    public static ProductSortKey fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return ID;
+        }
+        for (ProductSortKey key : values()) {
+            if (key.attribute.equalsIgnoreCase(param) || key.name().equalsIgnoreCase(param)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + param);
+    }
+}
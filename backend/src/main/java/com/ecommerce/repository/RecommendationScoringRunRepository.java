@@ -0,0 +1,12 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.RecommendationScoringRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RecommendationScoringRunRepository extends JpaRepository<RecommendationScoringRun, Long> {
+    Optional<RecommendationScoringRun> findFirstByOrderByStartedAtDesc();
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.search;
+
+import java.util.List;
+import java.util.Map;
+
+import com.ecommerce.dto.FacetCount;
+
+/**
+ * Product ids for one page of browse results, the total number of matches, and facet counts.
+ */
+public class BrowseHits {
+    private final long[] productIds;
+    private final int totalHits;
+    private final Map<String, List<FacetCount>> facets;
+
+    BrowseHits(long[] productIds, int totalHits, Map<String, List<FacetCount>> facets) {
+        this.productIds = productIds;
+        this.totalHits = totalHits;
+        this.facets = facets;
+    }
+
+    public long[] getProductIds() { return productIds; }
+    public int getTotalHits() { return totalHits; }
+    public Map<String, List<FacetCount>> getFacets() { return facets; }
+}
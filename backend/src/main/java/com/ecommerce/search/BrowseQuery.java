@@ -0,0 +1,28 @@
+package com.ecommerce.search;
+
+import java.util.List;
+
+import com.ecommerce.repository.ProductSortKey;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Facet filters, ordering and page window for {@link FacetIndex#browse}. Empty or null filters match everything.
+ */
+@Getter
+@Builder
+public class BrowseQuery {
+    private final List<String> categories;
+    private final List<String> brands;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Double minRating;
+    private final boolean inStockOnly;
+
+    @Builder.Default
+    private final ProductSortKey sortKey = ProductSortKey.ID;
+    private final boolean descending;
+    private final int offset;
+    private final int limit;
+}
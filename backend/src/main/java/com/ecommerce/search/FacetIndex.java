@@ -0,0 +1,365 @@
+package com.ecommerce.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.dto.FacetCount;
+import com.ecommerce.dto.SearchCursor;
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.CompactBitmap;
+import com.ecommerce.util.TopK;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bitmap indexes over customer-visible products for faceted browsing.
+ *
+ * Every product holds a dense ordinal (freed ordinals are reused), and each facet value keeps a
+ * {@link CompactBitmap} of the ordinals that carry it. A browse request turns each active filter into
+ * a word mask, ANDs them, and counts facet values with AND-cardinality instead of SQL GROUP BYs.
+ * Price and rating filters use band bitmaps, refined against the raw values only for the one band
+ * a range boundary cuts through.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FacetIndex {
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String PRICE = "price";
+    public static final String RATING = "rating";
+    public static final String STOCK = "stock";
+
+    // Lower bounds of the price bands; the last band is open-ended
+    private static final double[] PRICE_BOUNDS = {0, 500, 1000, 5000, 10000, 50000, 100000};
+    // Ratings bucketed by whole star: [0,1), [1,2), ... [5, +inf)
+    private static final double[] RATING_BOUNDS = {0, 1, 2, 3, 4, 5};
+    private static final int MAX_BRAND_FACETS = 50;
+
+    private static final int F_CATEGORY = 0;
+    private static final int F_BRAND = 1;
+    private static final int F_PRICE = 2;
+    private static final int F_RATING = 3;
+    private static final int F_STOCK = 4;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int ordinalLimit;
+    private long[] productIds = new long[1024];
+    private double[] prices = new double[1024];
+    private double[] ratings = new double[1024];
+    private int[] categoryOf = new int[1024];
+    private int[] brandOf = new int[1024];
+    private int[] priceBandOf = new int[1024];
+    private int[] ratingBandOf = new int[1024];
+
+    private final CompactBitmap live = new CompactBitmap();
+    private final CompactBitmap inStock = new CompactBitmap();
+    private final ValueFacet categories = new ValueFacet();
+    private final ValueFacet brands = new ValueFacet();
+    private final CompactBitmap[] priceBands = newBands(PRICE_BOUNDS.length);
+    private final CompactBitmap[] ratingBands = newBands(RATING_BOUNDS.length);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            productRepository.forEachVisibleProduct(this::upsert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index built with {} products in {} ms", live.cardinality(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isStockOnly()) {
+                updateStock(event.getProductId(), event.getProduct().getQuantity());
+            } else if (event.isVisible()) {
+                upsert(event.getProduct());
+            } else {
+                remove(event.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public BrowseHits browse(BrowseQuery query) {
+        lock.readLock().lock();
+        try {
+            int wordCount = (ordinalLimit >>> 6) + 1;
+            long[][] masks = new long[5][];
+            masks[F_CATEGORY] = valueMask(categories, query.getCategories(), wordCount);
+            masks[F_BRAND] = valueMask(brands, query.getBrands(), wordCount);
+            masks[F_PRICE] = rangeMask(priceBands, PRICE_BOUNDS, prices, query.getMinPrice(), query.getMaxPrice(), wordCount);
+            masks[F_RATING] = rangeMask(ratingBands, RATING_BOUNDS, ratings, query.getMinRating(), null, wordCount);
+            masks[F_STOCK] = query.isInStockOnly() ? bitmapWords(inStock, wordCount) : null;
+
+            long[] matches = combine(masks, -1, wordCount);
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, valueCounts(categories, combine(masks, F_CATEGORY, wordCount), Integer.MAX_VALUE));
+            facets.put(BRAND, valueCounts(brands, combine(masks, F_BRAND, wordCount), MAX_BRAND_FACETS));
+            facets.put(PRICE, priceCounts(combine(masks, F_PRICE, wordCount)));
+            facets.put(RATING, ratingCounts(combine(masks, F_RATING, wordCount)));
+            facets.put(STOCK, List.of(new FacetCount("inStock", inStock.andCardinality(combine(masks, F_STOCK, wordCount)))));
+
+            int total = CompactBitmap.cardinality(matches);
+            return new BrowseHits(topPage(matches, total, query), total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] topPage(long[] matches, int total, BrowseQuery query) {
+        int limit = Math.max(0, query.getLimit());
+        int offset = Math.min(query.getOffset(), SearchCursor.MAX_OFFSET);
+        // Never deeper than the matches, whatever offset the caller passes
+        TopK top = new TopK((int) Math.min((long) offset + limit, total));
+        boolean descending = query.isDescending();
+        CompactBitmap.forEachSetBit(matches, ordinal -> {
+            double value = switch (query.getSortKey()) {
+                case PRICE -> prices[ordinal];
+                case RATING -> ratings[ordinal];
+                // Ids are assigned in creation order, so they stand in for created_at
+                case ID, CREATED_AT -> productIds[ordinal];
+            };
+            top.offer(ordinal, descending ? value : -value);
+        });
+        int[] ordinals = top.drainDescending(null);
+        int from = Math.min(query.getOffset(), ordinals.length);
+        long[] ids = new long[ordinals.length - from];
+        for (int i = from; i < ordinals.length; i++) {
+            ids[i - from] = productIds[ordinals[i]];
+        }
+        return ids;
+    }
+
+    // live AND every active mask except the one at index skip
+    private long[] combine(long[][] masks, int skip, int wordCount) {
+        long[] result = bitmapWords(live, wordCount);
+        for (int i = 0; i < masks.length; i++) {
+            if (i != skip && masks[i] != null) {
+                for (int w = 0; w < wordCount; w++) {
+                    result[w] &= masks[i][w];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long[] valueMask(ValueFacet facet, List<String> values, int wordCount) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        long[] mask = new long[wordCount];
+        for (String value : values) {
+            Integer id = facet.find(value);
+            if (id != null) {
+                facet.bitmaps.get(id).orInto(mask);
+            }
+        }
+        return mask;
+    }
+
+    private static long[] rangeMask(CompactBitmap[] bands, double[] bounds, double[] values,
+                                    Double min, Double max, int wordCount) {
+        if (min == null && max == null) {
+            return null;
+        }
+        long[] mask = new long[wordCount];
+        for (int b = 0; b < bands.length; b++) {
+            double lo = bounds[b];
+            double hi = b + 1 < bounds.length ? bounds[b + 1] : Double.POSITIVE_INFINITY;
+            if ((max != null && lo > max) || (min != null && hi <= min)) {
+                continue;
+            }
+            if ((min == null || lo >= min) && (max == null || hi <= max)) {
+                bands[b].orInto(mask);
+            } else {
+                // Boundary band: check the raw value of each member
+                bands[b].forEach(ordinal -> {
+                    double v = values[ordinal];
+                    if ((min == null || v >= min) && (max == null || v <= max)) {
+                        mask[ordinal >>> 6] |= 1L << ordinal;
+                    }
+                });
+            }
+        }
+        return mask;
+    }
+
+    private static List<FacetCount> valueCounts(ValueFacet facet, long[] base, int limit) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (int id = 0; id < facet.labels.size(); id++) {
+            int count = facet.bitmaps.get(id).andCardinality(base);
+            if (count > 0) {
+                counts.add(new FacetCount(facet.labels.get(id), count));
+            }
+        }
+        counts.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+        return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+    }
+
+    private List<FacetCount> priceCounts(long[] base) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (int b = 0; b < priceBands.length; b++) {
+            String label = b + 1 < PRICE_BOUNDS.length
+                    ? (long) PRICE_BOUNDS[b] + "-" + (long) PRICE_BOUNDS[b + 1]
+                    : (long) PRICE_BOUNDS[b] + "+";
+            counts.add(new FacetCount(label, priceBands[b].andCardinality(base)));
+        }
+        return counts;
+    }
+
+    // Cumulative "n+ stars" counts, best first
+    private List<FacetCount> ratingCounts(long[] base) {
+        List<FacetCount> counts = new ArrayList<>();
+        int atLeast = ratingBands[ratingBands.length - 1].andCardinality(base);
+        for (int b = ratingBands.length - 2; b >= 1; b--) {
+            atLeast += ratingBands[b].andCardinality(base);
+            counts.add(new FacetCount(b + "+", atLeast));
+        }
+        return counts;
+    }
+
+    private static long[] bitmapWords(CompactBitmap bitmap, int wordCount) {
+        long[] words = new long[wordCount];
+        bitmap.orInto(words);
+        return words;
+    }
+
+    private void upsert(Product product) {
+        Integer existing = ordinalByProductId.get(product.getId());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            clearFacets(ordinal);
+        } else {
+            ordinal = freeOrdinals.isEmpty() ? ordinalLimit++ : freeOrdinals.pop();
+            ensureCapacity(ordinal + 1);
+            ordinalByProductId.put(product.getId(), ordinal);
+            productIds[ordinal] = product.getId();
+            live.add(ordinal);
+        }
+
+        prices[ordinal] = product.getPrice() != null ? product.getPrice().doubleValue() : 0.0;
+        ratings[ordinal] = product.getRating() != null ? product.getRating() : 0.0;
+        categoryOf[ordinal] = categories.idFor(product.getCategory());
+        brandOf[ordinal] = brands.idFor(product.getBrand());
+        priceBandOf[ordinal] = band(PRICE_BOUNDS, prices[ordinal]);
+        ratingBandOf[ordinal] = band(RATING_BOUNDS, ratings[ordinal]);
+
+        categories.bitmaps.get(categoryOf[ordinal]).add(ordinal);
+        brands.bitmaps.get(brandOf[ordinal]).add(ordinal);
+        priceBands[priceBandOf[ordinal]].add(ordinal);
+        ratingBands[ratingBandOf[ordinal]].add(ordinal);
+        if (product.getQuantity() != null && product.getQuantity() > 0) {
+            inStock.add(ordinal);
+        }
+    }
+
+    // Checkouts only move the in-stock facet
+    private void updateStock(Long productId, Integer quantity) {
+        Integer ordinal = ordinalByProductId.get(productId);
+        if (ordinal == null) {
+            return;
+        }
+        if (quantity != null && quantity > 0) {
+            inStock.add(ordinal);
+        } else {
+            inStock.remove(ordinal);
+        }
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinalByProductId.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        clearFacets(ordinal);
+        live.remove(ordinal);
+        freeOrdinals.push(ordinal);
+    }
+
+    private void clearFacets(int ordinal) {
+        categories.bitmaps.get(categoryOf[ordinal]).remove(ordinal);
+        brands.bitmaps.get(brandOf[ordinal]).remove(ordinal);
+        priceBands[priceBandOf[ordinal]].remove(ordinal);
+        ratingBands[ratingBandOf[ordinal]].remove(ordinal);
+        inStock.remove(ordinal);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newLength = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newLength);
+            prices = Arrays.copyOf(prices, newLength);
+            ratings = Arrays.copyOf(ratings, newLength);
+            categoryOf = Arrays.copyOf(categoryOf, newLength);
+            brandOf = Arrays.copyOf(brandOf, newLength);
+            priceBandOf = Arrays.copyOf(priceBandOf, newLength);
+            ratingBandOf = Arrays.copyOf(ratingBandOf, newLength);
+        }
+    }
+
+    private static int band(double[] bounds, double value) {
+        int b = bounds.length - 1;
+        while (b > 0 && value < bounds[b]) {
+            b--;
+        }
+        return b;
+    }
+
+    private static CompactBitmap[] newBands(int count) {
+        CompactBitmap[] bands = new CompactBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bands[i] = new CompactBitmap();
+        }
+        return bands;
+    }
+
+    /**
+     * Dictionary of distinct values for one facet, matched case-insensitively, with a bitmap per value.
+     */
+    private static final class ValueFacet {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<CompactBitmap> bitmaps = new ArrayList<>();
+
+        Integer find(String value) {
+            return value == null ? null : ids.get(value.trim().toLowerCase(Locale.ROOT));
+        }
+
+        int idFor(String value) {
+            String label = value == null ? "" : value.trim();
+            return ids.computeIfAbsent(label.toLowerCase(Locale.ROOT), key -> {
+                labels.add(label);
+                bitmaps.add(new CompactBitmap());
+                return labels.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.ecommerce.util.TopK;
+
+/**
+ * BM25-ranked inverted index over product text fields. Not thread-safe; {@link ProductSearchIndex}
+ * guards it with a read/write lock.
+ *
+ * Each indexed version of a product gets a fresh, ever-increasing doc ordinal, so postings stay
+ * sorted and can be appended in place. Updates and deletes tombstone the old ordinal, and the
+ * index compacts itself once tombstones outnumber half of the live documents.
+ */
+final class InvertedIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field weights: a match in the name counts for more than one deep in the description
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private BitSet live = new BitSet();
+    private int nextOrdinal;
+    private int liveCount;
+    private long totalLiveLength;
+
+    void upsert(long productId, String name, String brand, String category, String description) {
+        remove(productId);
+
+        Map<String, Integer> freqs = new HashMap<>();
+        int length = 0;
+        length += addTerms(freqs, name, NAME_WEIGHT);
+        length += addTerms(freqs, brand, BRAND_WEIGHT);
+        length += addTerms(freqs, category, CATEGORY_WEIGHT);
+        length += addTerms(freqs, description, DESCRIPTION_WEIGHT);
+        if (freqs.isEmpty()) {
+            return;
+        }
+
+        int doc = nextOrdinal++;
+        ensureCapacity(doc + 1);
+        productIds[doc] = productId;
+        docLengths[doc] = length;
+        live.set(doc);
+        liveCount++;
+        totalLiveLength += length;
+        ordinalByProductId.put(productId, doc);
+
+        for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new Postings()).add(doc, entry.getValue());
+        }
+    }
+
+    void remove(long productId) {
+        Integer doc = ordinalByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        liveCount--;
+        totalLiveLength -= docLengths[doc];
+        if (nextOrdinal - liveCount > Math.max(1024, liveCount / 2)) {
+            compact();
+        }
+    }
+
+    int size() { return liveCount; }
+
+    /**
+     * Rank live documents containing every query term; the last term also matches as a prefix
+     * so results keep up with a query that is still being typed.
+     */
+    SearchHits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || liveCount == 0 || limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        List<List<Postings>> termPostings = new ArrayList<>(terms.size());
+        for (int i = 0; i < terms.size(); i++) {
+            List<Postings> lists = i == terms.size() - 1 ? prefixPostings(terms.get(i)) : exactPostings(terms.get(i));
+            if (lists.isEmpty()) {
+                return SearchHits.EMPTY;
+            }
+            termPostings.add(lists);
+        }
+        // Rarest term first: it seeds the candidate set, later terms only score existing candidates
+        termPostings.sort((a, b) -> Long.compare(docFrequency(a), docFrequency(b)));
+
+        double avgLength = (double) totalLiveLength / liveCount;
+        ScoreAccumulator acc = new ScoreAccumulator((int) Math.min(docFrequency(termPostings.get(0)), liveCount));
+        for (int i = 0; i < termPostings.size(); i++) {
+            final int bit = 1 << i;
+            final boolean seed = i == 0;
+            for (Postings p : termPostings.get(i)) {
+                double idf = Math.log(1 + (liveCount - p.docCount() + 0.5) / (p.docCount() + 0.5));
+                p.forEach((doc, freq) -> {
+                    if (!live.get(doc)) {
+                        return;
+                    }
+                    double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    double score = idf * freq * (K1 + 1) / (freq + norm);
+                    if (seed) {
+                        acc.add(doc, score, bit);
+                    } else {
+                        acc.addIfPresent(doc, score, bit);
+                    }
+                });
+            }
+        }
+
+        int required = (1 << termPostings.size()) - 1;
+        // Never deeper than the index, whatever offset the caller passes
+        TopK top = new TopK((int) Math.min((long) offset + limit, liveCount));
+        int total = acc.collect(required, top);
+
+        int[] docs = top.drainDescending(null);
+        if (offset >= docs.length) {
+            return new SearchHits(new long[0], total);
+        }
+        long[] ids = new long[docs.length - offset];
+        for (int i = offset; i < docs.length; i++) {
+            ids[i - offset] = productIds[docs[i]];
+        }
+        return new SearchHits(ids, total);
+    }
+
+    private List<Postings> exactPostings(String term) {
+        Postings p = postings.get(term);
+        return p == null ? List.of() : List.of(p);
+    }
+
+    private List<Postings> prefixPostings(String prefix) {
+        List<Postings> lists = new ArrayList<>();
+        NavigableMap<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (Postings p : range.values()) {
+            lists.add(p);
+            if (lists.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return lists;
+    }
+
+    private static long docFrequency(List<Postings> lists) {
+        long df = 0;
+        for (Postings p : lists) {
+            df += p.docCount();
+        }
+        return df;
+    }
+
+    private static int addTerms(Map<String, Integer> freqs, String text, int weight) {
+        List<String> terms = Tokenizer.tokenize(text);
+        for (String term : terms) {
+            freqs.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newLength = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+
+    // Renumber live documents densely and rewrite every postings list without the tombstones
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            remap[doc] = next;
+            productIds[next] = productIds[doc];
+            docLengths[next] = docLengths[doc];
+            ordinalByProductId.put(productIds[next], next);
+            next++;
+        }
+
+        TreeMap<String, Postings> compacted = new TreeMap<>();
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            Postings rewritten = new Postings();
+            entry.getValue().forEach((doc, freq) -> {
+                if (remap[doc] >= 0) {
+                    rewritten.add(remap[doc], freq);
+                }
+            });
+            if (rewritten.docCount() > 0) {
+                rewritten.trim();
+                compacted.put(entry.getKey(), rewritten);
+            }
+        }
+
+        postings = compacted;
+        live = new BitSet(next);
+        live.set(0, next);
+        nextOrdinal = next;
+    }
+
+    /**
+     * Open-addressing map from doc ordinal to accumulated score and matched-term bitmask.
+     */
+    private static final class ScoreAccumulator {
+        private int[] keys;
+        private double[] scores;
+        private int[] masks;
+        private int size;
+
+        ScoreAccumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new int[capacity];
+            scores = new double[capacity];
+            masks = new int[capacity];
+        }
+
+        void add(int doc, double score, int bit) {
+            int slot = find(doc);
+            if (keys[slot] == 0) {
+                keys[slot] = doc + 1;
+                if (++size * 2 > keys.length) {
+                    grow();
+                    slot = find(doc);
+                }
+            }
+            scores[slot] += score;
+            masks[slot] |= bit;
+        }
+
+        void addIfPresent(int doc, double score, int bit) {
+            int slot = find(doc);
+            if (keys[slot] != 0) {
+                scores[slot] += score;
+                masks[slot] |= bit;
+            }
+        }
+
+        // Offer every doc whose mask equals required; returns how many matched
+        int collect(int required, TopK top) {
+            int matched = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && masks[i] == required) {
+                    matched++;
+                    top.offer(keys[i] - 1, scores[i]);
+                }
+            }
+            return matched;
+        }
+
+        private int find(int doc) {
+            int mask = keys.length - 1;
+            int slot = (doc * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != 0 && keys[slot] != doc + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldScores = scores;
+            int[] oldMasks = masks;
+            keys = new int[oldKeys.length * 2];
+            scores = new double[keys.length];
+            masks = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(oldKeys[i] - 1);
+                    keys[slot] = oldKeys[i];
+                    scores[slot] = oldScores[i];
+                    masks[slot] = oldMasks[i];
+                }
+            }
+        }
+    }
+}
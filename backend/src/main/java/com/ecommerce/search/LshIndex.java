@@ -0,0 +1,208 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ecommerce.util.TopK;
+
+/**
+ * Approximate nearest-neighbour index over 256-bit {@link SimHash} signatures.
+ *
+ * Signatures are cut into 16 bands of 16 bits; each band value directly addresses one of 65,536
+ * buckets in that band's table, so two items share a bucket when they agree on all 16 bits of some
+ * band. A query reads its 16 buckets, then the buckets one bit away from them (multi-probe), scores
+ * each distinct candidate by Hamming distance over the full signature, and keeps the best in a
+ * bounded heap. At most {@code maxCandidates} are scored, which bounds query time however skewed
+ * the buckets get; an index no larger than that is simply scanned.
+ *
+ * Not thread-safe; callers guard it.
+ */
+public final class LshIndex {
+    public static final int BITS = 256;
+    static final int WORDS = BITS / 64;
+    private static final int BANDS = 16;
+    private static final int BAND_BITS = BITS / BANDS;
+    private static final int BUCKETS = 1 << BAND_BITS;
+
+    private final int maxCandidates;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] slotIds = new long[1024];
+    private long[] signatures = new long[1024 * WORDS];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    private final int[][][] buckets = new int[BANDS][BUCKETS][];
+    private final int[][] bucketSizes = new int[BANDS][BUCKETS];
+
+    public LshIndex(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public void upsert(long id, long[] signature) {
+        Integer existing = slots.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unlink(slot);
+        } else {
+            slot = allocate();
+            slots.put(id, slot);
+            slotIds[slot] = id;
+        }
+        System.arraycopy(signature, 0, signatures, slot * WORDS, WORDS);
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signatures, slot * WORDS, band);
+            int[] bucket = buckets[band][key];
+            int size = bucketSizes[band][key];
+            if (bucket == null) {
+                bucket = buckets[band][key] = new int[4];
+            } else if (size == bucket.length) {
+                bucket = buckets[band][key] = Arrays.copyOf(bucket, size * 2);
+            }
+            bucket[size] = slot;
+            bucketSizes[band][key] = size + 1;
+        }
+    }
+
+    public void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        unlink(slot);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Ids of up to {@code limit} items with signatures closest to {@code signature}, nearest first.
+     *
+     * @param excludeId        an id never to return, typically the item the query was made from
+     * @param similaritiesOut  receives each result's estimated cosine similarity; may be null
+     */
+    public long[] nearest(long[] signature, int limit, long excludeId, double[] similaritiesOut) {
+        if (limit <= 0 || slots.isEmpty()) {
+            return new long[0];
+        }
+        TopK top = new TopK(limit);
+        if (slots.size() <= maxCandidates) {
+            // Small enough to score every item exactly
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (isLive(slot) && slotIds[slot] != excludeId) {
+                    top.offer(slot, BITS - hamming(signature, slot));
+                }
+            }
+        } else {
+            SlotSet seen = new SlotSet(maxCandidates);
+            int[] scored = new int[1];
+            // Exact band matches first, then buckets one bit away, so the cap drops the weakest probes
+            for (int band = 0; band < BANDS && scored[0] < maxCandidates; band++) {
+                probe(band, bandKey(signature, 0, band), signature, excludeId, top, seen, scored);
+            }
+            for (int flip = 0; flip < BAND_BITS && scored[0] < maxCandidates; flip++) {
+                for (int band = 0; band < BANDS && scored[0] < maxCandidates; band++) {
+                    probe(band, bandKey(signature, 0, band) ^ (1 << flip), signature, excludeId, top, seen, scored);
+                }
+            }
+        }
+        double[] agreement = new double[top.size()];
+        int[] best = top.drainDescending(agreement);
+        long[] ids = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            ids[i] = slotIds[best[i]];
+            if (similaritiesOut != null && i < similaritiesOut.length) {
+                // Fraction of differing bits estimates angle / pi
+                similaritiesOut[i] = Math.cos(Math.PI * (BITS - agreement[i]) / BITS);
+            }
+        }
+        return ids;
+    }
+
+    private void probe(int band, int key, long[] signature, long excludeId, TopK top, SlotSet seen, int[] scored) {
+        int[] bucket = buckets[band][key];
+        int size = bucketSizes[band][key];
+        for (int i = 0; i < size && scored[0] < maxCandidates; i++) {
+            int slot = bucket[i];
+            if (slotIds[slot] != excludeId && seen.add(slot)) {
+                scored[0]++;
+                top.offer(slot, BITS - hamming(signature, slot));
+            }
+        }
+    }
+
+    private boolean isLive(int slot) {
+        Integer live = slots.get(slotIds[slot]);
+        return live != null && live == slot;
+    }
+
+    private int hamming(long[] signature, int slot) {
+        int base = slot * WORDS;
+        int distance = 0;
+        for (int w = 0; w < WORDS; w++) {
+            distance += Long.bitCount(signature[w] ^ signatures[base + w]);
+        }
+        return distance;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == slotIds.length) {
+            slotIds = Arrays.copyOf(slotIds, slotCount * 2);
+            signatures = Arrays.copyOf(signatures, slotCount * 2 * WORDS);
+        }
+        return slotCount++;
+    }
+
+    private void unlink(int slot) {
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signatures, slot * WORDS, band);
+            int[] bucket = buckets[band][key];
+            int size = bucketSizes[band][key];
+            for (int i = 0; i < size; i++) {
+                if (bucket[i] == slot) {
+                    bucket[i] = bucket[size - 1];
+                    bucketSizes[band][key] = size - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int bandKey(long[] words, int offset, int band) {
+        int bit = band * BAND_BITS;
+        return (int) (words[offset + (bit >>> 6)] >>> (bit & 63)) & (BUCKETS - 1);
+    }
+
+    // Open-addressing set of slots already scored by one query
+    private static final class SlotSet {
+        private final int[] keys;
+
+        SlotSet(int expected) {
+            keys = new int[Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1];
+        }
+
+        boolean add(int slot) {
+            int mask = keys.length - 1;
+            int i = (slot * 0x9E3779B9) >>> 1 & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == slot + 1) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = slot + 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only postings list for one term: ascending doc ordinals with their term frequencies,
+ * delta-encoded and packed as variable-length integers into a single byte array.
+ */
+final class Postings {
+
+    interface Visitor {
+        void visit(int doc, int freq);
+    }
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int docCount;
+    private int lastDoc = -1;
+
+    /**
+     * Append a posting. Ordinals must be added in strictly increasing order.
+     */
+    void add(int doc, int freq) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Postings must be appended in ascending doc order");
+        }
+        ensureCapacity(10);
+        writeVInt(doc - lastDoc);
+        writeVInt(freq);
+        lastDoc = doc;
+        docCount++;
+    }
+
+    void forEach(Visitor visitor) {
+        int pos = 0;
+        int doc = -1;
+        while (pos < length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            int freq = 0;
+            shift = 0;
+            do {
+                b = data[pos++];
+                freq |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            doc += delta;
+            visitor.visit(doc, freq);
+        }
+    }
+
+    /**
+     * Number of postings, including ones for documents that have since been removed.
+     */
+    int docCount() { return docCount; }
+
+    int sizeInBytes() { return length; }
+
+    void trim() {
+        if (data.length > length) {
+            data = Arrays.copyOf(data, Math.max(length, 1));
+        }
+    }
+
+    private void writeVInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+}
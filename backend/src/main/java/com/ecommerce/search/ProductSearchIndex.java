@@ -0,0 +1,102 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process full-text index of customer-visible products over name, brand, category and description.
+ * Built from the products table once the application is ready and kept current from {@link ProductChangedEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private InvertedIndex index = new InvertedIndex();
+    // Changes that arrive while a rebuild is reading the table, replayed onto the new index before it is swapped in
+    private List<ProductChangedEvent> pendingChanges;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        InvertedIndex fresh = new InvertedIndex();
+        productRepository.forEachVisibleProduct(product -> add(fresh, product));
+
+        lock.writeLock().lock();
+        try {
+            for (ProductChangedEvent change : pendingChanges) {
+                apply(fresh, change);
+            }
+            pendingChanges = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built with {} products in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank visible products matching every term of the query.
+     * @param offset number of top-ranked hits to skip
+     * @param limit maximum number of hits to return
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(InvertedIndex target, ProductChangedEvent event) {
+        if (event.isVisible()) {
+            add(target, event.getProduct());
+        } else {
+            target.remove(event.getProductId());
+        }
+    }
+
+    private static void add(InvertedIndex target, Product product) {
+        target.upsert(product.getId(), product.getName(), product.getBrand(),
+                product.getCategory(), product.getDescription());
+    }
+}
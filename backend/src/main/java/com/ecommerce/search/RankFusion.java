@@ -0,0 +1,38 @@
+package com.ecommerce.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ecommerce.util.TopK;
+
+/**
+ * Reciprocal rank fusion: merges ranked id lists by summing {@code 1 / (K + rank)} across lists.
+ * Only ranks are used, so lists scored on incomparable scales (BM25, cosine) blend without tuning.
+ */
+public final class RankFusion {
+    private static final int K = 60;
+
+    private RankFusion() {}
+
+    public static long[] fuse(int limit, long[]... rankings) {
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (long[] ranking : rankings) {
+            for (int rank = 0; rank < ranking.length; rank++) {
+                scores.merge(ranking[rank], 1.0 / (K + rank + 1), Double::sum);
+            }
+        }
+        long[] ids = new long[scores.size()];
+        TopK top = new TopK(Math.max(1, limit));
+        int ordinal = 0;
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            ids[ordinal] = entry.getKey();
+            top.offer(ordinal++, entry.getValue());
+        }
+        int[] best = top.drainDescending(null);
+        long[] fused = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            fused[i] = ids[best[i]];
+        }
+        return fused;
+    }
+}
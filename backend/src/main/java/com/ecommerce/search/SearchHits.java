@@ -0,0 +1,19 @@
+package com.ecommerce.search;
+
+/**
+ * Product ids for one page of ranked search results, best first, plus the total number of matches.
+ */
+public class SearchHits {
+    public static final SearchHits EMPTY = new SearchHits(new long[0], 0);
+
+    private final long[] productIds;
+    private final int totalHits;
+
+    SearchHits(long[] productIds, int totalHits) {
+        this.productIds = productIds;
+        this.totalHits = totalHits;
+    }
+
+    public long[] getProductIds() { return productIds; }
+    public int getTotalHits() { return totalHits; }
+}
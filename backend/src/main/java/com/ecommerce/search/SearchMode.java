@@ -0,0 +1,26 @@
+package com.ecommerce.search;
+
+/**
+ * How {@code /api/products/search} ranks results: BM25 keyword relevance, embedding similarity,
+ * or both fused by rank.
+ */
+public enum SearchMode {
+    KEYWORD,
+    SEMANTIC,
+    HYBRID;
+
+    /**
+     * @throws IllegalArgumentException if the value does not name a mode
+     */
+    public static SearchMode fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return KEYWORD;
+        }
+        for (SearchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(param.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported search mode: " + param);
+    }
+}
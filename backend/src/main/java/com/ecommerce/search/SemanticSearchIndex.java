@@ -0,0 +1,363 @@
+package com.ecommerce.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.embedding.EmbeddingProvider;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.ProductEmbedding;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductEmbeddingRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.BoundedCache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Semantic search over customer-visible products: each product's name, brand, category and
+ * description is embedded by the configured {@link EmbeddingProvider} and held in an in-memory
+ * {@link VectorIndex}; a query is embedded the same way and answered by cosine similarity.
+ *
+ * Embedding happens off the request path in one background task. Product changes are queued and
+ * embedded in batches; embeddings are stored by hash of model id and text, so a product whose text
+ * has not changed, including across restarts, is never sent to the model again.
+ *
+ * Queries are embedded on the request path unless cached, so that call is bounded: at most
+ * {@code app.semantic-search.query-concurrency} run at once, and a search waits at most
+ * {@code app.semantic-search.query-timeout-millis} for one. A query that gets no embedding in time
+ * has no semantic results and callers fall back to keyword search; a late embedding is still cached.
+ */
+@Component
+@Slf4j
+public class SemanticSearchIndex {
+    private static final int MAX_DESCRIPTION_CHARS = 2000;
+    private static final int QUERY_CACHE_SIZE = 10_000;
+    private static final Duration QUERY_CACHE_TTL = Duration.ofHours(1);
+
+    private final ProductRepository productRepository;
+    private final ProductEmbeddingRepository embeddingRepository;
+    private final EmbeddingProvider provider;
+    private final int batchSize;
+    private final int maxResults;
+    private final double minSimilarity;
+    private final long queryTimeoutMillis;
+    // Outbound query embeddings in flight, including ones a search stopped waiting for
+    private final Semaphore queryPermits;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final VectorIndex index;
+
+    // Content hash each indexed product was embedded from; only touched by the embedding task, whose runs never overlap
+    private final Map<Long, String> indexedHashes = new HashMap<>();
+    // Latest change per product not yet embedded; a null value removes the product
+    private final LinkedHashMap<Long, Product> pending = new LinkedHashMap<>();
+    private final BoundedCache<String, float[]> queryEmbeddings = new BoundedCache<>(QUERY_CACHE_SIZE, QUERY_CACHE_TTL);
+
+    private final TaskScheduler taskScheduler;
+    private final ExecutorService queryExecutor;
+
+    public SemanticSearchIndex(ProductRepository productRepository,
+                               ProductEmbeddingRepository embeddingRepository,
+                               EmbeddingProvider provider,
+                               TaskScheduler taskScheduler,
+                               @Value("${app.semantic-search.batch-size:100}") int batchSize,
+                               @Value("${app.semantic-search.max-results:200}") int maxResults,
+                               @Value("${app.semantic-search.min-similarity:0.2}") double minSimilarity,
+                               @Value("${app.semantic-search.query-timeout-millis:800}") long queryTimeoutMillis,
+                               @Value("${app.semantic-search.query-concurrency:4}") int queryConcurrency,
+                               @Value("${app.similar-products.max-candidates:20000}") int maxCandidates) {
+        this.productRepository = productRepository;
+        this.embeddingRepository = embeddingRepository;
+        this.provider = provider;
+        this.taskScheduler = taskScheduler;
+        this.batchSize = batchSize;
+        this.maxResults = maxResults;
+        this.minSimilarity = minSimilarity;
+        this.queryTimeoutMillis = queryTimeoutMillis;
+        this.queryPermits = new Semaphore(Math.max(1, queryConcurrency));
+        this.queryExecutor = Executors.newFixedThreadPool(Math.max(1, queryConcurrency), r -> {
+            Thread thread = new Thread(r, "query-embedding");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.index = new VectorIndex(provider.dimensions(), maxCandidates);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Changes queued while the catalog loads are embedded after it, never alongside it
+        taskScheduler.schedule(() -> {
+            loadCatalog();
+            taskScheduler.scheduleWithFixedDelay(this::flushPending, Duration.ofSeconds(1));
+        }, Instant.now());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queryExecutor.shutdownNow();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        synchronized (pending) {
+            // Re-inserting moves nothing; the product keeps its place in the queue with the latest state
+            pending.put(event.getProductId(), event.isVisible() ? event.getProduct() : null);
+        }
+    }
+
+    /**
+     * Rank visible products by similarity to the meaning of the query.
+     * Results are capped at {@code app.semantic-search.max-results}, below which the total is exact.
+     * @param offset number of top-ranked hits to skip
+     * @param limit maximum number of hits to return
+     * @return null if the query could not be embedded in time; search by keyword instead
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        int depth = Math.min(offset + limit, maxResults);
+        if (normalized.isEmpty() || offset >= depth) {
+            return SearchHits.EMPTY;
+        }
+        float[] embedding = embedQuery(normalized);
+        if (embedding == null) {
+            return null;
+        }
+
+        double[] similarities = new double[depth];
+        long[] ranked;
+        lock.readLock().lock();
+        try {
+            ranked = index.nearest(embedding, depth, similarities);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int matches = 0;
+        while (matches < ranked.length && similarities[matches] >= minSimilarity) {
+            matches++;
+        }
+        if (offset >= matches) {
+            return new SearchHits(new long[0], matches);
+        }
+        long[] page = new long[Math.min(limit, matches - offset)];
+        System.arraycopy(ranked, offset, page, 0, page.length);
+        return new SearchHits(page, matches);
+    }
+
+    private float[] embedQuery(String normalized) {
+        float[] cached = queryEmbeddings.get(normalized);
+        if (cached != null) {
+            return cached;
+        }
+        if (!queryPermits.tryAcquire()) {
+            log.debug("Query embedding skipped: the concurrency limit is reached");
+            return null;
+        }
+        CompletableFuture<float[]> embedding;
+        try {
+            embedding = CompletableFuture.supplyAsync(() -> {
+                try {
+                    float[] vector = provider.embed(List.of(normalized)).get(0);
+                    queryEmbeddings.put(normalized, vector);
+                    return vector;
+                } finally {
+                    queryPermits.release();
+                }
+            }, queryExecutor);
+        } catch (RejectedExecutionException e) {
+            queryPermits.release();
+            return null;
+        }
+        try {
+            return embedding.get(queryTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Query embedding took over {} ms; falling back to keyword search", queryTimeoutMillis);
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Query embedding failed; falling back to keyword search", e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void loadCatalog() {
+        long start = System.currentTimeMillis();
+        List<Product> batch = new ArrayList<>(batchSize);
+        try {
+            productRepository.forEachVisibleProduct(product -> {
+                batch.add(product);
+                if (batch.size() == batchSize) {
+                    embedAndIndex(batch);
+                    batch.clear();
+                }
+            });
+            embedAndIndex(batch);
+            log.info("Semantic search index built with {} products using {} in {} ms",
+                    index.size(), provider.modelId(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Whatever was indexed stays; product changes still flow in through the queue
+            log.error("Semantic search index build failed after {} products", index.size(), e);
+        }
+    }
+
+    private void flushPending() {
+        Map<Long, Product> changes = new LinkedHashMap<>();
+        synchronized (pending) {
+            Iterator<Map.Entry<Long, Product>> it = pending.entrySet().iterator();
+            while (it.hasNext() && changes.size() < batchSize) {
+                Map.Entry<Long, Product> change = it.next();
+                changes.put(change.getKey(), change.getValue());
+                it.remove();
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Product> upserts = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            changes.forEach((productId, product) -> {
+                if (product == null) {
+                    index.remove(productId);
+                    indexedHashes.remove(productId);
+                } else {
+                    upserts.add(product);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            embedAndIndex(upserts);
+        } catch (RuntimeException e) {
+            log.warn("Embedding {} changed products failed, retrying: {}", upserts.size(), e.getMessage());
+            synchronized (pending) {
+                // A newer change that arrived meanwhile wins over the failed one
+                upserts.forEach(product -> pending.putIfAbsent(product.getId(), product));
+            }
+        }
+    }
+
+    private void embedAndIndex(List<Product> products) {
+        Map<Long, String> hashes = new LinkedHashMap<>();
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (Product product : products) {
+            String text = text(product);
+            String hash = contentHash(text);
+            if (!hash.equals(indexedHashes.get(product.getId()))) {
+                hashes.put(product.getId(), hash);
+                texts.putIfAbsent(hash, text);
+            }
+        }
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        Map<String, float[]> vectors = new HashMap<>();
+        for (ProductEmbedding stored : embeddingRepository.findAllById(texts.keySet())) {
+            if (provider.modelId().equals(stored.getModelId()) && stored.getDimensions() == provider.dimensions()) {
+                vectors.put(stored.getContentHash(), decode(stored.getVector()));
+            }
+        }
+        List<String> missing = texts.keySet().stream().filter(hash -> !vectors.containsKey(hash)).toList();
+        for (int from = 0; from < missing.size(); from += provider.maxBatchSize()) {
+            List<String> chunk = missing.subList(from, Math.min(from + provider.maxBatchSize(), missing.size()));
+            List<float[]> embedded = provider.embed(chunk.stream().map(texts::get).toList());
+            List<ProductEmbedding> rows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                vectors.put(chunk.get(i), embedded.get(i));
+                rows.add(new ProductEmbedding(chunk.get(i), provider.modelId(), provider.dimensions(),
+                        encode(embedded.get(i)), LocalDateTime.now()));
+            }
+            embeddingRepository.saveAll(rows);
+        }
+
+        lock.writeLock().lock();
+        try {
+            hashes.forEach((productId, hash) -> index.upsert(productId, vectors.get(hash)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        indexedHashes.putAll(hashes);
+    }
+
+    private static String text(Product product) {
+        StringBuilder text = new StringBuilder();
+        append(text, product.getName());
+        append(text, product.getBrand());
+        append(text, product.getCategory());
+        String description = product.getDescription();
+        if (description != null && description.length() > MAX_DESCRIPTION_CHARS) {
+            description = description.substring(0, MAX_DESCRIPTION_CHARS);
+        }
+        append(text, description);
+        return text.toString();
+    }
+
+    private static void append(StringBuilder text, String field) {
+        if (field != null && !field.isBlank()) {
+            if (!text.isEmpty()) {
+                text.append(". ");
+            }
+            text.append(field.trim());
+        }
+    }
+
+    private String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(provider.modelId().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
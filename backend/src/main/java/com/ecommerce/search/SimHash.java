@@ -0,0 +1,59 @@
+package com.ecommerce.search;
+
+/**
+ * Random-hyperplane signatures (Charikar's SimHash) for weighted feature vectors.
+ *
+ * Each of the {@link LshIndex#BITS} hyperplanes gives every feature a pseudo-random +1/-1
+ * coefficient derived from the feature's key, so hyperplanes are never stored. A signature bit is
+ * the sign of the vector's projection onto its hyperplane, and the fraction of differing bits
+ * between two signatures estimates the angle between the vectors.
+ *
+ * Works for sparse hashed features (key = term hash) and for dense vectors (key = dimension).
+ */
+public final class SimHash {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final double[] projections = new double[LshIndex.BITS];
+
+    public void add(long featureKey, double weight) {
+        if (weight == 0.0) {
+            return;
+        }
+        for (int word = 0; word < LshIndex.WORDS; word++) {
+            long signs = mix(featureKey + (word + 1) * GOLDEN);
+            int base = word * 64;
+            for (int bit = 0; bit < 64; bit++) {
+                projections[base + bit] += (signs >>> bit & 1L) != 0 ? weight : -weight;
+            }
+        }
+    }
+
+    public long[] signature() {
+        long[] signature = new long[LshIndex.WORDS];
+        for (int i = 0; i < LshIndex.BITS; i++) {
+            if (projections[i] > 0) {
+                signature[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 64-bit FNV-1a over the string's chars, for use as a feature key.
+     */
+    public static long key(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer: spreads every input bit over the whole word
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
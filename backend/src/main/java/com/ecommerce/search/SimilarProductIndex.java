@@ -0,0 +1,163 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * "Similar products" over customer-visible products: each product is a hashed term-weight vector
+ * over its name, brand, category and description, indexed by {@link SimHash} signature in an
+ * {@link LshIndex}. Built once the application is ready and kept current from
+ * {@link ProductChangedEvent}s, the same way as {@link ProductSearchIndex}.
+ */
+@Component
+@Slf4j
+public class SimilarProductIndex {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double BRAND_WEIGHT = 2.0;
+    private static final double CATEGORY_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    // Long descriptions would otherwise drown out the name
+    private static final int MAX_DESCRIPTION_TERMS = 200;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "its",
+            "of", "on", "or", "that", "the", "this", "to", "with", "your", "you");
+
+    private final ProductRepository productRepository;
+    private final int maxCandidates;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LshIndex index;
+    // Changes that arrive while a rebuild is reading the table, replayed onto the new index before it is swapped in
+    private List<ProductChangedEvent> pendingChanges;
+
+    public SimilarProductIndex(ProductRepository productRepository,
+                               @Value("${app.similar-products.max-candidates:20000}") int maxCandidates) {
+        this.productRepository = productRepository;
+        this.maxCandidates = maxCandidates;
+        this.index = new LshIndex(maxCandidates);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        LshIndex fresh = new LshIndex(maxCandidates);
+        productRepository.forEachVisibleProduct(product -> fresh.upsert(product.getId(), signature(product)));
+
+        lock.writeLock().lock();
+        try {
+            for (ProductChangedEvent change : pendingChanges) {
+                apply(fresh, change);
+            }
+            pendingChanges = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Similar-products index built with {} products in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        // Hash outside the lock; only the index update needs exclusive access
+        long[] signature = event.isVisible() ? signature(event.getProduct()) : null;
+        lock.writeLock().lock();
+        try {
+            apply(index, event.getProductId(), signature);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the visible products most similar to the given product text, most similar first.
+     * @param productId the product the text belongs to, left out of the results
+     */
+    public long[] similarTo(Long productId, String name, String brand, String category, String description, int limit) {
+        long[] signature = signature(name, brand, category, description);
+        lock.readLock().lock();
+        try {
+            return index.nearest(signature, limit, productId, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(LshIndex target, ProductChangedEvent event) {
+        apply(target, event.getProductId(), event.isVisible() ? signature(event.getProduct()) : null);
+    }
+
+    private static void apply(LshIndex target, Long productId, long[] signature) {
+        if (signature != null) {
+            target.upsert(productId, signature);
+        } else {
+            target.remove(productId);
+        }
+    }
+
+    private static long[] signature(Product product) {
+        return signature(product.getName(), product.getBrand(), product.getCategory(), product.getDescription());
+    }
+
+    private static long[] signature(String name, String brand, String category, String description) {
+        Map<String, Double> weights = new HashMap<>();
+        addTerms(weights, Tokenizer.tokenize(name), NAME_WEIGHT, Integer.MAX_VALUE);
+        addTerms(weights, Tokenizer.tokenize(description), DESCRIPTION_WEIGHT, MAX_DESCRIPTION_TERMS);
+        // Brand and category are matched as whole values, apart from the same words in free text
+        if (brand != null && !brand.isBlank()) {
+            weights.merge("b:" + String.join(" ", Tokenizer.tokenize(brand)), BRAND_WEIGHT, Double::sum);
+        }
+        if (category != null && !category.isBlank()) {
+            weights.merge("c:" + String.join(" ", Tokenizer.tokenize(category)), CATEGORY_WEIGHT, Double::sum);
+        }
+
+        SimHash hash = new SimHash();
+        // Sublinear term frequency, so repeating a word has diminishing effect
+        weights.forEach((term, weight) -> hash.add(SimHash.key(term), Math.log1p(weight)));
+        return hash.signature();
+    }
+
+    private static void addTerms(Map<String, Double> weights, List<String> terms, double weight, int max) {
+        int added = 0;
+        for (String term : terms) {
+            if (added == max) {
+                break;
+            }
+            if (!STOP_WORDS.contains(term)) {
+                weights.merge(term, weight, Double::sum);
+                added++;
+            }
+        }
+    }
+}
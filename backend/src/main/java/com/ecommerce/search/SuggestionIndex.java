@@ -0,0 +1,184 @@
+package com.ecommerce.search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Autocomplete over product names and brands backed by a {@link SuggestionTrie}.
+ *
+ * Keys are the brand, the full name, and the name starting at each later word, so "pro max" finds
+ * "iPhone 15 Pro Max". Completions are ranked by rating weighted with review volume.
+ * Product changes update the entry table immediately. Only changes to what the trie is built from
+ * (name, brand, rating, review count, or whether the product is listed at all) trigger a debounced
+ * background rebuild; removed products are filtered out of lookups until that rebuild lands.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionIndex {
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_WORD_KEYS = 8;
+    private static final long REBUILD_DELAY_MS = 500;
+
+    private final ProductRepository productRepository;
+    private final TaskScheduler taskScheduler;
+
+    private volatile Map<Long, ProductDTO> entries = new ConcurrentHashMap<>();
+    // Changes that arrive while load() is reading the table, replayed onto the loaded entries before they are swapped in
+    private List<ProductChangedEvent> pendingChanges;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // One rebuild at a time, so an older one can never land after a newer one
+    private final Object rebuildLock = new Object();
+
+    private volatile Snapshot snapshot = new Snapshot(SuggestionTrie.EMPTY, new long[0]);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        Map<Long, ProductDTO> fresh = new ConcurrentHashMap<>();
+        productRepository.forEachVisibleProduct(product -> fresh.put(product.getId(), ProductDTO.summaryOf(product)));
+        synchronized (this) {
+            for (ProductChangedEvent change : pendingChanges) {
+                apply(fresh, change);
+            }
+            pendingChanges = null;
+            entries = fresh;
+        }
+        rebuild();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        boolean keysChanged;
+        synchronized (this) {
+            keysChanged = apply(entries, event);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        }
+        if (keysChanged && rebuildScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::rebuild, Instant.now().plusMillis(REBUILD_DELAY_MS));
+        }
+    }
+
+    /**
+     * Up to {@code limit} products whose name or brand has a word starting with the prefix, best first.
+     */
+    public List<ProductDTO> suggest(String prefix, int limit) {
+        String key = SuggestionTrie.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        Map<Long, ProductDTO> live = entries;
+        int[] ordinals = current.trie.lookup(key);
+        List<ProductDTO> result = new ArrayList<>(Math.min(ordinals.length, limit));
+        for (int ordinal : ordinals) {
+            ProductDTO entry = live.get(current.productIds[ordinal]);
+            if (entry != null) {
+                result.add(entry);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildScheduled.set(false);
+            buildSnapshot();
+        }
+    }
+
+    private void buildSnapshot() {
+        try {
+            long start = System.currentTimeMillis();
+            List<ProductDTO> ranked = new ArrayList<>(entries.values());
+            ranked.sort(Comparator.comparingDouble(SuggestionIndex::weight).reversed()
+                    .thenComparing(ProductDTO::getId));
+
+            long[] productIds = new long[ranked.size()];
+            List<List<String>> keys = new ArrayList<>(ranked.size());
+            for (int i = 0; i < ranked.size(); i++) {
+                ProductDTO entry = ranked.get(i);
+                productIds[i] = entry.getId();
+                keys.add(keysFor(entry));
+            }
+            SuggestionTrie trie = SuggestionTrie.build(keys, MAX_SUGGESTIONS);
+            snapshot = new Snapshot(trie, productIds);
+            log.debug("Suggestion trie rebuilt: {} products, {} nodes in {} ms",
+                    productIds.length, trie.nodeCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild suggestion trie", e);
+        }
+    }
+
+    // Whether the trie needs rebuilding for the change; other fields are served from the entry as is
+    private static boolean apply(Map<Long, ProductDTO> target, ProductChangedEvent event) {
+        if (!event.isVisible()) {
+            return target.remove(event.getProductId()) != null;
+        }
+        ProductDTO previous = target.put(event.getProductId(), ProductDTO.summaryOf(event.getProduct()));
+        Product product = event.getProduct();
+        return previous == null
+                || !Objects.equals(previous.getName(), product.getName())
+                || !Objects.equals(previous.getBrand(), product.getBrand())
+                || !Objects.equals(previous.getRating(), product.getRating())
+                || !Objects.equals(previous.getReviewCount(), product.getReviewCount());
+    }
+
+    private static List<String> keysFor(ProductDTO entry) {
+        List<String> keys = new ArrayList<>();
+        keys.add(SuggestionTrie.normalize(entry.getBrand()));
+        String name = SuggestionTrie.normalize(entry.getName());
+        keys.add(name);
+        int wordStart = name.indexOf(' ');
+        for (int i = 1; i < MAX_WORD_KEYS && wordStart >= 0; i++) {
+            keys.add(name.substring(wordStart + 1));
+            wordStart = name.indexOf(' ', wordStart + 1);
+        }
+        return keys;
+    }
+
+    private static double weight(ProductDTO entry) {
+        double rating = entry.getRating() != null ? entry.getRating() : 0.0;
+        int reviews = entry.getReviewCount() != null ? entry.getReviewCount() : 0;
+        return rating * Math.log1p(reviews);
+    }
+
+    private static final class Snapshot {
+        private final SuggestionTrie trie;
+        private final long[] productIds;
+
+        Snapshot(SuggestionTrie trie, long[] productIds) {
+            this.trie = trie;
+            this.productIds = productIds;
+        }
+    }
+}
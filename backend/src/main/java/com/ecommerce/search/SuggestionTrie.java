@@ -0,0 +1,243 @@
+package com.ecommerce.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable radix trie over suggestion keys in which every node carries its precomputed best completions.
+ *
+ * Entries are numbered by rank (0 = highest weight) before the trie is built and inserted in that order,
+ * so each node's completion list is simply the first {@code topK} distinct ordinals that pass through it.
+ * After construction the trie is flattened into parallel primitive arrays; a lookup walks at most
+ * {@code prefix.length()} characters and allocates only the returned array.
+ */
+final class SuggestionTrie {
+    static final SuggestionTrie EMPTY = build(new ArrayList<>(), 1);
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topLength;
+    private final int[] topOrdinals;
+
+    private SuggestionTrie(char[] labels, int[] labelStart, int[] labelLength, int[] firstChild, int[] childCount,
+                           int[] topStart, int[] topLength, int[] topOrdinals) {
+        this.labels = labels;
+        this.labelStart = labelStart;
+        this.labelLength = labelLength;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.topLength = topLength;
+        this.topOrdinals = topOrdinals;
+    }
+
+    /**
+     * Lowercase, and collapse every run of non-alphanumeric characters into a single space.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param keysByOrdinal normalized keys for each entry, indexed by rank (best entry first)
+     * @param topK number of completions kept per node
+     */
+    static SuggestionTrie build(List<List<String>> keysByOrdinal, int topK) {
+        MutableNode root = new MutableNode("");
+        for (int ordinal = 0; ordinal < keysByOrdinal.size(); ordinal++) {
+            for (String key : keysByOrdinal.get(ordinal)) {
+                if (!key.isEmpty()) {
+                    root.insert(key, ordinal, topK);
+                }
+            }
+        }
+        return flatten(root);
+    }
+
+    /**
+     * Ordinals of the best entries having a key that starts with the normalized prefix, best first.
+     */
+    int[] lookup(String prefix) {
+        int node = 0;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int child = findChild(node, prefix.charAt(pos));
+            if (child < 0) {
+                return new int[0];
+            }
+            int start = labelStart[child];
+            int len = labelLength[child];
+            int i = 0;
+            while (i < len && pos < prefix.length()) {
+                if (labels[start + i] != prefix.charAt(pos)) {
+                    return new int[0];
+                }
+                i++;
+                pos++;
+            }
+            node = child;
+        }
+        return Arrays.copyOfRange(topOrdinals, topStart[node], topStart[node] + topLength[node]);
+    }
+
+    int nodeCount() { return labelStart.length; }
+
+    // Children are stored contiguously and sorted by first label character
+    private int findChild(int node, char c) {
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char first = labels[labelStart[mid]];
+            if (first < c) {
+                lo = mid + 1;
+            } else if (first > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static SuggestionTrie flatten(MutableNode root) {
+        // Breadth-first numbering puts every node's children in one contiguous run
+        List<MutableNode> order = new ArrayList<>();
+        Deque<MutableNode> queue = new ArrayDeque<>();
+        queue.add(root);
+        int labelChars = 0;
+        int topTotal = 0;
+        while (!queue.isEmpty()) {
+            MutableNode node = queue.poll();
+            order.add(node);
+            labelChars += node.label.length();
+            topTotal += node.topSize;
+            node.children.sort((a, b) -> Character.compare(a.label.charAt(0), b.label.charAt(0)));
+            queue.addAll(node.children);
+        }
+
+        int n = order.size();
+        char[] labels = new char[labelChars];
+        int[] labelStart = new int[n];
+        int[] labelLength = new int[n];
+        int[] firstChild = new int[n];
+        int[] childCount = new int[n];
+        int[] topStart = new int[n];
+        int[] topLength = new int[n];
+        int[] topOrdinals = new int[topTotal];
+
+        int labelPos = 0;
+        int topPos = 0;
+        int nextChild = 1;
+        for (int i = 0; i < n; i++) {
+            MutableNode node = order.get(i);
+            node.label.getChars(0, node.label.length(), labels, labelPos);
+            labelStart[i] = labelPos;
+            labelLength[i] = node.label.length();
+            labelPos += node.label.length();
+
+            System.arraycopy(node.top, 0, topOrdinals, topPos, node.topSize);
+            topStart[i] = topPos;
+            topLength[i] = node.topSize;
+            topPos += node.topSize;
+
+            firstChild[i] = nextChild;
+            childCount[i] = node.children.size();
+            nextChild += node.children.size();
+        }
+        return new SuggestionTrie(labels, labelStart, labelLength, firstChild, childCount, topStart, topLength, topOrdinals);
+    }
+
+    private static final class MutableNode {
+        private String label;
+        private final List<MutableNode> children = new ArrayList<>(2);
+        private int[] top = new int[1];
+        private int topSize;
+
+        MutableNode(String label) {
+            this.label = label;
+        }
+
+        void insert(String key, int ordinal, int topK) {
+            MutableNode node = this;
+            node.offer(ordinal, topK);
+            int pos = 0;
+            while (pos < key.length()) {
+                MutableNode child = node.child(key.charAt(pos));
+                if (child == null) {
+                    MutableNode leaf = new MutableNode(key.substring(pos));
+                    leaf.offer(ordinal, topK);
+                    node.children.add(leaf);
+                    return;
+                }
+                int common = commonPrefix(child.label, key, pos);
+                if (common < child.label.length()) {
+                    // Split the edge: the new intermediate node covers exactly the old child's subtree so far
+                    MutableNode split = new MutableNode(child.label.substring(0, common));
+                    split.top = Arrays.copyOf(child.top, child.top.length);
+                    split.topSize = child.topSize;
+                    child.label = child.label.substring(common);
+                    split.children.add(child);
+                    node.children.set(node.children.indexOf(child), split);
+                    child = split;
+                }
+                child.offer(ordinal, topK);
+                pos += common;
+                node = child;
+            }
+        }
+
+        // Ordinals arrive in ascending order, so only the most recent one can be a duplicate
+        private void offer(int ordinal, int topK) {
+            if (topSize == topK || (topSize > 0 && top[topSize - 1] == ordinal)) {
+                return;
+            }
+            if (topSize == top.length) {
+                top = Arrays.copyOf(top, Math.min(topK, top.length * 2));
+            }
+            top[topSize++] = ordinal;
+        }
+
+        private MutableNode child(char c) {
+            for (MutableNode child : children) {
+                if (child.label.charAt(0) == c) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private static int commonPrefix(String label, String key, int offset) {
+            int i = 0;
+            while (i < label.length() && offset + i < key.length() && label.charAt(i) == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
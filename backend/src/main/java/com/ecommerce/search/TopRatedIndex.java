@@ -0,0 +1,153 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Top-rated leaderboards, global and per category, over approved products that are in stock.
+ *
+ * Entries sit in skip lists ordered by rating, then review count, then id, so reading the top k
+ * walks k nodes and never touches the database. Every product change re-files the product, which
+ * covers rating updates from reviews, stock running out or coming back, and approval changes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TopRatedIndex {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingDouble((Entry e) -> e.rating).reversed()
+            .thenComparing(Comparator.comparingInt((Entry e) -> e.reviewCount).reversed())
+            .thenComparingLong(e -> e.id);
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> global = new ConcurrentSkipListSet<>(BEST_FIRST);
+    private final Map<String, NavigableSet<Entry>> byCategory = new ConcurrentHashMap<>();
+
+    // Products changed while the initial load runs; the load must not overwrite them with older rows
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loading = true;
+        try {
+            productRepository.forEachVisibleProduct(this::loadProduct);
+        } finally {
+            loading = false;
+            changedDuringLoad.clear();
+        }
+        log.info("Top-rated leaderboard loaded with {} in-stock products in {} categories", entries.size(), byCategory.size());
+    }
+
+    @EventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (loading) {
+            changedDuringLoad.add(event.getProductId());
+        }
+        refile(event.getProductId(), event.isVisible() ? toEntry(event.getProduct()) : null);
+    }
+
+    /**
+     * Up to {@code limit} best-rated in-stock products, best first.
+     * @param category restrict to one category (case-insensitive), or null for all products
+     */
+    public List<ProductDTO> top(String category, int limit) {
+        NavigableSet<Entry> board = category == null ? global : byCategory.get(categoryKey(category));
+        if (board == null) {
+            return List.of();
+        }
+        List<ProductDTO> result = new ArrayList<>(Math.min(limit, MAX_LIMIT));
+        Iterator<Entry> it = board.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            result.add(it.next().product);
+        }
+        return result;
+    }
+
+    /**
+     * Ids of the {@code limit} best-rated in-stock products, best first.
+     */
+    public List<Long> topIds(int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        Iterator<Entry> it = global.iterator();
+        while (it.hasNext() && ids.size() < limit) {
+            ids.add(it.next().id);
+        }
+        return ids;
+    }
+
+    private synchronized void loadProduct(Product product) {
+        if (!changedDuringLoad.contains(product.getId())) {
+            refile(product.getId(), toEntry(product));
+        }
+    }
+
+    // Callers hold the monitor, so the map and both boards change together
+    private void refile(Long productId, Entry replacement) {
+        Entry previous = replacement == null ? entries.remove(productId) : entries.put(productId, replacement);
+        if (previous != null) {
+            global.remove(previous);
+            NavigableSet<Entry> board = byCategory.get(previous.category);
+            if (board != null) {
+                board.remove(previous);
+            }
+        }
+        if (replacement != null) {
+            global.add(replacement);
+            byCategory.computeIfAbsent(replacement.category, k -> new ConcurrentSkipListSet<>(BEST_FIRST)).add(replacement);
+        }
+    }
+
+    // Only in-stock products compete; out-of-stock ones drop off until restocked
+    private static Entry toEntry(Product product) {
+        if (product.getQuantity() == null || product.getQuantity() <= 0 || product.getCategory() == null) {
+            return null;
+        }
+        return new Entry(product);
+    }
+
+    private static String categoryKey(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final long id;
+        final double rating;
+        final int reviewCount;
+        final String category;
+        final ProductDTO product;
+
+        Entry(Product product) {
+            this.id = product.getId();
+            this.rating = product.getRating() != null ? product.getRating() : 0.0;
+            this.reviewCount = product.getReviewCount() != null ? product.getReviewCount() : 0;
+            this.category = categoryKey(product.getCategory());
+            this.product = ProductDTO.summaryOf(product);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.search;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ecommerce.util.TopK;
+
+/**
+ * Approximate cosine nearest-neighbour search over dense vectors. Vectors are kept L2-normalized
+ * and quantized to one signed byte per dimension; an {@link LshIndex} over their {@link SimHash}
+ * signatures proposes candidates, which are then re-ranked by exact dot product.
+ *
+ * Not thread-safe; {@link SemanticSearchIndex} guards it with a read/write lock.
+ */
+final class VectorIndex {
+    // Candidates fetched from the LSH index per requested result, for re-ranking
+    private static final int RERANK_FACTOR = 8;
+
+    private final int dimensions;
+    private final LshIndex lsh;
+    private final Map<Long, byte[]> vectors = new HashMap<>();
+
+    VectorIndex(int dimensions, int maxCandidates) {
+        this.dimensions = dimensions;
+        this.lsh = new LshIndex(maxCandidates);
+    }
+
+    int size() {
+        return vectors.size();
+    }
+
+    void upsert(long id, float[] vector) {
+        float[] unit = normalize(vector);
+        if (unit == null) {
+            remove(id);
+            return;
+        }
+        byte[] quantized = new byte[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            quantized[i] = (byte) Math.round(unit[i] * 127f);
+        }
+        vectors.put(id, quantized);
+        lsh.upsert(id, signature(unit));
+    }
+
+    void remove(long id) {
+        if (vectors.remove(id) != null) {
+            lsh.remove(id);
+        }
+    }
+
+    /**
+     * Ids of up to {@code limit} vectors most similar to {@code query}, best first.
+     * @param scoresOut receives each result's cosine similarity; may be null
+     */
+    long[] nearest(float[] query, int limit, double[] scoresOut) {
+        float[] unit = normalize(query);
+        if (unit == null || limit <= 0) {
+            return new long[0];
+        }
+        long[] candidates = lsh.nearest(signature(unit), limit * RERANK_FACTOR, Long.MIN_VALUE, null);
+        TopK top = new TopK(limit);
+        for (int c = 0; c < candidates.length; c++) {
+            byte[] vector = vectors.get(candidates[c]);
+            double dot = 0;
+            for (int i = 0; i < dimensions; i++) {
+                dot += unit[i] * vector[i];
+            }
+            top.offer(c, dot / 127.0);
+        }
+        double[] scores = new double[top.size()];
+        int[] best = top.drainDescending(scores);
+        long[] ids = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            ids[i] = candidates[best[i]];
+            if (scoresOut != null && i < scoresOut.length) {
+                scoresOut[i] = scores[i];
+            }
+        }
+        return ids;
+    }
+
+    private long[] signature(float[] unit) {
+        SimHash hash = new SimHash();
+        for (int i = 0; i < dimensions; i++) {
+            hash.add(i, unit[i]);
+        }
+        return hash.signature();
+    }
+
+    // Null for vectors of the wrong size or without direction
+    private float[] normalize(float[] vector) {
+        if (vector == null || vector.length != dimensions) {
+            return null;
+        }
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        float[] unit = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+}
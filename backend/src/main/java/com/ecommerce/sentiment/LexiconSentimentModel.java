@@ -0,0 +1,106 @@
+package com.ecommerce.sentiment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.ecommerce.search.Tokenizer;
+
+/**
+ * Rule-based sentiment from a word lexicon, in the style of VADER: each opinion word adds its
+ * weight, an intensifier just before it scales the weight up, and a negation within the previous
+ * two words flips and dampens it. The sum is squashed into [-1, 1].
+ *
+ * The lexicon is plain text, one {@code word weight} pair per line, so it can be replaced without
+ * code changes; its content is part of {@link #modelId()}.
+ */
+public class LexiconSentimentModel implements SentimentModel {
+    private static final Set<String> NEGATIONS = Set.of(
+            // "t" is what the tokenizer leaves of "n't" in "don't", "isn't", "wasn't"
+            "not", "no", "never", "none", "nothing", "neither", "nor", "without", "hardly", "barely", "t");
+    private static final Map<String, Double> INTENSIFIERS = Map.of(
+            "very", 1.5, "really", 1.4, "extremely", 1.8, "super", 1.5, "so", 1.3,
+            "totally", 1.5, "absolutely", 1.6, "incredibly", 1.7, "highly", 1.4, "quite", 1.2);
+    // Words after a negation that it still applies to
+    private static final int NEGATION_SCOPE = 2;
+    private static final double NEGATION_FACTOR = -0.75;
+    // Squashing constant: a single strong word lands around 0.5
+    private static final double ALPHA = 15.0;
+
+    private final Map<String, Double> lexicon;
+    private final String modelId;
+
+    public LexiconSentimentModel(String name, Map<String, Double> lexicon) {
+        this.lexicon = Map.copyOf(lexicon);
+        // Order-independent fingerprint of the lexicon, so editing it relabels reviews
+        int fingerprint = new TreeMap<>(lexicon).hashCode();
+        this.modelId = "lexicon-" + name + "-" + Integer.toHexString(fingerprint);
+    }
+
+    /**
+     * Reads a lexicon of {@code word weight} lines; blank lines and lines starting with # are skipped.
+     */
+    public static LexiconSentimentModel load(String name, InputStream in) throws IOException {
+        Map<String, Double> lexicon = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                try {
+                    lexicon.put(parts[0].toLowerCase(Locale.ROOT), Double.parseDouble(parts[1]));
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                    throw new IOException("Invalid lexicon entry on line " + lineNumber + ": " + line);
+                }
+            }
+        }
+        return new LexiconSentimentModel(name, lexicon);
+    }
+
+    @Override
+    public String modelId() {
+        return modelId;
+    }
+
+    @Override
+    public double score(String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        double sum = 0.0;
+        int negatedFor = 0;
+        double boost = 1.0;
+        for (String token : tokens) {
+            if (NEGATIONS.contains(token)) {
+                negatedFor = NEGATION_SCOPE;
+                continue;
+            }
+            Double intensity = INTENSIFIERS.get(token);
+            if (intensity != null) {
+                boost = intensity;
+                continue;
+            }
+            Double weight = lexicon.get(token);
+            if (weight != null) {
+                double value = weight * boost;
+                sum += negatedFor > 0 ? value * NEGATION_FACTOR : value;
+            }
+            boost = 1.0;
+            if (negatedFor > 0) {
+                negatedFor--;
+            }
+        }
+        return sum / Math.sqrt(sum * sum + ALPHA);
+    }
+}
@@ -0,0 +1,301 @@
+package com.ecommerce.sentiment;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.entity.SentimentCheckpoint;
+import com.ecommerce.entity.SentimentLabel;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.SentimentCheckpointRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically labels new reviews with the configured {@link SentimentModel} and keeps per-product
+ * positive/neutral/negative counts in {@code product_sentiments}.
+ *
+ * Each run resumes shortly before the checkpointed review id and walks the unlabeled reviews in id
+ * order, one keyset chunk at a time, so a run over tens of millions of reviews never holds more than
+ * one chunk. Ids are allocated when a review is inserted but become visible when it commits, so a
+ * review committing after a higher id was labeled would be skipped for good; searching the last
+ * {@code app.sentiment.rescan-window} ids again catches it. A chunk is scored across a fork-join
+ * pool, then its labels, the counter increments and the new checkpoint are written in one
+ * transaction: a crash mid-run loses no work and counts nothing twice. When the model id changes, labels and counts are rebuilt from the first review.
+ *
+ * Deleting a review locks its row before dropping the label, and the write takes a shared lock on
+ * the chunk's review rows first: a review deleted while its chunk was being scored is left out
+ * rather than labeled and counted after its label was already removed.
+ */
+@Component
+@Slf4j
+public class ReviewSentimentJob {
+    private static final String JOB_NAME = "review-sentiment";
+    // Reviews scored per fork-join leaf task
+    private static final int LEAF_SIZE = 256;
+
+    // Reviews without a label, so a rescanned range only returns the ones that committed late
+    private static final String CHUNK_SQL = "SELECT r.id, r.product_id, r.title, r.comment FROM reviews r "
+            + "LEFT JOIN review_sentiments s ON s.review_id = r.id "
+            + "WHERE r.id > ? AND s.review_id IS NULL ORDER BY r.id LIMIT ?";
+    // Locks the chunk's reviews against deletion until its labels commit; returns the ones still there
+    private static final String LOCK_CHUNK_SQL = "SELECT id FROM reviews WHERE id BETWEEN ? AND ? FOR SHARE";
+    private static final String INSERT_LABEL_SQL = "INSERT INTO review_sentiments "
+            + "(review_id, product_id, label, score, model_id, scored_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INCREMENT_COUNTS_SQL = "INSERT INTO product_sentiments "
+            + "(product_id, positive_count, neutral_count, negative_count, updated_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE positive_count = positive_count + VALUES(positive_count), "
+            + "neutral_count = neutral_count + VALUES(neutral_count), "
+            + "negative_count = negative_count + VALUES(negative_count), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SentimentCheckpointRepository checkpointRepository;
+    private final SentimentModel model;
+    private final TaskScheduler taskScheduler;
+    private final int chunkSize;
+    private final long intervalMinutes;
+    private final long rescanWindow;
+    private final ForkJoinPool pool;
+    private volatile ScheduledFuture<?> runs;
+
+    public ReviewSentimentJob(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              SentimentCheckpointRepository checkpointRepository,
+                              SentimentModel model,
+                              TaskScheduler taskScheduler,
+                              @Value("${app.sentiment.chunk-size:5000}") int chunkSize,
+                              @Value("${app.sentiment.parallelism:0}") int parallelism,
+                              @Value("${app.sentiment.interval-minutes:15}") long intervalMinutes,
+                              @Value("${app.sentiment.rescan-window:10000}") long rescanWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.model = model;
+        this.taskScheduler = taskScheduler;
+        this.chunkSize = chunkSize;
+        this.intervalMinutes = intervalMinutes;
+        this.rescanWindow = rescanWindow;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Review sentiment uses model {} with {} scoring threads", model.modelId(), pool.getParallelism());
+        runs = taskScheduler.scheduleWithFixedDelay(this::run, Duration.ofMinutes(intervalMinutes));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (runs != null) {
+            runs.cancel(true);
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Drops a review's label and takes it out of its product's counts; call in the transaction that
+     * deletes the review, before deleting it.
+     */
+    public void removeReview(Long reviewId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Waits for a chunk write holding the review, and keeps later ones from labeling it
+            jdbcTemplate.queryForList("SELECT id FROM reviews WHERE id = ? FOR UPDATE", Long.class, reviewId);
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT product_id, label FROM review_sentiments WHERE review_id = ? FOR UPDATE", reviewId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            long productId = ((Number) rows.get(0).get("product_id")).longValue();
+            String column = countColumn(SentimentLabel.valueOf((String) rows.get(0).get("label")));
+            jdbcTemplate.update("DELETE FROM review_sentiments WHERE review_id = ?", reviewId);
+            jdbcTemplate.update("UPDATE product_sentiments SET " + column + " = GREATEST(" + column + " - 1, 0), "
+                    + "updated_at = ? WHERE product_id = ?", Timestamp.valueOf(LocalDateTime.now()), productId);
+        });
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // The product's reviews are gone with it; so are their labels and counts
+        if (event.isDeleted()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM review_sentiments WHERE product_id = ?", event.getProductId());
+                jdbcTemplate.update("DELETE FROM product_sentiments WHERE product_id = ?", event.getProductId());
+            });
+        }
+    }
+
+    void run() {
+        long started = System.currentTimeMillis();
+        long scored = 0;
+        try {
+            SentimentCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElse(null);
+            if (checkpoint != null && !model.modelId().equals(checkpoint.getModelId())) {
+                log.info("Sentiment model changed from {} to {}; relabeling every review",
+                        checkpoint.getModelId(), model.modelId());
+                checkpoint = reset();
+            } else if (checkpoint == null) {
+                checkpoint = new SentimentCheckpoint(JOB_NAME, model.modelId(), 0L, 0L, LocalDateTime.now());
+            }
+
+            long after = Math.max(0, checkpoint.getLastReviewId() - rescanWindow);
+            List<ReviewText> chunk;
+            do {
+                chunk = jdbcTemplate.query(CHUNK_SQL,
+                        (rs, rowNum) -> new ReviewText(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4)),
+                        after, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                after = chunk.get(chunk.size() - 1).reviewId;
+                double[] scores = new double[chunk.size()];
+                pool.invoke(new ScoreTask(chunk, scores, 0, chunk.size()));
+                checkpoint = write(chunk, scores, checkpoint);
+                scored += chunk.size();
+            } while (chunk.size() == chunkSize && !Thread.currentThread().isInterrupted());
+
+            if (scored > 0) {
+                log.info("Review sentiment labeled {} reviews in {} ms (up to review {})",
+                        scored, System.currentTimeMillis() - started, checkpoint.getLastReviewId());
+            }
+        } catch (RuntimeException e) {
+            // The checkpoint only moves with committed chunks, so the next run resumes where this one failed
+            log.error("Review sentiment run failed after {} reviews", scored, e);
+        }
+    }
+
+    private SentimentCheckpoint write(List<ReviewText> chunk, double[] scores, SentimentCheckpoint checkpoint) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long lastReviewId = chunk.get(chunk.size() - 1).reviewId;
+        // A chunk of late reviews inside the rescan window must not move the checkpoint back
+        SentimentCheckpoint next = new SentimentCheckpoint(JOB_NAME, model.modelId(),
+                Math.max(lastReviewId, checkpoint.getLastReviewId()),
+                checkpoint.getReviewsScored() + chunk.size(), now.toLocalDateTime());
+
+        return transactionTemplate.execute(status -> {
+            Set<Long> present = new HashSet<>(jdbcTemplate.queryForList(LOCK_CHUNK_SQL, Long.class,
+                    chunk.get(0).reviewId, lastReviewId));
+            List<ReviewText> reviews = new ArrayList<>(present.size());
+            List<SentimentLabel> labels = new ArrayList<>(present.size());
+            List<Double> kept = new ArrayList<>(present.size());
+            // Sorted by product id so concurrent writers lock counter rows in the same order
+            Map<Long, long[]> counts = new TreeMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!present.contains(chunk.get(i).reviewId)) {
+                    continue;
+                }
+                SentimentLabel label = SentimentLabel.fromScore(scores[i]);
+                reviews.add(chunk.get(i));
+                labels.add(label);
+                kept.add(scores[i]);
+                counts.computeIfAbsent(chunk.get(i).productId, id -> new long[3])[label.ordinal()]++;
+            }
+            List<Map.Entry<Long, long[]>> increments = List.copyOf(counts.entrySet());
+
+            jdbcTemplate.batchUpdate(INSERT_LABEL_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, reviews.get(i).reviewId);
+                    ps.setLong(2, reviews.get(i).productId);
+                    ps.setString(3, labels.get(i).name());
+                    ps.setDouble(4, kept.get(i));
+                    ps.setString(5, model.modelId());
+                    ps.setTimestamp(6, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return reviews.size();
+                }
+            });
+            jdbcTemplate.batchUpdate(INCREMENT_COUNTS_SQL, increments, increments.size(), (ps, increment) -> {
+                ps.setLong(1, increment.getKey());
+                ps.setLong(2, increment.getValue()[SentimentLabel.POSITIVE.ordinal()]);
+                ps.setLong(3, increment.getValue()[SentimentLabel.NEUTRAL.ordinal()]);
+                ps.setLong(4, increment.getValue()[SentimentLabel.NEGATIVE.ordinal()]);
+                ps.setTimestamp(5, now);
+            });
+            return checkpointRepository.save(next);
+        });
+    }
+
+    private SentimentCheckpoint reset() {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM review_sentiments");
+            jdbcTemplate.update("DELETE FROM product_sentiments");
+            return checkpointRepository.save(
+                    new SentimentCheckpoint(JOB_NAME, model.modelId(), 0L, 0L, LocalDateTime.now()));
+        });
+    }
+
+    private static String countColumn(SentimentLabel label) {
+        switch (label) {
+            case POSITIVE:
+                return "positive_count";
+            case NEGATIVE:
+                return "negative_count";
+            default:
+                return "neutral_count";
+        }
+    }
+
+    private static final class ReviewText {
+        final long reviewId;
+        final long productId;
+        final String text;
+
+        ReviewText(long reviewId, long productId, String title, String comment) {
+            this.reviewId = reviewId;
+            this.productId = productId;
+            this.text = comment == null ? title : title + ". " + comment;
+        }
+    }
+
+    // Splits the chunk in halves until a range is small enough to score directly
+    private final class ScoreTask extends RecursiveAction {
+        private final List<ReviewText> reviews;
+        private final double[] scores;
+        private final int from;
+        private final int to;
+
+        ScoreTask(List<ReviewText> reviews, double[] scores, int from, int to) {
+            this.reviews = reviews;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = model.score(reviews.get(i).text);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(reviews, scores, from, mid), new ScoreTask(reviews, scores, mid, to));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.sentiment;
+
+/**
+ * Scores the opinion expressed in a piece of text. Called from many threads at once, so
+ * implementations must be thread-safe.
+ */
+public interface SentimentModel {
+
+    /**
+     * Identifies the model and its settings; changing it makes the sentiment job relabel every review.
+     */
+    String modelId();
+
+    /**
+     * Polarity from -1 (most negative) to 1 (most positive); 0 when the text expresses no opinion.
+     */
+    double score(String text);
+}
@@ -0,0 +1,182 @@
+package com.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.dto.CheckoutRequest;
+import com.ecommerce.dto.OrderDTO;
+import com.ecommerce.dto.OrderItemDTO;
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.entity.OrderStatus;
+import com.ecommerce.entity.Product;
+import com.ecommerce.event.UserActivityEvent;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductRow;
+import com.ecommerce.trending.TrendingTracker;
+import com.ecommerce.util.AfterCommit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Places a whole cart as one order in one request.
+ *
+ * Every product is loaded with a single IN query and priced on the server; client totals are never
+ * trusted. The order row, the stock reservation and all of the items are then written in one
+ * transaction: one insert for the order, one conditional stock update per product and one JDBC batch
+ * for the items, instead of a round trip, an order reload and an insert per cart line.
+ */
+@Service
+@Slf4j
+public class CheckoutService {
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders (user_id, order_number, status, total_amount, "
+            + "tax_amount, shipping_cost, shipping_address, payment_method, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ITEM_SQL = "INSERT INTO order_items "
+            + "(order_id, product_id, quantity, unit_price, total_price) VALUES (?, ?, ?, ?, ?)";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryReservationService inventoryReservationService;
+    private final TrendingTracker trendingTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BigDecimal taxRate;
+    private final BigDecimal shippingFee;
+    private final BigDecimal freeShippingThreshold;
+
+    public CheckoutService(ProductRepository productRepository,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           InventoryReservationService inventoryReservationService,
+                           TrendingTracker trendingTracker,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${app.checkout.tax-rate:0.18}") BigDecimal taxRate,
+                           @Value("${app.checkout.shipping-fee:0}") BigDecimal shippingFee,
+                           @Value("${app.checkout.free-shipping-threshold:499}") BigDecimal freeShippingThreshold) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryReservationService = inventoryReservationService;
+        this.trendingTracker = trendingTracker;
+        this.eventPublisher = eventPublisher;
+        this.taxRate = taxRate;
+        this.shippingFee = shippingFee;
+        this.freeShippingThreshold = freeShippingThreshold;
+    }
+
+    /**
+     * Creates a pending order for the user holding every line of the cart, priced from the catalog.
+     * Lines for the same product are merged.
+     */
+    public OrderDTO checkout(Long userId, CheckoutRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CheckoutRequest.Item item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Map<Long, ProductDTO> products = productRepository.findRowsByIdIn(quantities.keySet()).stream()
+                .map(ProductRow::getProduct)
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+
+        List<OrderItemDTO> lines = new ArrayList<>(quantities.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            ProductDTO product = products.get(entry.getKey());
+            if (product == null || !isPurchasable(product)) {
+                throw new RuntimeException("Product not available: " + entry.getKey());
+            }
+            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(entry.getValue()));
+            lines.add(new OrderItemDTO(null, product.getId(), product.getName(), product.getImageUrl(),
+                    entry.getValue(), product.getPrice(), lineTotal));
+            subtotal = subtotal.add(lineTotal);
+        }
+
+        BigDecimal tax = subtotal.multiply(taxRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal shipping = subtotal.compareTo(freeShippingThreshold) >= 0 ? BigDecimal.ZERO : shippingFee;
+        OrderDTO order = new OrderDTO(null, OrderService.newOrderNumber(), OrderStatus.PENDING,
+                subtotal.add(tax).add(shipping), tax, shipping,
+                request.getShippingAddress().trim(), request.getPaymentMethod().trim(),
+                LocalDateTime.now(), LocalDateTime.now(), lines);
+
+        // Stock is reserved between the order row and its items; a short product rolls back all three
+        transactionTemplate.executeWithoutResult(status -> insert(userId, order, quantities));
+        log.info("Order created: {} with {} items", order.getOrderNumber(), lines.size());
+
+        // An idempotent request commits the order together with its key, after this returns
+        AfterCommit.run(() -> {
+            eventPublisher.publishEvent(UserActivityEvent.ordered(userId));
+            for (OrderItemDTO line : lines) {
+                trendingTracker.recordPurchase(line.getProductId(), products.get(line.getProductId()).getCategory(),
+                        line.getQuantity());
+            }
+        });
+        return order;
+    }
+
+    // Fills in the generated order and item ids
+    private void insert(Long userId, OrderDTO order, Map<Long, Integer> quantities) {
+        Timestamp now = Timestamp.valueOf(order.getCreatedAt());
+        KeyHolder orderKey = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, userId);
+            ps.setString(2, order.getOrderNumber());
+            ps.setString(3, order.getStatus().name());
+            ps.setBigDecimal(4, order.getTotalAmount());
+            ps.setBigDecimal(5, order.getTaxAmount());
+            ps.setBigDecimal(6, order.getShippingCost());
+            ps.setString(7, order.getShippingAddress());
+            ps.setString(8, order.getPaymentMethod());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+            return ps;
+        }, orderKey);
+        order.setId(orderKey.getKey().longValue());
+        inventoryReservationService.reserve(order.getId(), quantities, true);
+
+        // Plain JDBC so the batch can hand back the generated item ids
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_ITEM_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (OrderItemDTO line : order.getItems()) {
+                    ps.setLong(1, order.getId());
+                    ps.setLong(2, line.getProductId());
+                    ps.setInt(3, line.getQuantity());
+                    ps.setBigDecimal(4, line.getUnitPrice());
+                    ps.setBigDecimal(5, line.getTotalPrice());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int i = 0; i < order.getItems().size() && keys.next(); i++) {
+                        order.getItems().get(i).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static boolean isPurchasable(ProductDTO product) {
+        return product.getApprovalStatus() == null
+                || Product.ProductApprovalStatus.APPROVED.name().equals(product.getApprovalStatus());
+    }
+}
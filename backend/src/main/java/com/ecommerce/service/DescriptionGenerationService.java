@@ -0,0 +1,463 @@
+package com.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.dto.DescriptionJobRequest;
+import com.ecommerce.dto.DescriptionJobStatus;
+import com.ecommerce.entity.GeneratedDescription;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.UserRole;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.generation.DescriptionPrompt;
+import com.ecommerce.generation.DescriptionProvider;
+import com.ecommerce.repository.GeneratedDescriptionRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.util.BoundedCache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates product descriptions in the background. Sellers submit products as a job; every product
+ * goes onto one shared queue, and a dispatcher coalesces queued products from all jobs into batches
+ * for the {@link DescriptionProvider}. At most {@code concurrency} batches call the provider at
+ * once, and a failed call is retried with exponential backoff.
+ *
+ * Descriptions are cached by hash of the model id and the product's name, category and brand, so
+ * duplicate products cost nothing; results are written to {@code products.description} unless the
+ * description was edited after the product was queued, in which case the product is skipped.
+ *
+ * The queue holds at most {@code queue-capacity} products; a job that does not fit is rejected
+ * whole, and the caller should answer 429.
+ *
+ * Jobs run in the background; their progress is kept in memory for a day.
+ */
+@Service
+@Slf4j
+public class DescriptionGenerationService {
+    // Only if nobody edited the description since the product was queued
+    private static final String UPDATE_SQL = "UPDATE products SET description = ?, updated_at = ? "
+            + "WHERE id = ? AND description <=> ?";
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final GeneratedDescriptionRepository descriptionRepository;
+    private final DescriptionProvider provider;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final Semaphore permits;
+
+    private final BoundedCache<String, GenerationJob> jobs = new BoundedCache<>(200, Duration.ofHours(24));
+    private final BlockingQueue<WorkItem> queue;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "description-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService workers;
+
+    public DescriptionGenerationService(ProductRepository productRepository,
+                                        UserRepository userRepository,
+                                        GeneratedDescriptionRepository descriptionRepository,
+                                        DescriptionProvider provider,
+                                        JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Value("${app.descriptions.batch-size:20}") int batchSize,
+                                        @Value("${app.descriptions.linger-millis:200}") long lingerMillis,
+                                        @Value("${app.descriptions.concurrency:2}") int concurrency,
+                                        @Value("${app.descriptions.max-attempts:4}") int maxAttempts,
+                                        @Value("${app.descriptions.initial-backoff-millis:1000}") long initialBackoffMillis,
+                                        @Value("${app.descriptions.queue-capacity:5000}") int queueCapacity) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.descriptionRepository = descriptionRepository;
+        this.provider = provider;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, Math.min(batchSize, provider.maxBatchSize()));
+        this.lingerMillis = lingerMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.permits = new Semaphore(concurrency);
+        this.queue = new ArrayBlockingQueue<>(Math.max(DescriptionJobRequest.MAX_PRODUCTS, queueCapacity));
+        this.workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "description-generation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Description generation uses {} ({} per batch)", provider.modelId(), batchSize);
+        dispatcher.execute(this::dispatch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues the products for generation.
+     * @return the new job's status, or null if the queue has no room for all of its products
+     */
+    public DescriptionJobStatus submit(List<Long> productIds, Long userId) {
+        // Authorization check: once for the whole job instead of once per product
+        if (userId == null) {
+            throw new RuntimeException("User authentication required");
+        }
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() != UserRole.ADMIN && user.getRole() != UserRole.SELLER) {
+            throw new RuntimeException("You do not have permission to update products");
+        }
+        List<Long> ids = productIds == null ? List.of() : productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            throw new RuntimeException("At least one product id is required");
+        }
+        if (ids.size() > DescriptionJobRequest.MAX_PRODUCTS) {
+            throw new RuntimeException("At most " + DescriptionJobRequest.MAX_PRODUCTS + " products can be submitted at once");
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        for (Long id : ids) {
+            Product product = products.get(id);
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + id);
+            }
+            // Sellers can only update their own products, admins can update any product
+            if (user.getRole() == UserRole.SELLER && !userId.equals(product.getSellerId())) {
+                throw new RuntimeException("You can only update your own products");
+            }
+        }
+
+        GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), userId, ids.size());
+        // Only the dispatcher takes from the queue, so room checked under the lock is still there
+        synchronized (queue) {
+            if (queue.remainingCapacity() < ids.size()) {
+                log.info("Rejected description generation for user {}: the queue is full", userId);
+                return null;
+            }
+            for (Long id : ids) {
+                Product product = products.get(id);
+                DescriptionPrompt prompt = new DescriptionPrompt(product.getName(), product.getCategory(), product.getBrand());
+                queue.add(new WorkItem(job, id, prompt, inputHash(prompt), product.getDescription()));
+            }
+        }
+        jobs.put(job.id, job);
+        log.info("Queued description generation {} for user {} ({} products)", job.id, userId, ids.size());
+        return job.snapshot();
+    }
+
+    /**
+     * Status of a job started by this user (or any job, for admins), or null if there is none.
+     */
+    public DescriptionJobStatus getStatus(String jobId, Long userId) {
+        GenerationJob job = jobs.get(jobId);
+        if (job == null || userId == null) {
+            return null;
+        }
+        if (!job.ownerId.equals(userId)) {
+            var user = userRepository.findById(userId).orElse(null);
+            if (user == null || user.getRole() != UserRole.ADMIN) {
+                return null;
+            }
+        }
+        return job.snapshot();
+    }
+
+    // Waits for work, lingers briefly so products submitted together share a provider call, then
+    // hands the batch to a worker once one of the concurrency permits is free
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<WorkItem> batch = new ArrayList<>(batchSize);
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    WorkItem next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                permits.acquire();
+                try {
+                    workers.execute(() -> {
+                        try {
+                            process(batch);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(List<WorkItem> batch) {
+        batch.forEach(item -> item.job.state = State.RUNNING);
+        Map<String, List<WorkItem>> byInput = new LinkedHashMap<>();
+        for (WorkItem item : batch) {
+            byInput.computeIfAbsent(item.inputHash, hash -> new ArrayList<>()).add(item);
+        }
+
+        Map<String, String> descriptions = new HashMap<>();
+        try {
+            descriptionRepository.findAllById(byInput.keySet())
+                    .forEach(cached -> descriptions.put(cached.getInputHash(), cached.getDescription()));
+        } catch (RuntimeException e) {
+            // The cache only saves provider calls; generate everything rather than fail the batch
+            log.warn("Could not read cached descriptions: {}", e.getMessage());
+        }
+        Map<String, String> cachedInputs = new HashMap<>(descriptions);
+
+        List<String> missing = byInput.keySet().stream()
+                .filter(hash -> !descriptions.containsKey(hash))
+                .collect(Collectors.toList());
+        String error = null;
+        if (!missing.isEmpty()) {
+            try {
+                List<DescriptionPrompt> prompts = missing.stream()
+                        .map(hash -> byInput.get(hash).get(0).prompt)
+                        .collect(Collectors.toList());
+                List<String> generated = generateWithRetry(prompts);
+                LocalDateTime now = LocalDateTime.now();
+                List<GeneratedDescription> rows = new ArrayList<>(missing.size());
+                for (int i = 0; i < missing.size(); i++) {
+                    descriptions.put(missing.get(i), generated.get(i));
+                    rows.add(new GeneratedDescription(missing.get(i), provider.modelId(), generated.get(i), now));
+                }
+                descriptionRepository.saveAll(rows);
+            } catch (RuntimeException e) {
+                log.error("Description generation failed for {} products", missing.size(), e);
+                error = String.valueOf(e.getMessage());
+            }
+        }
+
+        List<WorkItem> ready = new ArrayList<>(batch.size());
+        for (WorkItem item : batch) {
+            if (descriptions.containsKey(item.inputHash)) {
+                ready.add(item);
+            }
+        }
+        List<WorkItem> written;
+        try {
+            written = writeBack(ready, descriptions);
+        } catch (RuntimeException e) {
+            log.error("Could not save generated descriptions for {} products", ready.size(), e);
+            error = String.valueOf(e.getMessage());
+            ready.clear();
+            written = List.of();
+        }
+
+        for (WorkItem item : batch) {
+            if (!ready.contains(item)) {
+                item.job.failedProducts.incrementAndGet();
+                item.job.message = error;
+            } else if (!written.contains(item)) {
+                item.job.skippedProducts.incrementAndGet();
+            } else if (cachedInputs.containsKey(item.inputHash)) {
+                item.job.cachedProducts.incrementAndGet();
+            } else {
+                item.job.generatedProducts.incrementAndGet();
+            }
+            item.job.finishIfDone();
+        }
+    }
+
+    private List<String> generateWithRetry(List<DescriptionPrompt> prompts) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<String> generated = provider.generate(prompts);
+                if (generated.size() != prompts.size()) {
+                    throw new RuntimeException("Description provider returned " + generated.size()
+                            + " descriptions for " + prompts.size() + " products");
+                }
+                return generated;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                // Jittered, so batches that failed together do not retry in lockstep; the worker
+                // keeps its permit meanwhile, which also slows the whole pipeline while the provider struggles
+                long sleep = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+                log.warn("Description provider call failed (attempt {} of {}), retrying in {} ms: {}",
+                        attempt, maxAttempts, sleep, e.getMessage());
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    // The items whose product still had the description it was queued with, and so was updated
+    private List<WorkItem> writeBack(List<WorkItem> items, Map<String, String> descriptions) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = transactionTemplate.execute(status ->
+                jdbcTemplate.batchUpdate(UPDATE_SQL, items, items.size(), (ps, item) -> {
+                    ps.setString(1, descriptions.get(item.inputHash));
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, item.productId);
+                    ps.setString(4, item.queuedDescription);
+                }));
+        List<WorkItem> written = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (counts[0][i] > 0) {
+                written.add(items.get(i));
+            }
+        }
+        if (written.size() < items.size()) {
+            log.info("Left {} descriptions edited since they were queued", items.size() - written.size());
+        }
+        if (written.isEmpty()) {
+            return written;
+        }
+        // Reload so search indexes and caches see the new description
+        List<Long> ids = written.stream().map(item -> item.productId).collect(Collectors.toList());
+        productRepository.findAllById(ids)
+                .forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product)));
+        return written;
+    }
+
+    private String inputHash(DescriptionPrompt prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] {provider.modelId(), prompt.getName(), prompt.getCategory(), prompt.getBrand()}) {
+                digest.update(normalize(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Case and spacing differences should not cost a second generation
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class WorkItem {
+        final GenerationJob job;
+        final Long productId;
+        final DescriptionPrompt prompt;
+        final String inputHash;
+        final String queuedDescription;
+
+        WorkItem(GenerationJob job, Long productId, DescriptionPrompt prompt, String inputHash, String queuedDescription) {
+            this.job = job;
+            this.productId = productId;
+            this.prompt = prompt;
+            this.inputHash = inputHash;
+            this.queuedDescription = queuedDescription;
+        }
+    }
+
+    private static final class GenerationJob {
+        final String id;
+        final Long ownerId;
+        final long totalProducts;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicLong generatedProducts = new AtomicLong();
+        final AtomicLong cachedProducts = new AtomicLong();
+        final AtomicLong failedProducts = new AtomicLong();
+        final AtomicLong skippedProducts = new AtomicLong();
+        volatile State state = State.QUEUED;
+        volatile String message;
+        volatile LocalDateTime finishedAt;
+
+        GenerationJob(String id, Long ownerId, long totalProducts) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.totalProducts = totalProducts;
+        }
+
+        synchronized void finishIfDone() {
+            long failed = failedProducts.get();
+            if (finishedAt == null
+                    && generatedProducts.get() + cachedProducts.get() + skippedProducts.get() + failed == totalProducts) {
+                state = failed == totalProducts ? State.FAILED : State.COMPLETED;
+                finishedAt = LocalDateTime.now();
+                log.info("Description generation {} finished: {} generated, {} cached, {} skipped, {} failed",
+                        id, generatedProducts.get(), cachedProducts.get(), skippedProducts.get(), failed);
+            }
+        }
+
+        DescriptionJobStatus snapshot() {
+            return DescriptionJobStatus.builder()
+                    .jobId(id)
+                    .state(state.name())
+                    .totalProducts(totalProducts)
+                    .generatedProducts(generatedProducts.get())
+                    .cachedProducts(cachedProducts.get())
+                    .failedProducts(failedProducts.get())
+                    .skippedProducts(skippedProducts.get())
+                    .message(message)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
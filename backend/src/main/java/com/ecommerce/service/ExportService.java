@@ -0,0 +1,270 @@
+package com.ecommerce.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.repository.OrderExportRow;
+import com.ecommerce.repository.OrderItemExportRow;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams whole tables to an output stream as NDJSON or CSV in constant memory.
+ *
+ * Rows come from driver-streamed projection queries, so the persistence context stays empty,
+ * and are written and flushed in chunks as they arrive. Each export holds one pooled connection
+ * for its whole run, so the number running at once is capped.
+ */
+@Service
+@Slf4j
+public class ExportService {
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final List<Column<ProductRow>> PRODUCT_COLUMNS = List.of(
+            new Column<>("id", r -> r.getProduct().getId()),
+            new Column<>("name", r -> r.getProduct().getName()),
+            new Column<>("category", r -> r.getProduct().getCategory()),
+            new Column<>("brand", r -> r.getProduct().getBrand()),
+            new Column<>("price", r -> r.getProduct().getPrice()),
+            new Column<>("quantity", r -> r.getProduct().getQuantity()),
+            new Column<>("rating", r -> r.getProduct().getRating()),
+            new Column<>("reviewCount", r -> r.getProduct().getReviewCount()),
+            new Column<>("sellerId", r -> r.getProduct().getSellerId()),
+            new Column<>("approvalStatus", r -> r.getProduct().getApprovalStatus()),
+            new Column<>("imageUrl", r -> r.getProduct().getImageUrl()),
+            new Column<>("description", r -> r.getProduct().getDescription()),
+            new Column<>("createdAt", ProductRow::getCreatedAt));
+
+    private static final List<Column<OrderExportRow>> ORDER_COLUMNS = List.of(
+            new Column<>("id", OrderExportRow::getId),
+            new Column<>("orderNumber", OrderExportRow::getOrderNumber),
+            new Column<>("userId", OrderExportRow::getUserId),
+            new Column<>("status", OrderExportRow::getStatus),
+            new Column<>("totalAmount", OrderExportRow::getTotalAmount),
+            new Column<>("taxAmount", OrderExportRow::getTaxAmount),
+            new Column<>("shippingCost", OrderExportRow::getShippingCost),
+            new Column<>("shippingAddress", OrderExportRow::getShippingAddress),
+            new Column<>("paymentMethod", OrderExportRow::getPaymentMethod),
+            new Column<>("createdAt", OrderExportRow::getCreatedAt),
+            new Column<>("updatedAt", OrderExportRow::getUpdatedAt));
+
+    private static final List<Column<OrderItemExportRow>> ORDER_ITEM_COLUMNS = List.of(
+            new Column<>("id", OrderItemExportRow::getId),
+            new Column<>("orderId", OrderItemExportRow::getOrderId),
+            new Column<>("orderNumber", OrderItemExportRow::getOrderNumber),
+            new Column<>("productId", OrderItemExportRow::getProductId),
+            new Column<>("productName", OrderItemExportRow::getProductName),
+            new Column<>("quantity", OrderItemExportRow::getQuantity),
+            new Column<>("unitPrice", OrderItemExportRow::getUnitPrice),
+            new Column<>("totalPrice", OrderItemExportRow::getTotalPrice));
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        /**
+         * @throws IllegalArgumentException if the value names no supported format
+         */
+        public static Format fromParam(String param) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(param)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + param);
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exportSlots;
+
+    public ExportService(ProductRepository productRepository,
+                         OrderRepository orderRepository,
+                         OrderItemRepository orderItemRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${app.export.max-concurrent:2}") int maxConcurrentExports) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.objectMapper = objectMapper;
+        this.exportSlots = new Semaphore(Math.max(1, maxConcurrentExports));
+    }
+
+    /**
+     * Reserve a slot for one export. Callers that get true must call {@link #releaseSlot()} when done.
+     */
+    public boolean tryAcquireSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        exportSlots.release();
+    }
+
+    @Transactional(readOnly = true)
+    public long exportProducts(Format format, OutputStream out) throws IOException {
+        try (Stream<ProductRow> rows = productRepository.streamAllRows()) {
+            return write(rows, PRODUCT_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrders(Format format, OutputStream out) throws IOException {
+        try (Stream<OrderExportRow> rows = orderRepository.streamAllForExport()) {
+            return write(rows, ORDER_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrderItems(Format format, OutputStream out) throws IOException {
+        try (Stream<OrderItemExportRow> rows = orderItemRepository.streamAllForExport()) {
+            return write(rows, ORDER_ITEM_COLUMNS, format, out);
+        }
+    }
+
+    private <T> long write(Stream<T> rows, List<Column<T>> columns, Format format, OutputStream out) throws IOException {
+        RowWriter writer = format == Format.NDJSON
+                ? new NdjsonWriter(objectMapper, out, columns)
+                : new CsvWriter(out, columns);
+        Object[] values = new Object[columns.size()];
+        long count = 0;
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            T row = it.next();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns.get(i).extractor.apply(row);
+            }
+            writer.write(values);
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        log.info("Exported {} rows as {}", count, format);
+        return count;
+    }
+
+    private static final class Column<T> {
+        final String name;
+        final Function<T, Object> extractor;
+
+        Column(String name, Function<T, Object> extractor) {
+            this.name = name;
+            this.extractor = extractor;
+        }
+    }
+
+    private interface RowWriter {
+        void write(Object[] values) throws IOException;
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final String[] names;
+
+        NdjsonWriter(ObjectMapper objectMapper, OutputStream out, List<? extends Column<?>> columns) throws IOException {
+            this.generator = objectMapper.createGenerator(out);
+            // The servlet container owns the response stream
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.names = columns.stream().map(c -> c.name).toArray(String[]::new);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                generator.writeFieldName(names[i]);
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out, List<? extends Column<?>> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            Object[] header = columns.stream().map(c -> c.name).toArray();
+            write(header);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks, doubling inner quotes
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.dto.FlashSaleStatus;
+import com.ecommerce.entity.UserRole;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.util.StripedCounter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flash-sale mode: an admin can switch a product so that its stock is sold from memory instead of
+ * by row-locked updates of {@code products.quantity}, for the few products that take most of the
+ * checkout traffic during a promotion.
+ *
+ * While a sale runs, the product's stock is a {@link StripedCounter} seeded from the database and
+ * orders take from it without touching the product row. Each take or return also writes a row to
+ * {@code pending_stock_changes} in the order's own transaction; a background flush applies those
+ * rows to {@code products.quantity} in one coalesced update per product and deletes them. The
+ * pending rows commit or roll back with their orders, so after a crash the startup reconciliation
+ * applies whatever was left unflushed before seeding the counters again.
+ *
+ * In-memory stock only works if one process sells it, so flash sales run on a single instance: the
+ * one holding the {@code flash_sale_lease} row, renewed on every flush. Only that instance seeds
+ * counters, sells from them, flushes and starts or ends sales. Any other instance refuses flash-sale
+ * products at checkout until it takes the lease over, which it can only do once the lease has
+ * lapsed. The holder stops selling {@link #LEASE_MARGIN_MILLIS} before its lease would lapse, so
+ * its last orders have committed by the time a successor reconciles and seeds from the exact stock.
+ */
+@Service
+@Slf4j
+public class FlashSaleService {
+    public enum Take { TAKEN, SOLD_OUT, NOT_IN_SALE }
+
+    // Pending changes applied per flush transaction
+    private static final int FLUSH_CHUNK = 5000;
+    private static final long DRAIN_TIMEOUT_MILLIS = 10_000;
+    static final long LEASE_MARGIN_MILLIS = 3_000;
+
+    // Database time on both sides, so clock skew between instances does not matter. MySQL assigns
+    // left to right: the expiry is only extended once the owner is this instance.
+    private static final String ACQUIRE_LEASE_SQL = "INSERT INTO flash_sale_lease (id, owner, expires_at) "
+            + "VALUES (1, ?, NOW() + INTERVAL ? SECOND) "
+            + "ON DUPLICATE KEY UPDATE owner = IF(owner = VALUES(owner) OR expires_at < NOW(), VALUES(owner), owner), "
+            + "expires_at = IF(owner = VALUES(owner), VALUES(expires_at), expires_at)";
+
+    private static final String RESUME_SQL = "SELECT f.product_id, p.quantity + COALESCE((SELECT SUM(c.delta) "
+            + "FROM pending_stock_changes c WHERE c.product_id = f.product_id), 0) AS available "
+            + "FROM flash_sales f JOIN products p ON p.id = f.product_id";
+
+    private static final String INSERT_CHANGE_SQL = "INSERT INTO pending_stock_changes (product_id, delta, created_at) "
+            + "VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskScheduler taskScheduler;
+    private final int stripes;
+    private final long flushMillis;
+    private final long leaseSeconds;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<Long, Sale> sales = new ConcurrentHashMap<>();
+    // System.nanoTime() until which this instance may sell from memory, and whether its counters are seeded
+    private volatile long sellUntil;
+    private volatile boolean seeded;
+    private final Object flushLock = new Object();
+    private volatile ScheduledFuture<?> ticks;
+
+    public FlashSaleService(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ProductRepository productRepository,
+                            UserRepository userRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            TaskScheduler taskScheduler,
+                            @Value("${app.flash-sale.stripes:16}") int stripes,
+                            @Value("${app.flash-sale.flush-millis:500}") long flushMillis,
+                            @Value("${app.flash-sale.lease-seconds:10}") long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.stripes = stripes;
+        this.flushMillis = flushMillis;
+        // The margin has to leave time to renew
+        this.leaseSeconds = Math.max(leaseSeconds, TimeUnit.MILLISECONDS.toSeconds(LEASE_MARGIN_MILLIS) * 2);
+        this.sellUntil = System.nanoTime();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticks = taskScheduler.scheduleWithFixedDelay(this::tick, Duration.ofMillis(flushMillis));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticks != null) {
+            ticks.cancel(true);
+        }
+        try {
+            // Hand over at once rather than when the lease lapses
+            jdbcTemplate.update("DELETE FROM flash_sale_lease WHERE id = 1 AND owner = ?", instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Releasing the flash sale lease failed; it lapses in {} seconds", leaseSeconds, e);
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // Whichever instance deletes the product ends its sale, even if another one runs it
+        if (event.isDeleted()) {
+            sales.remove(event.getProductId());
+            jdbcTemplate.update("DELETE FROM flash_sales WHERE product_id = ?", event.getProductId());
+        }
+    }
+
+    /**
+     * Whether the product is in a flash sale, on whichever instance runs it.
+     */
+    public boolean isActive(long productId) {
+        return sales.containsKey(productId) || !jdbcTemplate.queryForList(
+                "SELECT 1 FROM flash_sales WHERE product_id = ?", Integer.class, productId).isEmpty();
+    }
+
+    public FlashSaleStatus getStatus(long productId) {
+        Sale sale = sales.get(productId);
+        boolean active = sale != null && !sale.draining;
+        return new FlashSaleStatus(productId, active, active ? sale.stock.sum() : 0);
+    }
+
+    /**
+     * Takes units of a flash-sale product from memory and records the sale for the write-behind
+     * flush. Must run inside the order's transaction; the units come back if it rolls back.
+     * @return NOT_IN_SALE if the product's stock is not held in memory, so the caller takes it from the product row
+     */
+    public Take take(long productId, int quantity) {
+        Sale sale = sales.get(productId);
+        if (sale == null || !holdsLease() || !sale.enter()) {
+            return Take.NOT_IN_SALE;
+        }
+        if (!sale.stock.tryTake(quantity)) {
+            sale.exit();
+            return Take.SOLD_OUT;
+        }
+        // Registered before the insert, so a failed insert also hands the units back
+        onCompletion(sale, quantity, false);
+        jdbcTemplate.update(INSERT_CHANGE_SQL, productId, -quantity, Timestamp.valueOf(LocalDateTime.now()));
+        return Take.TAKEN;
+    }
+
+    /**
+     * Returns units of a flash-sale product to memory once the caller's transaction commits, and
+     * records the return for the write-behind flush.
+     * @return false if the product's stock is not held in memory, so the caller returns it to the product row
+     */
+    public boolean giveBack(long productId, int quantity) {
+        Sale sale = sales.get(productId);
+        if (sale == null || !holdsLease() || !sale.enter()) {
+            return false;
+        }
+        onCompletion(sale, quantity, true);
+        jdbcTemplate.update(INSERT_CHANGE_SQL, productId, quantity, Timestamp.valueOf(LocalDateTime.now()));
+        return true;
+    }
+
+    /**
+     * Puts a product into flash-sale mode, seeding its in-memory stock from the database.
+     */
+    public synchronized FlashSaleStatus startSale(long productId, Long userId) {
+        requireAdmin(userId);
+        requireLease();
+        if (!sales.containsKey(productId)) {
+            Long available = transactionTemplate.execute(status -> {
+                // Row-level updates already waiting on this lock fail once the flash_sales row exists
+                List<Integer> quantity = jdbcTemplate.queryForList(
+                        "SELECT quantity FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+                if (quantity.isEmpty()) {
+                    throw new RuntimeException("Product not found");
+                }
+                jdbcTemplate.update("INSERT IGNORE INTO flash_sales (product_id, started_by, started_at) VALUES (?, ?, ?)",
+                        productId, userId, Timestamp.valueOf(LocalDateTime.now()));
+                Long pending = jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(SUM(delta), 0) FROM pending_stock_changes WHERE product_id = ?", Long.class, productId);
+                return quantity.get(0) + pending;
+            });
+            sales.put(productId, new Sale(available));
+            log.info("Flash sale started for product {} with {} units", productId, available);
+        }
+        return getStatus(productId);
+    }
+
+    /**
+     * Takes a product out of flash-sale mode once orders in flight have finished, applying every
+     * pending change so {@code products.quantity} is exact again.
+     */
+    public synchronized FlashSaleStatus endSale(long productId, Long userId) {
+        requireAdmin(userId);
+        requireLease();
+        Sale sale = sales.get(productId);
+        if (sale != null) {
+            sale.draining = true;
+            long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+            while (sale.inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (sale.inFlight.get() > 0) {
+                // Their pending changes are still flushed; only the in-memory count is gone
+                log.warn("Ending flash sale for product {} with {} orders still in flight", productId, sale.inFlight.get());
+            }
+            flushProduct(productId);
+        }
+        jdbcTemplate.update("DELETE FROM flash_sales WHERE product_id = ?", productId);
+        sales.remove(productId);
+        log.info("Flash sale ended for product {}", productId);
+        return getStatus(productId);
+    }
+
+    public boolean holdsLease() {
+        return seeded && System.nanoTime() - sellUntil < 0;
+    }
+
+    // Renews the lease, seeds the counters when it was just taken over, and flushes while it is held
+    private void tick() {
+        boolean lapsed = System.nanoTime() - sellUntil >= 0;
+        if (!renewLease()) {
+            if (seeded) {
+                log.warn("Lost the flash sale lease; no longer selling flash-sale stock from memory");
+            }
+            seeded = false;
+            sales.clear();
+            return;
+        }
+        if (lapsed) {
+            // Someone else may have sold in between; the counters only hold while the lease does
+            seeded = false;
+        }
+        if (!seeded) {
+            seeded = reconcile();
+        }
+        if (seeded) {
+            flush();
+        }
+    }
+
+    private boolean renewLease() {
+        long renewedAt = System.nanoTime();
+        try {
+            jdbcTemplate.update(ACQUIRE_LEASE_SQL, instanceId, leaseSeconds);
+            String owner = jdbcTemplate.queryForObject("SELECT owner FROM flash_sale_lease WHERE id = 1", String.class);
+            if (!instanceId.equals(owner)) {
+                return false;
+            }
+            sellUntil = renewedAt + TimeUnit.SECONDS.toNanos(leaseSeconds) - TimeUnit.MILLISECONDS.toNanos(LEASE_MARGIN_MILLIS);
+            return true;
+        } catch (RuntimeException e) {
+            // Keep selling until the last renewal runs out; the lease lapses on its own if this keeps failing
+            log.error("Renewing the flash sale lease failed", e);
+            return holdsLease();
+        }
+    }
+
+    // On taking the lease: apply whatever a previous holder left unflushed, then seed counters from the exact stock
+    private synchronized boolean reconcile() {
+        sales.clear();
+        if (!flush()) {
+            return false;
+        }
+        try {
+            // Counted with whatever is still pending, as in startSale: orders committed since the flush are in the table
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(RESUME_SQL);
+            for (Map<String, Object> row : rows) {
+                long productId = ((Number) row.get("product_id")).longValue();
+                sales.putIfAbsent(productId, new Sale(((Number) row.get("available")).longValue()));
+            }
+            if (!rows.isEmpty()) {
+                log.info("Resumed {} flash sales", rows.size());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // Until this succeeds the products stay locked out of both row and in-memory sales
+            log.error("Flash sale reconciliation failed; retrying", e);
+            sales.clear();
+            return false;
+        }
+    }
+
+    // Whether every pending change was applied; unapplied ones stay in the table for the next flush
+    private boolean flush() {
+        try {
+            for (Long productId : jdbcTemplate.queryForList("SELECT DISTINCT product_id FROM pending_stock_changes", Long.class)) {
+                flushProduct(productId);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Flash sale stock flush failed", e);
+            return false;
+        }
+    }
+
+    // One flusher at a time, so pending rows can be read without locking and orders keep inserting.
+    // Not the service monitor: a draining endSale must not hold up the lease renewals in the flush task.
+    private void flushProduct(long productId) {
+        synchronized (flushLock) {
+            flushProductLocked(productId);
+        }
+    }
+
+    private void flushProductLocked(long productId) {
+        int applied = 0;
+        List<long[]> changes;
+        do {
+            changes = transactionTemplate.execute(status -> {
+                List<long[]> rows = jdbcTemplate.query(
+                        "SELECT id, delta FROM pending_stock_changes WHERE product_id = ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, productId, FLUSH_CHUNK);
+                if (rows.isEmpty()) {
+                    return rows;
+                }
+                long total = rows.stream().mapToLong(row -> row[1]).sum();
+                jdbcTemplate.update("UPDATE products SET quantity = quantity + ? WHERE id = ?", total, productId);
+                jdbcTemplate.batchUpdate("DELETE FROM pending_stock_changes WHERE id = ?", rows, rows.size(),
+                        (ps, row) -> ps.setLong(1, row[0]));
+                return rows;
+            });
+            applied += changes.size();
+        } while (changes.size() == FLUSH_CHUNK);
+
+        if (applied > 0) {
+            // One refresh per flush instead of one per order
+            productRepository.findById(productId)
+                    .ifPresent(product -> eventPublisher.publishEvent(ProductChangedEvent.stockChanged(product)));
+        }
+    }
+
+    private void onCompletion(Sale sale, int quantity, boolean giveBack) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                if (committed == giveBack) {
+                    sale.stock.add(quantity);
+                }
+                sale.exit();
+            }
+        });
+    }
+
+    private void requireLease() {
+        if (!holdsLease()) {
+            throw new RuntimeException("Flash sales are run by another instance");
+        }
+    }
+
+    private void requireAdmin(Long userId) {
+        if (userId == null) {
+            throw new RuntimeException("User authentication required");
+        }
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() != UserRole.ADMIN) {
+            throw new RuntimeException("Only admins can run flash sales");
+        }
+    }
+
+    private final class Sale {
+        final StripedCounter stock;
+        // Orders that took or returned units and have not finished their transaction
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile boolean draining;
+
+        Sale(long available) {
+            this.stock = new StripedCounter(available, stripes);
+        }
+
+        boolean enter() {
+            inFlight.incrementAndGet();
+            if (draining) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        void exit() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
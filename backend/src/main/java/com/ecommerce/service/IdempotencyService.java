@@ -0,0 +1,376 @@
+package com.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ecommerce.entity.IdempotencyStatus;
+import com.ecommerce.util.BoundedCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@code Idempotency-Key} handling for endpoints that create orders or order items, so a client
+ * retrying after a timeout gets the first response back instead of a second order.
+ *
+ * A key is claimed by inserting an IN_PROGRESS row into {@code idempotency_keys}, which the unique
+ * (user, key) constraint makes the single point of agreement between instances. The request then
+ * runs in one transaction with the update that stores its response, so an order is never written
+ * without its key being completed. Completed responses are also kept in a bounded in-memory cache,
+ * and retries arriving while the first request still runs on this instance wait for it rather than
+ * queueing on the row; a retry hitting another instance meanwhile gets 409 and can try again.
+ *
+ * A running request extends its claim every third of {@code app.idempotency.claim-timeout-seconds},
+ * so only a claim whose instance stopped is taken over by a retry. A request whose claim was taken
+ * over anyway fails and rolls back when it tries to complete the key.
+ *
+ * Failed requests release their key, so the client can retry them. Keys are forgotten after
+ * {@code app.idempotency.ttl-hours}.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    // Rounds of waiting for another request with the same key before answering 409
+    private static final int MAX_WAITS = 3;
+    private static final int CLEANUP_BATCH = 1000;
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(10);
+
+    private static final String CLAIM_SQL = "INSERT IGNORE INTO idempotency_keys "
+            + "(user_id, idempotency_key, request_hash, status, expires_at, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String FIND_SQL = "SELECT request_hash, status, response_status, response_body, expires_at < ? "
+            + "FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final Duration heartbeatInterval;
+    private final BoundedCache<String, Stored> completed;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              TaskScheduler taskScheduler,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.claim-timeout-seconds:60}") long claimTimeoutSeconds,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.heartbeatInterval = Duration.ofMillis(Math.max(1000, claimTimeout.toMillis() / 3));
+        this.completed = new BoundedCache<>(maxEntries, ttl);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::deleteExpired, Instant.now().plus(CLEANUP_INTERVAL), CLEANUP_INTERVAL);
+    }
+
+    /**
+     * Claims the key for this request, waiting for a request already running with it on this instance.
+     * The caller must close the claim.
+     * @param key the {@code Idempotency-Key} header, or null to run the request unguarded
+     * @param scope the endpoint, so one key cannot be replayed on another
+     * @param request everything that identifies the request; a key reused with a different one is rejected
+     */
+    public Claim claim(Long userId, String key, String scope, Object request) {
+        if (key == null) {
+            return new Claim(null, null, null, null, null);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = userId + ":" + key;
+        String requestHash = requestHash(scope, request);
+        for (int attempt = 0; attempt < MAX_WAITS; attempt++) {
+            Stored stored = completed.get(cacheKey);
+            if (stored != null) {
+                return new Claim(userId, key, cacheKey, requestHash, stored);
+            }
+            CompletableFuture<Void> flight = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(cacheKey, flight);
+            if (running != null) {
+                await(running);
+                continue;
+            }
+            Claim claim = new Claim(userId, key, cacheKey, requestHash, null);
+            claim.flight = flight;
+            try {
+                claim.replay = claimRow(claim);
+            } catch (RuntimeException e) {
+                claim.finish();
+                throw e;
+            }
+            if (claim.replay != null) {
+                completed.put(cacheKey, claim.replay);
+                claim.finish();
+            }
+            return claim;
+        }
+        throw inProgress();
+    }
+
+    // Null once the claim holds the key, or the response of the request that completed it
+    private Stored claimRow(Claim claim) {
+        Long userId = claim.userId;
+        String key = claim.key;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            KeyHolder rowKey = new GeneratedKeyHolder();
+            if (jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(CLAIM_SQL, Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, userId);
+                ps.setString(2, key);
+                ps.setString(3, claim.requestHash);
+                ps.setString(4, IdempotencyStatus.IN_PROGRESS.name());
+                ps.setTimestamp(5, Timestamp.valueOf(now.plus(claimTimeout)));
+                ps.setTimestamp(6, Timestamp.valueOf(now));
+                return ps;
+            }, rowKey) == 1) {
+                claim.rowId = rowKey.getKey().longValue();
+                return null;
+            }
+            List<Object[]> rows = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new Object[] {
+                    rs.getString(1), rs.getString(2), rs.getObject(3), rs.getString(4), rs.getBoolean(5)
+            }, Timestamp.valueOf(now), userId, key);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            Object[] row = rows.get(0);
+            if ((Boolean) row[4]) {
+                // Claim of a stopped instance, which no longer extends it, or forgotten response: start over
+                jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND expires_at < ?",
+                        userId, key, Timestamp.valueOf(now));
+                continue;
+            }
+            if (IdempotencyStatus.COMPLETED.name().equals(row[1])) {
+                return new Stored((String) row[0], ((Number) row[2]).intValue(), (String) row[3]);
+            }
+            throw inProgress();
+        }
+        throw inProgress();
+    }
+
+    private void await(CompletableFuture<Void> running) {
+        try {
+            running.get(claimTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (ExecutionException | TimeoutException e) {
+            throw inProgress();
+        }
+    }
+
+    private void deleteExpired() {
+        int deleted = 0;
+        try {
+            int batch;
+            do {
+                batch = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ? LIMIT " + CLEANUP_BATCH,
+                        Timestamp.valueOf(LocalDateTime.now()));
+                deleted += batch;
+            } while (batch == CLEANUP_BATCH && !Thread.currentThread().isInterrupted());
+            if (deleted > 0) {
+                log.info("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            // Expired rows are ignored by claims anyway; the next run deletes them
+            log.error("Deleting expired idempotency keys failed after {} rows", deleted, e);
+        }
+    }
+
+    private String requestHash(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize request for its idempotency key", e);
+        }
+    }
+
+    private static ResponseStatusException inProgress() {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "A request with this " + HEADER + " is still in progress; retry shortly");
+    }
+
+    private static final class Stored {
+        final String requestHash;
+        final int status;
+        final String body;
+
+        Stored(String requestHash, int status, String body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * One request's hold on its idempotency key: either a response to replay, or the right to run
+     * the request with {@link #complete}. Closing an uncompleted claim releases the key.
+     */
+    public final class Claim implements AutoCloseable {
+        private final Long userId;
+        private final String key;
+        private final String cacheKey;
+        private final String requestHash;
+        // The idempotency_keys row this claim inserted; a takeover replaces it with a new one
+        private Long rowId;
+        private Stored replay;
+        private CompletableFuture<Void> flight;
+        private boolean done;
+
+        private Claim(Long userId, String key, String cacheKey, String requestHash, Stored replay) {
+            this.userId = userId;
+            this.key = key;
+            this.cacheKey = cacheKey;
+            this.requestHash = requestHash;
+            this.replay = replay;
+        }
+
+        public boolean isReplay() {
+            return replay != null;
+        }
+
+        /**
+         * The stored response of the request that first used the key.
+         * @throws ResponseStatusException 422 if the key was first used for a different request
+         */
+        public <T> ResponseEntity<T> replay(Class<T> bodyType) {
+            if (!replay.requestHash.equals(requestHash)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used for a different request");
+            }
+            try {
+                T body = replay.body == null ? null : objectMapper.readValue(replay.body, bodyType);
+                return ResponseEntity.status(replay.status).header(REPLAYED_HEADER, "true").body(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Stored response for idempotency key is unreadable", e);
+            }
+        }
+
+        /**
+         * Runs the request, storing its response under the key in the same transaction. The action's
+         * own transactions join that one, so its events, counters and cache updates must be deferred
+         * with {@link com.ecommerce.util.AfterCommit} to run once the order and its key are committed.
+         */
+        public <T> ResponseEntity<T> complete(Supplier<ResponseEntity<T>> action) {
+            if (key == null) {
+                return action.get();
+            }
+            Stored[] result = new Stored[1];
+            ScheduledFuture<?> heartbeat = taskScheduler.scheduleAtFixedRate(this::extend,
+                    Instant.now().plus(heartbeatInterval), heartbeatInterval);
+            ResponseEntity<T> response;
+            try {
+                response = transactionTemplate.execute(status -> {
+                    ResponseEntity<T> executed = action.get();
+                    result[0] = new Stored(requestHash, executed.getStatusCode().value(), toJson(executed.getBody()));
+                    LocalDateTime now = LocalDateTime.now();
+                    if (jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, response_status = ?, response_body = ?, "
+                                    + "expires_at = ? WHERE id = ? AND status = ?",
+                            IdempotencyStatus.COMPLETED.name(), result[0].status, result[0].body,
+                            Timestamp.valueOf(now.plus(ttl)), rowId, IdempotencyStatus.IN_PROGRESS.name()) == 0) {
+                        // Another request owns the key now; this one must not also write its order
+                        throw new IllegalStateException("Idempotency key claim of user " + userId
+                                + " was taken over while its request ran");
+                    }
+                    return executed;
+                });
+            } finally {
+                heartbeat.cancel(false);
+            }
+            done = true;
+            completed.put(cacheKey, result[0]);
+            return response;
+        }
+
+        @Override
+        public void close() {
+            if (flight == null) {
+                return;
+            }
+            try {
+                if (!done && replay == null) {
+                    jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND status = ?",
+                            rowId, IdempotencyStatus.IN_PROGRESS.name());
+                }
+            } finally {
+                finish();
+            }
+        }
+
+        // Keeps a running request's claim from looking abandoned
+        private void extend() {
+            try {
+                jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = ? WHERE id = ? AND status = ?",
+                        Timestamp.valueOf(LocalDateTime.now().plus(claimTimeout)), rowId,
+                        IdempotencyStatus.IN_PROGRESS.name());
+            } catch (RuntimeException e) {
+                log.warn("Extending the idempotency key claim of user {} failed", userId, e);
+            }
+        }
+
+        private void finish() {
+            inFlight.remove(cacheKey, flight);
+            flight.complete(null);
+            flight = null;
+        }
+
+        private String toJson(Object body) {
+            try {
+                return body == null ? null : objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not store response for idempotency key", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.entity.ReservationStatus;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds stock for pending orders in {@code inventory_reservations}.
+ *
+ * Stock is taken with one conditional {@code UPDATE ... WHERE quantity >= ?} per product, so a
+ * reservation either fits or changes nothing, and concurrent buyers of a hot product only wait for
+ * each other's row lock rather than reading, checking and writing back. A cart's products are always
+ * updated in ascending id order, so two carts sharing products queue instead of deadlocking.
+ *
+ * Products in flash-sale mode are taken from and returned to {@link FlashSaleService}'s in-memory
+ * stock instead of their rows.
+ *
+ * Reservations are committed when their order moves past pending and released when it is cancelled.
+ * An order placed through checkout holds its stock until then. An order still being filled item by
+ * item only holds it for {@code app.inventory.reservation-ttl-minutes} after its last change: a
+ * background sweep then returns the stock and marks the lines EXPIRED, leaving the order itself
+ * alone. Expired lines are taken from stock again when the order gains an item or is confirmed,
+ * which fails if the stock has gone in the meantime.
+ */
+@Service
+@Slf4j
+public class InventoryReservationService {
+    // Orders with expired reservations fetched per sweep query
+    private static final int SWEEP_BATCH = 200;
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    // Flash-sale products are sold from memory, so their rows must not move under the in-memory count
+    private static final String TAKE_STOCK_SQL = "UPDATE products p SET p.quantity = p.quantity - ? "
+            + "WHERE p.id = ? AND p.quantity >= ? "
+            + "AND NOT EXISTS (SELECT 1 FROM flash_sales f WHERE f.product_id = p.id)";
+    private static final String RETURN_STOCK_SQL = "UPDATE products SET quantity = quantity + ? WHERE id = ?";
+    // A released row starts over from the new quantity; an expired one was retaken along with it. A
+    // placed line keeps holding without expiry. MySQL assigns left to right, so the old status is read first.
+    private static final String UPSERT_RESERVATION_SQL = "INSERT INTO inventory_reservations "
+            + "(order_id, product_id, quantity, status, expires_at, created_at, updated_at) VALUES (?, ?, ?, 'ACTIVE', ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE expires_at = IF(status = 'ACTIVE' AND expires_at IS NULL, NULL, VALUES(expires_at)), "
+            + "quantity = IF(status = 'ACTIVE', quantity, 0) + VALUES(quantity), "
+            + "status = 'ACTIVE', updated_at = VALUES(updated_at)";
+    // Lines in one state, optionally only those that expired before a given time
+    private static final String FOR_ORDER_SQL = "SELECT product_id, quantity FROM inventory_reservations "
+            + "WHERE order_id = ? AND status = ? AND (? IS NULL OR expires_at < ?) ORDER BY product_id FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Reads products in a fresh persistence context, which after commit may still hold stale entities
+    private final TransactionTemplate freshReadTemplate;
+    private final ProductRepository productRepository;
+    private final FlashSaleService flashSaleService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskScheduler taskScheduler;
+    private final Duration ttl;
+
+    public InventoryReservationService(JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ProductRepository productRepository,
+                                       FlashSaleService flashSaleService,
+                                       ApplicationEventPublisher eventPublisher,
+                                       TaskScheduler taskScheduler,
+                                       @Value("${app.inventory.reservation-ttl-minutes:30}") long ttlMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.freshReadTemplate = new TransactionTemplate(transactionManager);
+        this.freshReadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.freshReadTemplate.setReadOnly(true);
+        this.productRepository = productRepository;
+        this.flashSaleService = flashSaleService;
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::releaseExpired, Instant.now().plus(SWEEP_INTERVAL), SWEEP_INTERVAL);
+    }
+
+    /**
+     * Takes the given quantity of each product out of stock for a pending order, all or nothing.
+     * Any of the order's lines that expired are taken again in the same pass. Must run inside the
+     * caller's transaction, which holds the order row lock, before order items referencing the
+     * products are inserted: their foreign key checks share-lock the product rows this needs to update.
+     * @param quantities units per product id
+     * @param placed whether the order is complete, as from checkout; otherwise its stock is only held
+     *               for the reservation TTL after this call
+     * @throws RuntimeException if any product is short; the caller's transaction must roll back
+     */
+    public void reserve(long orderId, Map<Long, Integer> quantities, boolean placed) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock can only be reserved inside a transaction");
+        }
+        if (quantities.values().stream().anyMatch(quantity -> quantity == null || quantity < 1)) {
+            throw new IllegalArgumentException("Reserved quantities must be positive");
+        }
+        // Ascending product id is the lock order every cart shares
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        linesWithStatus(orderId, ReservationStatus.EXPIRED).forEach((productId, quantity) ->
+                ordered.merge(productId, quantity, Integer::sum));
+        Set<Long> rowUpdated = takeStock(ordered);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expiresAt = placed ? null : Timestamp.valueOf(now.toLocalDateTime().plus(ttl));
+        List<Map.Entry<Long, Integer>> lines = List.copyOf(ordered.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_RESERVATION_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+            ps.setTimestamp(4, expiresAt);
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        if (!placed) {
+            // The order is still being filled, so none of its held lines should lapse yet
+            jdbcTemplate.update("UPDATE inventory_reservations SET expires_at = ? "
+                    + "WHERE order_id = ? AND status = 'ACTIVE' AND expires_at IS NOT NULL", expiresAt, orderId);
+        }
+        publishAfterCommit(rowUpdated);
+    }
+
+    /**
+     * Returns up to {@code quantity} reserved units of one product to stock, for an item taken off a pending order.
+     */
+    public void releaseItem(long orderId, long productId, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> rows = jdbcTemplate.query("SELECT id, quantity, status FROM inventory_reservations "
+                            + "WHERE order_id = ? AND product_id = ? AND status IN ('ACTIVE', 'EXPIRED') FOR UPDATE",
+                    (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2), ReservationStatus.valueOf(rs.getString(3))},
+                    orderId, productId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            long held = (Long) rows.get(0)[1];
+            ReservationStatus current = (ReservationStatus) rows.get(0)[2];
+            long released = Math.min(quantity, held);
+            long remaining = held - released;
+            // Expired units are already back in stock
+            if (current == ReservationStatus.ACTIVE && returnStock(productId, released)) {
+                publishAfterCommit(Set.of(productId));
+            }
+            jdbcTemplate.update("UPDATE inventory_reservations SET quantity = ?, status = ?, updated_at = ? WHERE id = ?",
+                    remaining, (remaining == 0 ? ReservationStatus.RELEASED : current).name(),
+                    Timestamp.valueOf(LocalDateTime.now()), rows.get(0)[0]);
+        });
+    }
+
+    /**
+     * Returns every unit still reserved for the order to stock, including committed units of a
+     * confirmed order that has not shipped.
+     */
+    public void release(long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            releaseLines(orderId, ReservationStatus.ACTIVE, ReservationStatus.RELEASED, null);
+            releaseLines(orderId, ReservationStatus.COMMITTED, ReservationStatus.RELEASED, null);
+            jdbcTemplate.update("UPDATE inventory_reservations SET status = 'RELEASED', updated_at = ? "
+                    + "WHERE order_id = ? AND status = 'EXPIRED'", Timestamp.valueOf(LocalDateTime.now()), orderId);
+        });
+    }
+
+    /**
+     * Keeps the order's reserved stock for good; it no longer expires. Lines that had expired are
+     * taken from stock again first. Must run inside the caller's transaction.
+     * @throws RuntimeException if an expired line's product is now short
+     */
+    public void commit(long orderId) {
+        publishAfterCommit(takeStock(linesWithStatus(orderId, ReservationStatus.EXPIRED)));
+        jdbcTemplate.update("UPDATE inventory_reservations SET status = 'COMMITTED', updated_at = ? "
+                + "WHERE order_id = ? AND status IN ('ACTIVE', 'EXPIRED')", Timestamp.valueOf(LocalDateTime.now()), orderId);
+    }
+
+    void releaseExpired() {
+        int expired = 0;
+        try {
+            Timestamp sweptAt = Timestamp.valueOf(LocalDateTime.now());
+            List<Long> orderIds;
+            do {
+                orderIds = jdbcTemplate.queryForList("SELECT DISTINCT order_id FROM inventory_reservations "
+                                + "WHERE status = 'ACTIVE' AND expires_at < ? LIMIT ?",
+                        Long.class, sweptAt, SWEEP_BATCH);
+                for (Long orderId : orderIds) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // Waits on the order row if an item or status change is in flight, then sees its outcome
+                        List<String> orderStatus = jdbcTemplate.queryForList(
+                                "SELECT status FROM orders WHERE id = ? FOR UPDATE", String.class, orderId);
+                        if (orderStatus.isEmpty() || !"PENDING".equals(orderStatus.get(0))) {
+                            // Confirmed without its stock being committed; keep it
+                            jdbcTemplate.update("UPDATE inventory_reservations SET status = 'COMMITTED', updated_at = ? "
+                                    + "WHERE order_id = ? AND status = 'ACTIVE'", Timestamp.valueOf(LocalDateTime.now()), orderId);
+                            return;
+                        }
+                        // Lines added to a placed order expire on their own; the placed ones hold no expiry
+                        releaseLines(orderId, ReservationStatus.ACTIVE, ReservationStatus.EXPIRED, sweptAt);
+                    });
+                    expired++;
+                }
+            } while (orderIds.size() == SWEEP_BATCH && !Thread.currentThread().isInterrupted());
+            if (expired > 0) {
+                log.info("Returned the held stock of {} idle pending orders", expired);
+            }
+        } catch (RuntimeException e) {
+            // Expired reservations stay active and are picked up by the next sweep
+            log.error("Releasing expired reservations failed after {} orders", expired, e);
+        }
+    }
+
+    // Units per product of the order's lines in the given state, locked
+    private Map<Long, Integer> linesWithStatus(long orderId, ReservationStatus status) {
+        return linesWithStatus(orderId, status, null);
+    }
+
+    private Map<Long, Integer> linesWithStatus(long orderId, ReservationStatus status, Timestamp expiredBefore) {
+        Map<Long, Integer> lines = new TreeMap<>();
+        jdbcTemplate.query(FOR_ORDER_SQL, rs -> {
+            lines.put(rs.getLong(1), rs.getInt(2));
+        }, orderId, status.name(), expiredBefore, expiredBefore);
+        return lines;
+    }
+
+    // Products whose rows were updated; throws if any is short
+    private Set<Long> takeStock(Map<Long, Integer> ordered) {
+        Set<Long> rowUpdated = new TreeSet<>();
+        for (Map.Entry<Long, Integer> line : ordered.entrySet()) {
+            FlashSaleService.Take take = flashSaleService.take(line.getKey(), line.getValue());
+            if (take == FlashSaleService.Take.NOT_IN_SALE) {
+                if (jdbcTemplate.update(TAKE_STOCK_SQL, line.getValue(), line.getKey(), line.getValue()) == 0) {
+                    if (flashSaleService.isActive(line.getKey())) {
+                        throw new RuntimeException("Product " + line.getKey() + " is in a flash sale this server is not running; try again shortly");
+                    }
+                    throw new RuntimeException("Not enough stock for product " + line.getKey());
+                }
+                rowUpdated.add(line.getKey());
+            } else if (take == FlashSaleService.Take.SOLD_OUT) {
+                throw new RuntimeException("Not enough stock for product " + line.getKey());
+            }
+        }
+        return rowUpdated;
+    }
+
+    // Caller holds a transaction; reservation rows are locked first, then products in id order
+    private void releaseLines(long orderId, ReservationStatus from, ReservationStatus to, Timestamp expiredBefore) {
+        Map<Long, Integer> lines = linesWithStatus(orderId, from, expiredBefore);
+        if (lines.isEmpty()) {
+            return;
+        }
+        Set<Long> rowUpdated = new TreeSet<>();
+        lines.forEach((productId, quantity) -> {
+            if (returnStock(productId, quantity)) {
+                rowUpdated.add(productId);
+            }
+        });
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> productIds = List.copyOf(lines.keySet());
+        jdbcTemplate.batchUpdate("UPDATE inventory_reservations SET status = ?, updated_at = ? "
+                        + "WHERE order_id = ? AND product_id = ? AND status = ?", productIds, productIds.size(), (ps, productId) -> {
+            ps.setString(1, to.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, orderId);
+            ps.setLong(4, productId);
+            ps.setString(5, from.name());
+        });
+        publishAfterCommit(rowUpdated);
+    }
+
+    // Flash-sale units go back to the in-memory count; the flush refreshes those products itself
+    private boolean returnStock(long productId, long quantity) {
+        if (flashSaleService.giveBack(productId, (int) quantity)) {
+            return false;
+        }
+        jdbcTemplate.update(RETURN_STOCK_SQL, quantity, productId);
+        return true;
+    }
+
+    // Caches and indexes must not reload the stock level before the new one is visible
+    private void publishAfterCommit(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                freshReadTemplate.executeWithoutResult(status -> productRepository.findAllById(ids)
+                        .forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.stockChanged(product))));
+            }
+        });
+    }
+}
@@ -2,17 +2,24 @@ package com.ecommerce.service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ecommerce.dto.CheckoutRequest;
 import com.ecommerce.entity.Order;
 import com.ecommerce.entity.OrderItem;
 import com.ecommerce.entity.OrderStatus;
 import com.ecommerce.entity.Product;
+import com.ecommerce.event.UserActivityEvent;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.trending.TrendingTracker;
+import com.ecommerce.util.AfterCommit;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,14 +31,17 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final TrendingTracker trendingTracker;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Order createOrder(Order order) {
-        // Generate unique order number
-        order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        order.setOrderNumber(newOrderNumber());
         order.setStatus(OrderStatus.PENDING);
         
         Order savedOrder = orderRepository.save(order);
         log.info("Order created: {}", savedOrder.getOrderNumber());
+        AfterCommit.run(() -> eventPublisher.publishEvent(UserActivityEvent.ordered(savedOrder.getUser().getId())));
         return savedOrder;
     }
 
@@ -48,16 +58,41 @@ public class OrderService {
         return orderRepository.findByOrderNumber(orderNumber).orElse(null);
     }
 
+    @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
-        Order order = getOrderById(orderId);
+        Order order = lockOrder(orderId);
+        // Its stock may already be back on sale
+        if (order.getStatus() == OrderStatus.CANCELLED && status != OrderStatus.CANCELLED) {
+            throw new RuntimeException("Cancelled orders cannot be reopened");
+        }
+        // Shipped units have left the warehouse and cannot go back on sale
+        if (status == OrderStatus.CANCELLED
+                && (order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.DELIVERED)) {
+            throw new RuntimeException("Shipped orders cannot be cancelled");
+        }
         order.setStatus(status);
+        if (status == OrderStatus.CANCELLED) {
+            inventoryReservationService.release(orderId);
+        } else if (status != OrderStatus.PENDING) {
+            inventoryReservationService.commit(orderId);
+        }
         return orderRepository.save(order);
     }
 
+    @Transactional
     public void addItemToOrder(Long orderId, Long productId, Integer quantity) {
-        Order order = getOrderById(orderId);
+        // A negative quantity would put stock back instead of reserving it
+        if (quantity == null || quantity < 1 || quantity > CheckoutRequest.MAX_QUANTITY) {
+            throw new RuntimeException("Quantity must be from 1 to " + CheckoutRequest.MAX_QUANTITY);
+        }
+        Order order = lockOrder(orderId);
+        if (order.getStatus() != OrderStatus.PENDING) {
+            throw new RuntimeException("Items can only be added to pending orders");
+        }
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        // Before the item insert, whose foreign key check would share-lock the product row
+        inventoryReservationService.reserve(orderId, Map.of(productId, quantity), false);
 
         OrderItem orderItem = new OrderItem(
             null,
@@ -70,9 +105,40 @@ public class OrderService {
 
         orderItemRepository.save(orderItem);
         log.info("Item added to order {}: {}", orderId, productId);
+        Long userId = order.getUser().getId();
+        AfterCommit.run(() -> {
+            trendingTracker.recordPurchase(product.getId(), product.getCategory(), quantity);
+            eventPublisher.publishEvent(UserActivityEvent.ordered(userId));
+        });
     }
 
-    public void removeItemFromOrder(Long orderItemId) {
-        orderItemRepository.deleteById(orderItemId);
+    public OrderItem getOrderItemById(Long orderItemId) {
+        return orderItemRepository.findById(orderItemId)
+                .orElseThrow(() -> new RuntimeException("Order item not found"));
+    }
+
+    @Transactional
+    public void removeItemFromOrder(Long orderId, Long orderItemId) {
+        // Locked before the item is read, so a concurrent removal or status change is seen
+        Order order = lockOrder(orderId);
+        if (order.getStatus() != OrderStatus.PENDING) {
+            throw new RuntimeException("Items can only be removed from pending orders");
+        }
+        orderItemRepository.findById(orderItemId)
+                .filter(item -> item.getOrder().getId().equals(orderId))
+                .ifPresent(item -> {
+                    inventoryReservationService.releaseItem(orderId, item.getProduct().getId(), item.getQuantity());
+                    orderItemRepository.delete(item);
+                });
+    }
+
+    private Order lockOrder(Long orderId) {
+        return orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+
+    // Unique order number shown to customers and used for tracking
+    static String newOrderNumber() {
+        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 }
@@ -0,0 +1,433 @@
+package com.ecommerce.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.dto.ImportJobStatus;
+import com.ecommerce.dto.ImportRowError;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.UserRole;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.util.BoundedCache;
+import com.ecommerce.util.CsvReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk product import for sellers. The caller is authorized once per file, rows are parsed and
+ * validated in parallel, and valid rows are written as PENDING products with plain JDBC batches,
+ * since the IDENTITY ids on {@link Product} stop Hibernate from batching inserts.
+ *
+ * Jobs run in the background; their progress is kept in memory for a day. Each job holds its whole
+ * file until it finishes, so only {@code app.import.workers} run at once and at most
+ * {@code app.import.queue-capacity} more wait; further files are turned away until one finishes.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 500;
+    private static final String INSERT_SQL = "INSERT INTO products (name, description, price, quantity, category, brand, "
+            + "image_url, rating, review_count, seller_id, approval_status, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * @throws IllegalArgumentException if the value names no supported format
+         */
+        public static Format fromParam(String param) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(param)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported import format: " + param);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the extension is not .csv, .ndjson or .jsonl
+         */
+        public static Format fromFilename(String filename) {
+            String lower = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Cannot tell the import format from the file name; pass format=csv or format=ndjson");
+        }
+    }
+
+    private enum State { QUEUED, VALIDATING, INSERTING, COMPLETED, FAILED }
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final BoundedCache<String, ImportJob> jobs = new BoundedCache<>(200, Duration.ofHours(24));
+    private final ThreadPoolExecutor workers;
+
+    public ProductImportService(UserRepository userRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${app.import.workers:2}") int workerCount,
+                                @Value("${app.import.queue-capacity:4}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        int threads = Math.max(1, workerCount);
+        // The default abort policy rejects a job once the queue is full
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread thread = new Thread(r, "product-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Whether a new file would be accepted now; checked before reading an upload into memory.
+     */
+    public boolean hasCapacity() {
+        return workers.getQueue().remainingCapacity() > 0;
+    }
+
+    /**
+     * Queues the file for import.
+     * @return null if the import queue is full; try again later
+     */
+    public ImportJobStatus submit(byte[] content, Format format, Long userId) {
+        // Authorization check: once for the whole file instead of once per product
+        if (userId == null) {
+            throw new RuntimeException("User authentication required");
+        }
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() != UserRole.ADMIN && user.getRole() != UserRole.SELLER) {
+            throw new RuntimeException("You do not have permission to create products");
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId);
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job, content, format));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            log.info("Rejected product import for user {}: the import queue is full", userId);
+            return null;
+        }
+        log.info("Queued product import {} for user {} ({} bytes, {})", job.id, userId, content.length, format);
+        return job.snapshot();
+    }
+
+    /**
+     * Status of a job started by this user (or any job, for admins), or null if there is none.
+     */
+    public ImportJobStatus getStatus(String jobId, Long userId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || userId == null) {
+            return null;
+        }
+        if (!job.ownerId.equals(userId)) {
+            var user = userRepository.findById(userId).orElse(null);
+            if (user == null || user.getRole() != UserRole.ADMIN) {
+                return null;
+            }
+        }
+        return job.snapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(ImportJob job, byte[] content, Format format) {
+        try {
+            job.state = State.VALIDATING;
+            List<RawRow> rawRows = format == Format.CSV ? readCsv(content) : readNdjson(content);
+            job.totalRows = rawRows.size();
+
+            // Rows are independent, so validation fans out across cores; order is preserved
+            List<ValidatedRow> validated = rawRows.parallelStream()
+                    .map(ProductImportService::validate)
+                    .collect(Collectors.toList());
+
+            List<ValidatedRow> valid = new ArrayList<>(validated.size());
+            List<ImportRowError> errors = new ArrayList<>();
+            long failed = 0;
+            for (ValidatedRow row : validated) {
+                if (row.error == null) {
+                    valid.add(row);
+                } else {
+                    failed++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new ImportRowError(row.rowNumber, row.error));
+                    }
+                }
+            }
+            job.validRows = valid.size();
+            job.failedRows = failed;
+            job.errors = errors;
+
+            job.state = State.INSERTING;
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int from = 0; from < valid.size(); from += BATCH_SIZE) {
+                List<ValidatedRow> chunk = valid.subList(from, Math.min(from + BATCH_SIZE, valid.size()));
+                insertBatch(chunk, job.ownerId, now);
+                job.insertedRows.addAndGet(chunk.size());
+            }
+            // Imported products are PENDING, so no customer-facing index or cache needs to hear about them
+            job.state = State.COMPLETED;
+            log.info("Product import {} finished: {} inserted, {} rejected", job.id, job.insertedRows.get(), failed);
+        } catch (Exception e) {
+            log.error("Product import {} failed", job.id, e);
+            job.message = e.getMessage();
+            job.state = State.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void insertBatch(List<ValidatedRow> chunk, Long sellerId, Timestamp now) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, row) -> {
+                    ps.setString(1, row.name);
+                    ps.setString(2, row.description);
+                    ps.setBigDecimal(3, row.price);
+                    ps.setInt(4, row.quantity);
+                    ps.setString(5, row.category);
+                    ps.setString(6, row.brand);
+                    ps.setString(7, row.imageUrl);
+                    ps.setDouble(8, row.rating);
+                    ps.setInt(9, row.reviewCount);
+                    ps.setLong(10, sellerId);
+                    ps.setString(11, Product.ProductApprovalStatus.PENDING.name());
+                    ps.setTimestamp(12, now);
+                    ps.setTimestamp(13, now);
+                }));
+    }
+
+    private static List<RawRow> readCsv(byte[] content) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return List.of();
+        }
+        List<String> keys = header.stream().map(ProductImportService::normalizeKey).collect(Collectors.toList());
+
+        List<RawRow> rows = new ArrayList<>();
+        List<String> record;
+        long rowNumber = 0;
+        while ((record = reader.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < keys.size() && i < record.size(); i++) {
+                fields.put(keys.get(i), record.get(i));
+            }
+            rows.add(new RawRow(rowNumber, fields, null));
+        }
+        return rows;
+    }
+
+    private List<RawRow> readNdjson(byte[] content) {
+        List<String> lines = new String(content, StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.isBlank())
+                .collect(Collectors.toList());
+        return IntStream.range(0, lines.size())
+                .parallel()
+                .mapToObj(i -> parseJsonLine(i + 1, lines.get(i)))
+                .collect(Collectors.toList());
+    }
+
+    private RawRow parseJsonLine(long rowNumber, String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (!node.isObject()) {
+                return new RawRow(rowNumber, null, "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                if (!field.getValue().isNull()) {
+                    fields.put(normalizeKey(field.getKey()), field.getValue().asText());
+                }
+            }
+            return new RawRow(rowNumber, fields, null);
+        } catch (IOException e) {
+            return new RawRow(rowNumber, null, "Malformed JSON");
+        }
+    }
+
+    // "imageUrl", "image_url" and "Image URL" all name the same column
+    private static String normalizeKey(String key) {
+        return key.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT);
+    }
+
+    // Mirrors the rules createProduct and the products table enforce
+    private static ValidatedRow validate(RawRow raw) {
+        if (raw.parseError != null) {
+            return ValidatedRow.rejected(raw.rowNumber, raw.parseError);
+        }
+        Map<String, String> f = raw.fields;
+        try {
+            ValidatedRow row = new ValidatedRow(raw.rowNumber);
+            row.name = required(f, "name", 255);
+            row.category = required(f, "category", 100);
+            row.brand = required(f, "brand", 100);
+            row.description = optional(f, "description");
+            row.imageUrl = optional(f, "imageurl");
+
+            row.price = new BigDecimal(required(f, "price", 32)).setScale(2, RoundingMode.HALF_UP);
+            if (row.price.signum() <= 0 || row.price.precision() > 10) {
+                throw new IllegalArgumentException("price must be positive and below 100000000");
+            }
+            row.quantity = Integer.parseInt(required(f, "quantity", 11));
+            if (row.quantity < 0) {
+                throw new IllegalArgumentException("quantity must not be negative");
+            }
+            String rating = optional(f, "rating");
+            row.rating = rating == null ? 0.0 : Double.parseDouble(rating);
+            if (!(row.rating >= 0.0 && row.rating <= 5.0)) {
+                throw new IllegalArgumentException("rating must be between 0 and 5");
+            }
+            String reviewCount = optional(f, "reviewcount");
+            row.reviewCount = reviewCount == null ? 0 : Integer.parseInt(reviewCount);
+            if (row.reviewCount < 0) {
+                throw new IllegalArgumentException("reviewCount must not be negative");
+            }
+            return row;
+        } catch (NumberFormatException e) {
+            return ValidatedRow.rejected(raw.rowNumber, "Invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ValidatedRow.rejected(raw.rowNumber, e.getMessage());
+        }
+    }
+
+    private static String required(Map<String, String> fields, String key, int maxLength) {
+        String value = optional(fields, key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + " is required");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(key + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String key) {
+        String value = fields.get(key);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static final class RawRow {
+        final long rowNumber;
+        final Map<String, String> fields;
+        final String parseError;
+
+        RawRow(long rowNumber, Map<String, String> fields, String parseError) {
+            this.rowNumber = rowNumber;
+            this.fields = fields;
+            this.parseError = parseError;
+        }
+    }
+
+    private static final class ValidatedRow {
+        final long rowNumber;
+        String error;
+        String name;
+        String description;
+        BigDecimal price;
+        int quantity;
+        String category;
+        String brand;
+        String imageUrl;
+        double rating;
+        int reviewCount;
+
+        ValidatedRow(long rowNumber) {
+            this.rowNumber = rowNumber;
+        }
+
+        static ValidatedRow rejected(long rowNumber, String error) {
+            ValidatedRow row = new ValidatedRow(rowNumber);
+            row.error = error;
+            return row;
+        }
+    }
+
+    private static final class ImportJob {
+        final String id;
+        final Long ownerId;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicLong insertedRows = new AtomicLong();
+        volatile State state = State.QUEUED;
+        volatile long totalRows;
+        volatile long validRows;
+        volatile long failedRows;
+        volatile List<ImportRowError> errors = List.of();
+        volatile String message;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, Long ownerId) {
+            this.id = id;
+            this.ownerId = ownerId;
+        }
+
+        ImportJobStatus snapshot() {
+            return ImportJobStatus.builder()
+                    .jobId(id)
+                    .state(state.name())
+                    .totalRows(totalRows)
+                    .validRows(validRows)
+                    .insertedRows(insertedRows.get())
+                    .failedRows(failedRows)
+                    .errors(errors)
+                    .message(message)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,15 +1,48 @@
 package com.ecommerce.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.ecommerce.cache.ProductCache;
+import com.ecommerce.dto.BrowseResponse;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductBatchResponse;
+import com.ecommerce.dto.ProductCursor;
 import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.dto.ProductPageRequest;
+import com.ecommerce.dto.ProductSentimentSummary;
+import com.ecommerce.dto.RecommendationCacheStats;
+import com.ecommerce.dto.SearchCursor;
 import com.ecommerce.entity.Product;
 import com.ecommerce.entity.UserRole;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.repository.ProductPageQuery;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductRow;
+import com.ecommerce.repository.ProductSentimentRepository;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.search.BrowseHits;
+import com.ecommerce.search.BrowseQuery;
+import com.ecommerce.search.FacetIndex;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.RankFusion;
+import com.ecommerce.search.SearchHits;
+import com.ecommerce.search.SearchMode;
+import com.ecommerce.search.SemanticSearchIndex;
+import com.ecommerce.search.SimilarProductIndex;
+import com.ecommerce.search.SuggestionIndex;
+import com.ecommerce.search.TopRatedIndex;
+import com.ecommerce.trending.TrendingTracker;
+import com.ecommerce.trending.TrendingWindow;
+import com.ecommerce.util.CacheStats;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,66 +54,205 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final RecommendationService recommendationService;
     private final UserRepository userRepository;
-
-    public List<ProductDTO> getAllProducts() {
+    private final ProductSearchIndex productSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final TopRatedIndex topRatedIndex;
+    private final SimilarProductIndex similarProductIndex;
+    private final SemanticSearchIndex semanticSearchIndex;
+    private final TrendingTracker trendingTracker;
+    private final FlashSaleService flashSaleService;
+    private final ProductSentimentRepository productSentimentRepository;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CursorPage<ProductDTO> getAllProducts(ProductPageRequest page) {
         // Only show approved products to customers
-        return productRepository.findAll()
-                .stream()
-                .filter(p -> p.getApprovalStatus() == null || 
-                           p.getApprovalStatus() == Product.ProductApprovalStatus.APPROVED)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return productCache.getListing(null, page,
+                () -> fetchPage(ProductPageQuery.builder().approvedOnly(true), page));
     }
 
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        return convertToDTO(product);
+        return productCache.getProduct(id, () -> productRepository.findRowById(id)
+                .map(ProductRow::getProduct)
+                .orElseThrow(() -> new RuntimeException("Product not found")));
     }
 
-    public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category)
-                .stream()
-                .map(this::convertToDTO)
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        List<Long> requested = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
                 .collect(Collectors.toList());
+        // Cache hits are served directly; every miss is loaded with one IN query
+        Map<Long, ProductDTO> found = productCache.getProducts(requested, misses ->
+                productRepository.findRowsByIdIn(misses).stream()
+                        .map(ProductRow::getProduct)
+                        .collect(Collectors.toList()));
+
+        List<ProductDTO> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            ProductDTO product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponse(items, missingIds);
+    }
+
+    public CursorPage<ProductDTO> getProductsByCategory(String category, ProductPageRequest page) {
+        return productCache.getListing(category, page,
+                () -> fetchPage(ProductPageQuery.builder().approvedOnly(true).category(category), page));
+    }
+
+    /**
+     * Changes whenever any product is written; used as the validator for cached product reads.
+     */
+    public long getCatalogVersion() {
+        return productCache.getCatalogVersion();
+    }
+
+    public Map<String, CacheStats> getCacheStats(Long userId) {
+        requireAdmin(userId, "Only admins can view cache statistics");
+        return productCache.stats();
+    }
+
+    public RecommendationCacheStats getRecommendationCacheStats(Long userId) {
+        requireAdmin(userId, "Only admins can view cache statistics");
+        return recommendationService.getCacheStats();
     }
 
-    public List<ProductDTO> searchProducts(String keyword) {
+    public CursorPage<ProductDTO> searchProducts(String keyword, SearchMode mode, int offset, int size) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getAllProducts();
+            return getAllProducts(ProductPageRequest.firstPage(size));
         }
-        // Use enhanced search that searches by name, brand, description, and category
-        return productRepository.searchProducts(keyword.trim())
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        int limit = Math.max(1, Math.min(size, ProductPageRequest.MAX_SIZE));
+        String query = keyword.trim();
+        long[] productIds;
+        int totalHits;
+        switch (mode) {
+            case SEMANTIC -> {
+                // Nearest neighbours of the query embedding in the in-memory vector index, or keyword
+                // results when the query cannot be embedded in time
+                SearchHits hits = semanticSearchIndex.search(query, offset, limit);
+                if (hits == null) {
+                    hits = productSearchIndex.search(query, offset, limit);
+                }
+                productIds = hits.getProductIds();
+                totalHits = hits.getTotalHits();
+            }
+            case HYBRID -> {
+                // Both rankings to the depth of this page, merged by reciprocal rank
+                int depth = Math.min(offset, SearchCursor.MAX_OFFSET) + limit;
+                SearchHits keywordHits = productSearchIndex.search(query, 0, depth);
+                SearchHits semanticHits = semanticSearchIndex.search(query, 0, depth);
+                if (semanticHits == null) {
+                    semanticHits = SearchHits.EMPTY;
+                }
+                long[] fused = RankFusion.fuse(depth, keywordHits.getProductIds(), semanticHits.getProductIds());
+                productIds = offset < fused.length
+                        ? Arrays.copyOfRange(fused, offset, fused.length)
+                        : new long[0];
+                totalHits = Math.max(fused.length, Math.max(keywordHits.getTotalHits(), semanticHits.getTotalHits()));
+            }
+            default -> {
+                // Ranked by the in-memory index over name, brand, description and category
+                SearchHits hits = productSearchIndex.search(query, offset, limit);
+                productIds = hits.getProductIds();
+                totalHits = hits.getTotalHits();
+            }
+        }
+        List<ProductDTO> items = loadInOrder(productIds);
+
+        int nextOffset = offset + productIds.length;
+        String nextCursor = SearchCursor.next(nextOffset, totalHits);
+        return new CursorPage<>(items, nextCursor);
     }
     
+    public BrowseResponse browseProducts(BrowseQuery query) {
+        // Filtering and facet counting run on the in-memory bitmaps; only the page itself is loaded
+        BrowseHits hits = facetIndex.browse(query);
+        List<ProductDTO> items = loadInOrder(hits.getProductIds());
+
+        int nextOffset = query.getOffset() + hits.getProductIds().length;
+        String nextCursor = SearchCursor.next(nextOffset, hits.getTotalHits());
+        return BrowseResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .totalHits(hits.getTotalHits())
+                .facets(hits.getFacets())
+                .build();
+    }
+
     public List<ProductDTO> getSearchSuggestions(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return List.of();
         }
-        // Get limited suggestions for autocomplete (max 10)
-        return productRepository.findSuggestions(keyword.trim())
-                .stream()
-                .limit(10)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // Get limited suggestions for autocomplete (max 10) from the prefix index
+        return suggestionIndex.suggest(keyword.trim(), SuggestionIndex.MAX_SUGGESTIONS);
     }
 
-    public List<ProductDTO> getTopRatedProducts() {
-        return productRepository.findTopRatedProducts()
-                .stream()
-                .limit(10)
-                .map(this::convertToDTO)
+    public List<ProductDTO> getTopRatedProducts(String category, int limit) {
+        // Served from the in-memory leaderboard, kept current by product change events
+        return topRatedIndex.top(category, Math.max(1, Math.min(limit, TopRatedIndex.MAX_LIMIT)));
+    }
+
+    /**
+     * Products with the most views and orders in the window, hottest first, leaving out products
+     * that are hidden or sold out.
+     * @param category restrict to one category (case-insensitive), or null for all products
+     */
+    public List<ProductDTO> getTrendingProducts(TrendingWindow window, String category, int limit) {
+        int capped = Math.max(1, Math.min(limit, TrendingTracker.MAX_LIMIT));
+        // Over-fetch, since some of the hottest products may have been hidden or sold out since
+        long[] trendingIds = trendingTracker.top(window, category, capped * 2);
+        if (trendingIds.length == 0) {
+            return List.of();
+        }
+        return getProductsByIds(Arrays.stream(trendingIds).boxed().collect(Collectors.toList())).getItems().stream()
+                .filter(product -> isApproved(product) && product.getQuantity() != null && product.getQuantity() > 0)
+                .filter(product -> category == null || category.trim().equalsIgnoreCase(product.getCategory()))
+                .limit(capped)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Counts a customer viewing the product towards the trending feeds.
+     */
+    public void recordProductView(Long id) {
+        ProductDTO product = getProductById(id);
+        if (isApproved(product)) {
+            trendingTracker.recordView(id, product.getCategory());
+        }
+    }
+
+    /**
+     * Visible products most similar to the given one by name, brand, category and description,
+     * most similar first.
+     */
+    public List<ProductDTO> getSimilarProducts(Long id, int limit) {
+        ProductDTO product = getProductById(id);
+        long[] similarIds = similarProductIndex.similarTo(id, product.getName(), product.getBrand(),
+                product.getCategory(), product.getDescription(),
+                Math.max(1, Math.min(limit, SimilarProductIndex.MAX_LIMIT)));
+        if (similarIds.length == 0) {
+            return List.of();
+        }
+        return getProductsByIds(Arrays.stream(similarIds).boxed().collect(Collectors.toList())).getItems();
+    }
+
+    public ProductSentimentSummary getProductSentiment(Long id) {
+        return productSentimentRepository.findById(id)
+                .map(counts -> new ProductSentimentSummary(id, counts.getPositiveCount(),
+                        counts.getNeutralCount(), counts.getNegativeCount()))
+                .orElseGet(() -> new ProductSentimentSummary(id, 0, 0, 0));
+    }
+
     public List<ProductDTO> getRecommendedProducts(Long userId) {
-        return recommendationService.getRecommendedProducts(userId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recommendationService.getRecommendedProducts(userId);
     }
 
     public ProductDTO createProduct(ProductDTO productDTO, Long userId) {
@@ -128,32 +300,20 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
-        return convertToDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
+        return ProductDTO.of(savedProduct);
     }
 
     public ProductDTO updateProduct(Long id, ProductDTO productDTO, Long userId) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Authorization check: require userId for all operations
-        if (userId == null) {
-            throw new RuntimeException("User authentication required");
-        }
+        requireOwnerOrAdmin(product, userId, "update");
 
-        var user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Sellers can only update their own products, admins can update any product
-        if (user.getRole() == UserRole.SELLER) {
-            // Check if product belongs to this seller
-            if (product.getSellerId() == null || !product.getSellerId().equals(userId)) {
-                throw new RuntimeException("You can only update your own products");
-            }
-        } else if (user.getRole() != UserRole.ADMIN) {
-            // Only ADMIN and SELLER roles can update products
-            throw new RuntimeException("You do not have permission to update products");
+        // A flash sale's stock lives in memory and is written back behind this entity's copy
+        if (flashSaleService.isActive(id)) {
+            throw new RuntimeException("Product is in a flash sale; end the sale before editing it");
         }
-        // ADMIN can update any product, no additional check needed
 
         product.setName(productDTO.getName());
         product.setDescription(productDTO.getDescription());
@@ -164,37 +324,21 @@ public class ProductService {
         product.setImageUrl(productDTO.getImageUrl());
 
         Product updatedProduct = productRepository.save(product);
-        return convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
+        return ProductDTO.of(updatedProduct);
     }
 
     public void deleteProduct(Long id, Long userId) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Authorization check: require userId for all operations
-        if (userId == null) {
-            throw new RuntimeException("User authentication required");
-        }
-
-        var user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Sellers can only delete their own products, admins can delete any product
-        if (user.getRole() == UserRole.SELLER) {
-            // Check if product belongs to this seller
-            if (product.getSellerId() == null || !product.getSellerId().equals(userId)) {
-                throw new RuntimeException("You can only delete your own products");
-            }
-        } else if (user.getRole() != UserRole.ADMIN) {
-            // Only ADMIN and SELLER roles can delete products
-            throw new RuntimeException("You do not have permission to delete products");
-        }
-        // ADMIN can delete any product, no additional check needed
+        requireOwnerOrAdmin(product, userId, "delete");
 
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
-    public List<ProductDTO> getPendingProducts(Long userId) {
+    public CursorPage<ProductDTO> getPendingProducts(Long userId, ProductPageRequest page) {
         // Only ADMIN can see pending products
         if (userId != null) {
             var user = userRepository.findById(userId)
@@ -203,19 +347,11 @@ public class ProductService {
                 throw new RuntimeException("Only admins can view pending products");
             }
         }
-        return productRepository.findByApprovalStatus(Product.ProductApprovalStatus.PENDING)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return fetchPage(ProductPageQuery.builder().approvalStatus(Product.ProductApprovalStatus.PENDING), page);
     }
 
     public ProductDTO approveProduct(Long productId, Long adminId) {
-        // Verify admin
-        var admin = userRepository.findById(adminId)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
-        if (admin.getRole() != UserRole.ADMIN) {
-            throw new RuntimeException("Only admins can approve products");
-        }
+        requireAdmin(adminId, "Only admins can approve products");
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
@@ -224,17 +360,12 @@ public class ProductService {
         product.setApprovedAt(java.time.LocalDateTime.now());
         
         Product saved = productRepository.save(product);
-        return convertToDTO(saved);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return ProductDTO.of(saved);
     }
 
     public ProductDTO rejectProduct(Long productId, Long adminId) {
-        // Verify admin
-        var admin = userRepository.findById(adminId)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
-        if (admin.getRole() != UserRole.ADMIN) {
-            throw new RuntimeException("Only admins can reject products");
-        }
-        
+        requireAdmin(adminId, "Only admins can reject products");
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
@@ -243,10 +374,11 @@ public class ProductService {
         product.setApprovedAt(java.time.LocalDateTime.now());
         
         Product saved = productRepository.save(product);
-        return convertToDTO(saved);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return ProductDTO.of(saved);
     }
 
-    public List<ProductDTO> getSellerProducts(Long sellerId, Long userId) {
+    public CursorPage<ProductDTO> getSellerProducts(Long sellerId, Long userId, ProductPageRequest page) {
         // Authorization check: sellers can only view their own products, admins can view any seller's products
         if (userId != null) {
             var user = userRepository.findById(userId)
@@ -258,30 +390,83 @@ public class ProductService {
             // ADMIN can view any seller's products, no additional check needed
         }
         
-        return productRepository.findBySellerId(sellerId)
-                .stream()
-                .map(this::convertToDTO)
+        return fetchPage(ProductPageQuery.builder().sellerId(sellerId), page);
+    }
+
+    // Sellers can only change their own products, admins can change any product
+    private void requireOwnerOrAdmin(Product product, Long userId, String action) {
+        if (userId == null) {
+            throw new RuntimeException("User authentication required");
+        }
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() == UserRole.SELLER) {
+            if (product.getSellerId() == null || !product.getSellerId().equals(userId)) {
+                throw new RuntimeException("You can only " + action + " your own products");
+            }
+        } else if (user.getRole() != UserRole.ADMIN) {
+            throw new RuntimeException("You do not have permission to " + action + " products");
+        }
+    }
+
+    private void requireAdmin(Long userId, String deniedMessage) {
+        if (userId == null) {
+            throw new RuntimeException("User authentication required");
+        }
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() != UserRole.ADMIN) {
+            throw new RuntimeException(deniedMessage);
+        }
+    }
+
+    private CursorPage<ProductDTO> fetchPage(ProductPageQuery.ProductPageQueryBuilder query, ProductPageRequest page) {
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<ProductRow> rows = productRepository.findKeysetRows(query
+                .sortKey(page.getSortKey())
+                .descending(page.isDescending())
+                .after(page.getCursor())
+                .limit(page.getSize() + 1)
+                .build());
+
+        boolean hasMore = rows.size() > page.getSize();
+        List<ProductRow> pageRows = hasMore ? rows.subList(0, page.getSize()) : rows;
+        String nextCursor = hasMore
+                ? ProductCursor.after(pageRows.get(pageRows.size() - 1), page.getSortKey(), page.isDescending()).encode()
+                : null;
+
+        List<ProductDTO> items = pageRows.stream()
+                .map(ProductRow::getProduct)
                 .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor);
     }
 
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO(
-            product.getId(),
-            product.getName(),
-            product.getDescription(),
-            product.getPrice(),
-            product.getQuantity(),
-            product.getCategory(),
-            product.getBrand(),
-            product.getImageUrl(),
-            product.getRating(),
-            product.getReviewCount(),
-            product.getAiRecommendationScore()
-        );
-        dto.setSellerId(product.getSellerId());
-        if (product.getApprovalStatus() != null) {
-            dto.setApprovalStatus(product.getApprovalStatus().name());
+    // Hydrate index hits with one primary-key IN projection, keeping the ranked order
+    private List<ProductDTO> loadInOrder(long[] productIds) {
+        if (productIds.length == 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(productIds.length);
+        for (long id : productIds) {
+            ids.add(id);
         }
-        return dto;
+        Map<Long, ProductDTO> byId = new HashMap<>();
+        for (ProductRow row : productRepository.findRowsByIdIn(ids)) {
+            byId.put(row.getProduct().getId(), row.getProduct());
+        }
+        List<ProductDTO> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductDTO product = byId.get(id);
+            if (product != null) {
+                items.add(product);
+            }
+        }
+        return items;
+    }
+
+    // Products added before approval existed have no status and count as approved
+    private static boolean isApproved(ProductDTO product) {
+        return product.getApprovalStatus() == null
+                || Product.ProductApprovalStatus.APPROVED.name().equals(product.getApprovalStatus());
     }
 }
@@ -0,0 +1,107 @@
+package com.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.ecommerce.config.JdbcConfig;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.UserRole;
+import com.ecommerce.recommendation.EvaluationDataset;
+import com.ecommerce.recommendation.EvaluationReport;
+import com.ecommerce.recommendation.OfflineEvaluator;
+import com.ecommerce.recommendation.RecommendationStrategies;
+import com.ecommerce.recommendation.SyntheticPurchases;
+import com.ecommerce.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline evaluation of the recommendation strategies for admins, on the real order history or on
+ * seeded synthetic data, with the model settings this instance serves with.
+ */
+@Service
+@Slf4j
+public class RecommendationEvaluationService {
+    public static final int MAX_K = 100;
+    private static final double TRAIN_FRACTION = 0.8;
+    private static final int WARMUP_CALLS = 1000;
+    private static final int SYNTHETIC_USERS = 20_000;
+    private static final int SYNTHETIC_PRODUCTS = 5_000;
+
+    private static final String PURCHASES_SQL = "SELECT o.user_id, i.product_id, o.created_at FROM order_items i "
+            + "JOIN orders o ON o.id = i.order_id WHERE o.status <> 'CANCELLED'";
+    private static final String PRODUCTS_SQL = "SELECT id, rating, review_count, quantity, category, approval_status "
+            + "FROM products";
+
+    public enum Source {
+        ORDERS, SYNTHETIC;
+
+        /**
+         * @throws IllegalArgumentException if the value names no supported source
+         */
+        public static Source fromParam(String param) {
+            for (Source source : values()) {
+                if (source.name().equalsIgnoreCase(param)) {
+                    return source;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported evaluation source: " + param);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate streamingJdbc;
+    private final int maxNeighbors;
+    private final int maxBasket;
+
+    public RecommendationEvaluationService(UserRepository userRepository,
+                                           @Qualifier(JdbcConfig.STREAMING) JdbcTemplate streamingJdbc,
+                                           @Value("${app.recommendations.max-neighbors:50}") int maxNeighbors,
+                                           @Value("${app.recommendations.max-basket:500}") int maxBasket) {
+        this.userRepository = userRepository;
+        this.streamingJdbc = streamingJdbc;
+        this.maxNeighbors = maxNeighbors;
+        this.maxBasket = maxBasket;
+    }
+
+    // One evaluation at a time: each holds the whole history in memory and saturates a core
+    public synchronized EvaluationReport evaluate(Source source, int k, long seed, Long userId) {
+        if (userId == null) {
+            throw new RuntimeException("User authentication required");
+        }
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() != UserRole.ADMIN) {
+            throw new RuntimeException("Only admins can evaluate recommendations");
+        }
+        if (k <= 0 || k > MAX_K) {
+            throw new RuntimeException("k must be between 1 and " + MAX_K);
+        }
+
+        long started = System.currentTimeMillis();
+        EvaluationDataset data = source == Source.ORDERS
+                ? loadOrderHistory()
+                : SyntheticPurchases.generate(seed, SYNTHETIC_USERS, SYNTHETIC_PRODUCTS);
+        String label = source == Source.ORDERS ? "order history" : "synthetic seed " + seed;
+        EvaluationReport report = new OfflineEvaluator(k, TRAIN_FRACTION, WARMUP_CALLS)
+                .evaluate(label, data, RecommendationStrategies.standard(maxNeighbors, maxBasket, seed));
+        log.info("Recommendation evaluation on {} took {} ms:\n{}", label,
+                System.currentTimeMillis() - started, report.toTable());
+        return report;
+    }
+
+    private EvaluationDataset loadOrderHistory() {
+        EvaluationDataset.Builder builder = new EvaluationDataset.Builder();
+        streamingJdbc.query(PURCHASES_SQL, rs -> {
+            builder.addPurchase(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).getTime());
+        });
+        streamingJdbc.query(PRODUCTS_SQL, rs -> {
+            String status = rs.getString(6);
+            builder.addProduct(rs.getLong(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4), rs.getString(5),
+                    status == null || Product.ProductApprovalStatus.APPROVED.name().equals(status));
+        });
+        return builder.build();
+    }
+}
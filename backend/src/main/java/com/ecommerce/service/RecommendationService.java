@@ -1,14 +1,28 @@
 package com.ecommerce.service;
 
+import com.ecommerce.cache.ProductCache;
+import com.ecommerce.cache.RecommendationCache;
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.dto.RecommendationCacheStats;
 import com.ecommerce.entity.Product;
-import com.ecommerce.entity.User;
+import com.ecommerce.recommendation.ItemSimilarityEngine;
+import com.ecommerce.recommendation.ProductScoringJob;
+import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductRow;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.search.TopRatedIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,96 +32,118 @@ public class RecommendationService {
 
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final TopRatedIndex topRatedIndex;
+    private final OrderItemRepository orderItemRepository;
+    private final ItemSimilarityEngine itemSimilarityEngine;
+    private final ProductScoringJob productScoringJob;
+    private final ProductCache productCache;
+    private final RecommendationCache recommendationCache;
+
+    public static final int RECOMMENDATION_COUNT = 10;
+    private static final int MAX_POPULAR = 100;
 
     /**
-     * AI-Powered Product Recommendation Algorithm
-     * This uses collaborative filtering and content-based filtering
-     * For production, integrate with OpenAI API or TensorFlow model
+     * Item-item collaborative filtering: the products most similar, by who bought them together,
+     * to what this user has already bought. New customers and thin histories are topped up with
+     * the best globally scored products.
+     *
+     * The chosen ids are cached per user until the TTL, the user's next order or review, or one of
+     * the products leaving the catalog; products are always read fresh through the product cache.
      */
-    public List<Product> getRecommendedProducts(Long userId) {
+    public List<ProductDTO> getRecommendedProducts(Long userId) {
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<Product> allProducts = productRepository.findAll();
-
-            // Calculate recommendation scores for each product
-            List<Product> recommendedProducts = allProducts.stream()
-                    .peek(product -> {
-                        double score = calculateRecommendationScore(product, userId);
-                        product.setAiRecommendationScore(score);
-                    })
-                    .filter(product -> product.getAiRecommendationScore() > 0.5)
-                    .sorted((p1, p2) -> p2.getAiRecommendationScore()
-                            .compareTo(p1.getAiRecommendationScore()))
-                    .limit(10)
+            List<Long> ids = recommendationCache.get(userId, () -> computeRecommendations(userId));
+            Map<Long, ProductDTO> products = loadProducts(ids);
+            return ids.stream()
+                    .map(products::get)
+                    .filter(product -> product != null && isRecommendable(product))
                     .collect(Collectors.toList());
 
-            log.info("Generated {} recommendations for user {}", recommendedProducts.size(), userId);
-            return recommendedProducts;
-
         } catch (Exception e) {
             log.error("Error generating recommendations", e);
-            // Fallback: return top-rated products
-            return productRepository.findTopRatedProducts().stream().limit(5).collect(Collectors.toList());
+            // Fallback: non-personalized recommendations
+            return getPopularProducts(5);
         }
     }
 
-    /**
-     * Calculate recommendation score based on:
-     * 1. Product rating
-     * 2. Review count
-     * 3. Popularity
-     * 4. User preferences (can be enhanced with ML)
-     */
-    private double calculateRecommendationScore(Product product, Long userId) {
-        double score = 0.0;
-
-        // Factor 1: Rating (0-5) -> 0-0.4
-        score += (product.getRating() / 5.0) * 0.4;
+    public RecommendationCacheStats getCacheStats() {
+        return recommendationCache.stats();
+    }
 
-        // Factor 2: Review count (normalized) -> 0-0.3
-        score += Math.min(product.getReviewCount() / 100.0, 1.0) * 0.3;
+    private List<Long> computeRecommendations(Long userId) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        List<Long> purchased = orderItemRepository.findPurchasedProductIds(userId);
+
+        // Over-fetch so candidates that are out of stock or no longer approved can be skipped
+        long[] candidates = itemSimilarityEngine.recommend(purchased, RECOMMENDATION_COUNT * 3, null);
+
+        List<Long> recommended = new ArrayList<>(RECOMMENDATION_COUNT);
+        if (candidates.length > 0) {
+            List<Long> candidateIds = Arrays.stream(candidates).boxed().collect(Collectors.toList());
+            Map<Long, ProductDTO> byId = loadProducts(candidateIds);
+            for (Long id : candidateIds) {
+                ProductDTO product = byId.get(id);
+                if (product != null && isRecommendable(product)) {
+                    recommended.add(id);
+                    if (recommended.size() == RECOMMENDATION_COUNT) {
+                        break;
+                    }
+                }
+            }
+        }
 
-        // Factor 3: Stock availability -> 0-0.2
-        if (product.getQuantity() > 0) {
-            score += 0.2;
+        if (recommended.size() < RECOMMENDATION_COUNT) {
+            Set<Long> seen = new HashSet<>(purchased);
+            seen.addAll(recommended);
+            int padding = Math.min(RECOMMENDATION_COUNT + seen.size(), MAX_POPULAR);
+            for (ProductDTO product : getPopularProducts(padding)) {
+                if (recommended.size() == RECOMMENDATION_COUNT) {
+                    break;
+                }
+                if (seen.add(product.getId())) {
+                    recommended.add(product.getId());
+                }
+            }
         }
 
-        // Factor 4: Random bonus for diversity -> 0-0.1
-        score += new Random().nextDouble() * 0.1;
+        log.info("Generated {} recommendations for user {} from {} purchased products",
+                recommended.size(), userId, purchased.size());
+        return recommended;
+    }
 
-        return score;
+    private Map<Long, ProductDTO> loadProducts(Collection<Long> ids) {
+        return productCache.getProducts(ids, misses ->
+                productRepository.findRowsByIdIn(misses).stream()
+                        .map(ProductRow::getProduct)
+                        .collect(Collectors.toList()));
     }
 
-    /**
-     * Get AI-generated product description using mock AI
-     * Replace this with actual OpenAI API call for production
-     */
-    public String generateProductDescription(String productName, String category) {
-        // Mock implementation - replace with actual OpenAI call
-        return String.format("High-quality %s product in %s category. " +
-                        "Designed for optimal performance and durability. " +
-                        "Perfect for customers looking for premium quality at competitive prices.",
-                productName, category);
+    private static boolean isRecommendable(ProductDTO product) {
+        boolean approved = product.getApprovalStatus() == null
+                || Product.ProductApprovalStatus.APPROVED.name().equals(product.getApprovalStatus());
+        return approved && product.getQuantity() != null && product.getQuantity() > 0;
     }
 
     /**
-     * Analyze customer sentiment from reviews
-     * Replace with actual NLP model for production
+     * Non-personalized recommendations: the best global scores from the scoring job's in-memory
+     * snapshot, the persisted scores before this instance's first run, or the top-rated
+     * leaderboard when nothing has been scored yet.
      */
-    public String analyzeSentiment(String reviewText) {
-        // Mock implementation
-        int positiveWords = (int) reviewText.toLowerCase()
-                .split("\\s+")
-                .length;
-
-        if (positiveWords > 10) {
-            return "POSITIVE";
-        } else if (positiveWords > 5) {
-            return "NEUTRAL";
-        } else {
-            return "NEGATIVE";
+    public List<ProductDTO> getPopularProducts(int limit) {
+        long[] topIds = productScoringJob.topProductIds(null, limit);
+        if (topIds.length > 0) {
+            List<Long> ids = Arrays.stream(topIds).boxed().collect(Collectors.toList());
+            Map<Long, ProductDTO> products = loadProducts(ids);
+            return ids.stream()
+                    .map(products::get)
+                    .filter(product -> product != null && isRecommendable(product))
+                    .collect(Collectors.toList());
         }
+        List<ProductDTO> popular = productRepository.findTopScoredRows(PageRequest.of(0, limit)).stream()
+                .map(ProductRow::getProduct)
+                .collect(Collectors.toList());
+        return popular.isEmpty() ? topRatedIndex.top(null, limit) : popular;
     }
 }
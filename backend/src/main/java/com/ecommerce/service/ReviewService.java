@@ -2,11 +2,17 @@ package com.ecommerce.service;
 
 import com.ecommerce.entity.Review;
 import com.ecommerce.entity.Product;
+import com.ecommerce.event.ProductChangedEvent;
+import com.ecommerce.event.UserActivityEvent;
 import com.ecommerce.repository.ReviewRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.sentiment.ReviewSentimentJob;
+import com.ecommerce.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
@@ -15,6 +21,8 @@ import java.util.List;
 public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReviewSentimentJob reviewSentimentJob;
 
     public Review addReview(Review review) {
         Review savedReview = reviewRepository.save(review);
@@ -22,6 +30,7 @@ public class ReviewService {
         // Update product rating
         updateProductRating(review.getProduct().getId());
         log.info("Review added for product: {}", review.getProduct().getId());
+        eventPublisher.publishEvent(UserActivityEvent.reviewed(review.getUser().getId()));
         return savedReview;
     }
 
@@ -33,11 +42,15 @@ public class ReviewService {
         return reviewRepository.findByUserId(userId);
     }
 
+    // One transaction, so the sentiment job cannot label the review between its label's removal and its deletion
+    @Transactional
     public void deleteReview(Long reviewId) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
+        reviewSentimentJob.removeReview(reviewId);
         reviewRepository.deleteById(reviewId);
         updateProductRating(review.getProduct().getId());
+        AfterCommit.run(() -> eventPublisher.publishEvent(UserActivityEvent.reviewed(review.getUser().getId())));
     }
 
     private void updateProductRating(Long productId) {
@@ -59,6 +72,8 @@ public class ReviewService {
             product.setReviewCount(reviews.size());
         }
         
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        // Inside deleteReview, caches and indexes must not pick up a rating that could still roll back
+        AfterCommit.run(() -> eventPublisher.publishEvent(ProductChangedEvent.saved(saved)));
     }
 }
@@ -0,0 +1,123 @@
+package com.ecommerce.trending;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of exponentially decayed event weights, updated without locks.
+ *
+ * Decay is anchored at a landmark time L: an event of weight w at time t is stored as
+ * w * e^((t - L) / tau), so stored values never change as time passes and a value is only scaled by
+ * e^(-(now - L) / tau) when it is read. Because every cell shares the same landmark, raw values compare
+ * correctly with each other at any moment. Stored values grow with t - L, so the owner swaps in a
+ * {@link #rebased} copy before they get large.
+ *
+ * Updates are conservative: each row is raised only as far as the new minimum estimate, which keeps
+ * the overestimate from hash collisions well below that of a plain count-min sketch.
+ */
+final class DecayedCountMinSketch {
+    private static final long[] ROW_SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL};
+
+    private final int depth;
+    private final int mask;
+    private final double tauMillis;
+    private final long landmarkMillis;
+    // Double bits, row-major; doubles have no atomic add, so cells are raised by compare-and-set
+    private final AtomicLongArray cells;
+
+    /**
+     * @param depth rows, each with its own hash; at most 8
+     * @param width cells per row, rounded up to a power of two
+     * @param tauMillis decay time constant: an event's weight falls to 1/e after this long
+     */
+    DecayedCountMinSketch(int depth, int width, double tauMillis, long landmarkMillis) {
+        if (depth < 1 || depth > ROW_SEEDS.length) {
+            throw new IllegalArgumentException("Sketch depth must be between 1 and " + ROW_SEEDS.length);
+        }
+        int cellsPerRow = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = cellsPerRow - 1;
+        this.tauMillis = tauMillis;
+        this.landmarkMillis = landmarkMillis;
+        this.cells = new AtomicLongArray(depth * cellsPerRow);
+    }
+
+    /**
+     * Adds an event and returns the key's new raw estimate.
+     */
+    double add(long key, double weight, long atMillis) {
+        double increment = weight * Math.exp((atMillis - landmarkMillis) / tauMillis);
+        int[] slots = slots(key);
+        double target = minimum(slots) + increment;
+        for (int slot : slots) {
+            long current = cells.get(slot);
+            while (Double.longBitsToDouble(current) < target
+                    && !cells.compareAndSet(slot, current, Double.doubleToRawLongBits(target))) {
+                current = cells.get(slot);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * The key's estimate in landmark units; only comparable with other raw values from this sketch.
+     */
+    double raw(long key) {
+        return minimum(slots(key));
+    }
+
+    /**
+     * Converts a raw value to the decayed weight it represents at the given time.
+     */
+    double decayed(double raw, long nowMillis) {
+        return raw * Math.exp(-(nowMillis - landmarkMillis) / tauMillis);
+    }
+
+    /**
+     * Time constants elapsed since the landmark; stored values have grown by e to this power.
+     */
+    double age(long nowMillis) {
+        return (nowMillis - landmarkMillis) / tauMillis;
+    }
+
+    /**
+     * A copy anchored at a later landmark, holding the same decayed weights in smaller numbers.
+     * Adds that land on this sketch while the copy is being made may be missed by it.
+     */
+    DecayedCountMinSketch rebased(long newLandmarkMillis) {
+        DecayedCountMinSketch copy = new DecayedCountMinSketch(depth, mask + 1, tauMillis, newLandmarkMillis);
+        double scale = Math.exp(-(newLandmarkMillis - landmarkMillis) / tauMillis);
+        for (int i = 0; i < cells.length(); i++) {
+            double value = Double.longBitsToDouble(cells.get(i));
+            if (value != 0) {
+                copy.cells.set(i, Double.doubleToRawLongBits(value * scale));
+            }
+        }
+        return copy;
+    }
+
+    private double minimum(int[] slots) {
+        double min = Double.MAX_VALUE;
+        for (int slot : slots) {
+            min = Math.min(min, Double.longBitsToDouble(cells.get(slot)));
+        }
+        return min;
+    }
+
+    private int[] slots(long key) {
+        int[] slots = new int[depth];
+        int rowSize = mask + 1;
+        for (int row = 0; row < depth; row++) {
+            slots[row] = row * rowSize + (int) (mix(key ^ ROW_SEEDS[row]) & mask);
+        }
+        return slots;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.trending;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The keys most likely to be among the heaviest in a {@link DecayedCountMinSketch}, kept to a
+ * bounded candidate set so reading the top of the sketch never scans the key space.
+ *
+ * Counts live in the sketch; this only tracks membership. A key is admitted when the set has room
+ * or its estimate beats the weakest key kept by the last prune. Once the set doubles its capacity,
+ * whichever thread sees it first prunes back to the strongest keys while the others carry on, so
+ * offering never blocks.
+ */
+final class HeavyHitters {
+    private final int capacity;
+    private final Set<Long> members = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+    // Weakest raw estimate that survived the last prune, only meaningful against the sketch it came from
+    private volatile Floor floor = new Floor(null, 0);
+
+    HeavyHitters(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Considers a key whose estimate in the given sketch was just raised.
+     */
+    void offer(long key, double rawEstimate, DecayedCountMinSketch sketch) {
+        if (members.contains(key)) {
+            return;
+        }
+        Floor current = floor;
+        if (current.sketch == sketch && rawEstimate <= current.raw && members.size() >= capacity) {
+            return;
+        }
+        members.add(key);
+        if (members.size() > 2 * capacity) {
+            prune(sketch);
+        }
+    }
+
+    void remove(long key) {
+        members.remove(key);
+    }
+
+    /**
+     * Up to {@code limit} candidate keys by estimate in the given sketch, heaviest first.
+     * @param rawOut if not null, receives each returned key's raw estimate
+     */
+    long[] top(DecayedCountMinSketch sketch, int limit, double[] rawOut) {
+        Entry[] ranked = ranked(sketch);
+        int size = Math.min(limit, ranked.length);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ranked[i].key;
+            if (rawOut != null) {
+                rawOut[i] = ranked[i].raw;
+            }
+        }
+        return keys;
+    }
+
+    private void prune(DecayedCountMinSketch sketch) {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Entry[] ranked = ranked(sketch);
+            if (ranked.length <= capacity) {
+                return;
+            }
+            // Keys admitted while ranking are not in the snapshot and stay until the next prune
+            for (int i = capacity; i < ranked.length; i++) {
+                members.remove(ranked[i].key);
+            }
+            floor = new Floor(sketch, ranked[capacity - 1].raw);
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    private Entry[] ranked(DecayedCountMinSketch sketch) {
+        Entry[] entries = members.stream()
+                .map(key -> new Entry(key, sketch.raw(key)))
+                .toArray(Entry[]::new);
+        // Ties go to the smaller key so results are deterministic
+        Arrays.sort(entries, (a, b) -> a.raw != b.raw ? Double.compare(b.raw, a.raw) : Long.compare(a.key, b.key));
+        return entries;
+    }
+
+    private static final class Floor {
+        final DecayedCountMinSketch sketch;
+        final double raw;
+
+        Floor(DecayedCountMinSketch sketch, double raw) {
+            this.sketch = sketch;
+            this.raw = raw;
+        }
+    }
+
+    private static final class Entry {
+        final long key;
+        final double raw;
+
+        Entry(long key, double raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+    }
+}
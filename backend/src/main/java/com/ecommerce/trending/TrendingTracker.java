@@ -0,0 +1,184 @@
+package com.ecommerce.trending;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.config.JdbcConfig;
+import com.ecommerce.event.ProductChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trending products over the last hour, day and week, globally and per category, from product views
+ * and ordered items.
+ *
+ * Each {@link TrendingWindow} has one {@link DecayedCountMinSketch} holding every product's decayed
+ * activity and {@link HeavyHitters} candidate sets for the global feed and each category, so memory
+ * is fixed by configuration however large the catalog grows. Request threads record events with
+ * compare-and-set updates and concurrent sets, never a shared lock; a background task only moves
+ * each sketch's decay landmark forward now and then.
+ *
+ * Views live in memory only. On startup the windows are warmed from the last week of orders.
+ */
+@Component
+@Slf4j
+public class TrendingTracker {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final double VIEW_WEIGHT = 1.0;
+    // Stored values have grown by e^32 by then, far from overflow but worth shrinking back
+    private static final double REBASE_AGE = 32;
+    private static final Duration REBASE_INTERVAL = Duration.ofMinutes(1);
+    // Categories past this share only the global feed, so free-text categories cannot grow memory
+    private static final int MAX_CATEGORIES = 1000;
+
+    private static final String RECENT_ORDER_ITEMS_SQL = "SELECT oi.product_id, p.category, oi.quantity, o.created_at "
+            + "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id "
+            + "WHERE o.created_at >= ?";
+
+    private final JdbcTemplate streamingJdbc;
+    private final TaskScheduler taskScheduler;
+    private final double orderWeight;
+    private final int candidates;
+    private final Map<TrendingWindow, Window> windows = new EnumMap<>(TrendingWindow.class);
+
+    public TrendingTracker(@Qualifier(JdbcConfig.STREAMING) JdbcTemplate streamingJdbc,
+                           TaskScheduler taskScheduler,
+                           @Value("${app.trending.sketch-width:4096}") int sketchWidth,
+                           @Value("${app.trending.candidates:200}") int candidates,
+                           @Value("${app.trending.order-weight:10}") double orderWeight) {
+        this.streamingJdbc = streamingJdbc;
+        this.taskScheduler = taskScheduler;
+        this.orderWeight = orderWeight;
+        this.candidates = candidates;
+        long now = System.currentTimeMillis();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new Window(new DecayedCountMinSketch(
+                    SKETCH_DEPTH, sketchWidth, window.getLength().toMillis(), now)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.schedule(this::warmUp, Instant.now());
+        taskScheduler.scheduleWithFixedDelay(this::rebase, Instant.now().plus(REBASE_INTERVAL), REBASE_INTERVAL);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // Hidden products drop out of the feeds; their decayed counts stay and they re-enter on new activity
+        if (!event.isVisible()) {
+            long productId = event.getProductId();
+            windows.values().forEach(window -> window.remove(productId));
+        }
+    }
+
+    public void recordView(long productId, String category) {
+        record(productId, category, VIEW_WEIGHT, System.currentTimeMillis());
+    }
+
+    public void recordPurchase(long productId, String category, int quantity) {
+        record(productId, category, purchaseWeight(quantity), System.currentTimeMillis());
+    }
+
+    /**
+     * Ids of up to {@code limit} products with the most recent activity in the window, hottest first.
+     * @param category restrict to one category (case-insensitive), or null for all products
+     */
+    public long[] top(TrendingWindow trendingWindow, String category, int limit) {
+        Window window = windows.get(trendingWindow);
+        DecayedCountMinSketch sketch = window.sketch;
+        HeavyHitters feed = category == null ? window.global : window.byCategory.get(categoryKey(category));
+        return feed == null ? new long[0] : feed.top(sketch, limit, null);
+    }
+
+    private void record(long productId, String category, double weight, long atMillis) {
+        String key = category == null || category.isBlank() ? null : categoryKey(category);
+        for (Window window : windows.values()) {
+            window.record(productId, key, weight, atMillis);
+        }
+    }
+
+    // Sublinear in quantity, so one bulk order cannot outweigh many separate buyers
+    private double purchaseWeight(int quantity) {
+        return orderWeight * (1 + Math.log(Math.max(1, quantity)));
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        long[] rows = new long[1];
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(TrendingWindow.WEEK.getLength()));
+        try {
+            streamingJdbc.query(RECENT_ORDER_ITEMS_SQL, rs -> {
+                Timestamp orderedAt = rs.getTimestamp(4);
+                record(rs.getLong(1), rs.getString(2), purchaseWeight(rs.getInt(3)),
+                        orderedAt != null ? orderedAt.getTime() : start);
+                rows[0]++;
+            }, since);
+            log.info("Trending feeds warmed from {} recent order items in {} ms", rows[0], System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Live events keep flowing in; the feeds just start from less history
+            log.error("Warming trending feeds failed after {} order items", rows[0], e);
+        }
+    }
+
+    private void rebase() {
+        long now = System.currentTimeMillis();
+        for (Window window : windows.values()) {
+            if (window.sketch.age(now) > REBASE_AGE) {
+                window.sketch = window.sketch.rebased(now);
+            }
+        }
+    }
+
+    private static String categoryKey(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Window {
+        // Replaced only by the maintenance thread; request threads read it once per event
+        volatile DecayedCountMinSketch sketch;
+        final HeavyHitters global = new HeavyHitters(candidates);
+        final Map<String, HeavyHitters> byCategory = new ConcurrentHashMap<>();
+
+        Window(DecayedCountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        void record(long productId, String categoryKey, double weight, long atMillis) {
+            DecayedCountMinSketch current = sketch;
+            double estimate = current.add(productId, weight, atMillis);
+            global.offer(productId, estimate, current);
+            if (categoryKey != null) {
+                HeavyHitters feed = byCategory.get(categoryKey);
+                if (feed == null && byCategory.size() < MAX_CATEGORIES) {
+                    feed = byCategory.computeIfAbsent(categoryKey, k -> new HeavyHitters(candidates));
+                }
+                if (feed != null) {
+                    feed.offer(productId, estimate, current);
+                }
+            }
+        }
+
+        void remove(long productId) {
+            global.remove(productId);
+            byCategory.values().forEach(feed -> feed.remove(productId));
+        }
+    }
+}
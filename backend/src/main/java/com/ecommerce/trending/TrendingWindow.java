@@ -0,0 +1,41 @@
+package com.ecommerce.trending;
+
+import java.time.Duration;
+
+/**
+ * Time scale of a trending feed. Events are not dropped at the window edge; their weight decays
+ * exponentially with the window length as time constant, so an event counts 1/e as much one window
+ * later and the ranking moves smoothly instead of jumping when old events fall off.
+ */
+public enum TrendingWindow {
+    HOUR("1h", Duration.ofHours(1)),
+    DAY("24h", Duration.ofHours(24)),
+    WEEK("7d", Duration.ofDays(7));
+
+    private final String param;
+    private final Duration length;
+
+    TrendingWindow(String param, Duration length) {
+        this.param = param;
+        this.length = length;
+    }
+
+    public String getParam() { return param; }
+
+    public Duration getLength() { return length; }
+
+    /**
+     * @throws IllegalArgumentException if the value does not name a window
+     */
+    public static TrendingWindow fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return DAY;
+        }
+        for (TrendingWindow window : values()) {
+            if (window.param.equalsIgnoreCase(param.trim()) || window.name().equalsIgnoreCase(param.trim())) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trending window: " + param + " (use 1h, 24h or 7d)");
+    }
+}
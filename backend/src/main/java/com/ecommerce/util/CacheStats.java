@@ -0,0 +1,32 @@
+package com.ecommerce.util;
+
+/**
+ * Point-in-time counters for a {@link BoundedCache}. Evictions are entries dropped for space;
+ * expirations are entries dropped because they outlived their TTL.
+ */
+public class CacheStats {
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+
+    public CacheStats(int size, long hits, long misses, long evictions, long expirations) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public int getSize() { return size; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getExpirations() { return expirations; }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
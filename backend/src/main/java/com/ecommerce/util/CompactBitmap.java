@@ -0,0 +1,186 @@
+package com.ecommerce.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Mutable set of non-negative ints that picks the cheaper of two encodings as it changes:
+ * a sorted int array while sparse (32 bits per member), or a plain bitset once members
+ * outnumber 1/32 of the id range (1 bit per possible id).
+ *
+ * Query-time combination is done against caller-owned {@code long[]} word arrays sized to the
+ * whole id range, so filters can be ANDed and counted with word-level popcounts.
+ */
+public final class CompactBitmap {
+    private static final int MIN_DENSE_CARDINALITY = 64;
+
+    private int[] members = new int[4];
+    private long[] words;
+    private int cardinality;
+    private int maxId = -1;
+
+    public void add(int id) {
+        maxId = Math.max(maxId, id);
+        if (words != null) {
+            ensureWords(id);
+            long bit = 1L << id;
+            if ((words[id >>> 6] & bit) == 0) {
+                words[id >>> 6] |= bit;
+                cardinality++;
+            }
+            return;
+        }
+        int pos = Arrays.binarySearch(members, 0, cardinality, id);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        if (cardinality == members.length) {
+            members = Arrays.copyOf(members, members.length * 2);
+        }
+        System.arraycopy(members, pos, members, pos + 1, cardinality - pos);
+        members[pos] = id;
+        cardinality++;
+        if (cardinality > MIN_DENSE_CARDINALITY && cardinality * 32L > maxId + 1L) {
+            toDense();
+        }
+    }
+
+    public void remove(int id) {
+        if (words != null) {
+            if ((id >>> 6) < words.length && (words[id >>> 6] & (1L << id)) != 0) {
+                words[id >>> 6] &= ~(1L << id);
+                cardinality--;
+                // Hysteresis so a set hovering at the threshold does not flip encodings on every change
+                if (cardinality * 64L < maxId + 1L) {
+                    toSparse();
+                }
+            }
+            return;
+        }
+        int pos = Arrays.binarySearch(members, 0, cardinality, id);
+        if (pos >= 0) {
+            System.arraycopy(members, pos + 1, members, pos, cardinality - pos - 1);
+            cardinality--;
+        }
+    }
+
+    public boolean contains(int id) {
+        if (words != null) {
+            return (id >>> 6) < words.length && (words[id >>> 6] & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(members, 0, cardinality, id) >= 0;
+    }
+
+    public int cardinality() { return cardinality; }
+
+    /**
+     * {@code target |= this}. The target must be long enough to hold every member.
+     */
+    public void orInto(long[] target) {
+        if (words != null) {
+            int common = Math.min(words.length, target.length);
+            for (int i = 0; i < common; i++) {
+                target[i] |= words[i];
+            }
+        } else {
+            for (int i = 0; i < cardinality; i++) {
+                target[members[i] >>> 6] |= 1L << members[i];
+            }
+        }
+    }
+
+    /**
+     * {@code target &= this}.
+     */
+    public void andInto(long[] target) {
+        if (words != null) {
+            int common = Math.min(words.length, target.length);
+            for (int i = 0; i < common; i++) {
+                target[i] &= words[i];
+            }
+            Arrays.fill(target, common, target.length, 0L);
+        } else {
+            long[] kept = new long[target.length];
+            for (int i = 0; i < cardinality; i++) {
+                int word = members[i] >>> 6;
+                if (word < target.length) {
+                    kept[word] |= target[word] & (1L << members[i]);
+                }
+            }
+            System.arraycopy(kept, 0, target, 0, target.length);
+        }
+    }
+
+    /**
+     * Number of members also set in {@code other}, without materializing the intersection.
+     */
+    public int andCardinality(long[] other) {
+        int count = 0;
+        if (words != null) {
+            int common = Math.min(words.length, other.length);
+            for (int i = 0; i < common; i++) {
+                count += Long.bitCount(words[i] & other[i]);
+            }
+        } else {
+            for (int i = 0; i < cardinality; i++) {
+                int word = members[i] >>> 6;
+                if (word < other.length && (other[word] & (1L << members[i])) != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public void forEach(IntConsumer action) {
+        if (words != null) {
+            forEachSetBit(words, action);
+        } else {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(members[i]);
+            }
+        }
+    }
+
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static void forEachSetBit(long[] words, IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    private void ensureWords(int id) {
+        int needed = (id >>> 6) + 1;
+        if (needed > words.length) {
+            words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+        }
+    }
+
+    private void toDense() {
+        words = new long[(maxId >>> 6) + 1];
+        for (int i = 0; i < cardinality; i++) {
+            words[members[i] >>> 6] |= 1L << members[i];
+        }
+        members = null;
+    }
+
+    private void toSparse() {
+        int[] sparse = new int[Math.max(4, cardinality)];
+        int[] next = {0};
+        forEachSetBit(words, id -> sparse[next[0]++] = id);
+        members = sparse;
+        words = null;
+    }
+}
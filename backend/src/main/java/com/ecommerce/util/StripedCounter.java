@@ -0,0 +1,104 @@
+package com.ecommerce.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A non-negative count spread over several independently updated stripes, so threads taking from
+ * it mostly touch different cache lines instead of all retrying compare-and-set on one.
+ *
+ * A take is served from the calling thread's home stripe when it can be; otherwise the units are
+ * gathered from the other stripes and handed back if the total falls short. Gathering can briefly
+ * see too little while other takes hold partial amounts, so a shortfall is retried a few times
+ * before it is reported. The count never goes below zero.
+ */
+public final class StripedCounter {
+    // Longs per stripe slot: 64 bytes apart, one cache line each
+    private static final int PADDING = 8;
+    private static final int SHORTFALL_RETRIES = 4;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedCounter(long initial, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        long share = Math.max(0, initial) / this.stripes;
+        long remainder = Math.max(0, initial) % this.stripes;
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes {@code amount} units if that many are available.
+     * @return whether the units were taken; nothing is taken otherwise
+     */
+    public boolean tryTake(long amount) {
+        if (amount <= 0) {
+            return true;
+        }
+        int home = home();
+        for (int attempt = 0; attempt <= SHORTFALL_RETRIES; attempt++) {
+            if (gather(home, amount)) {
+                return true;
+            }
+            if (sum() < amount) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        return false;
+    }
+
+    public void add(long amount) {
+        if (amount > 0) {
+            cells.getAndAdd(home() * PADDING, amount);
+        }
+    }
+
+    /**
+     * Units currently available; exact when no take is in flight.
+     */
+    public long sum() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    // Starts at the home stripe, which usually covers the whole amount on its own
+    private boolean gather(int home, long amount) {
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < amount; i++) {
+            taken += takeUpTo((home + i) % stripes, amount - taken);
+        }
+        if (taken == amount) {
+            return true;
+        }
+        if (taken > 0) {
+            cells.getAndAdd(home * PADDING, taken);
+        }
+        return false;
+    }
+
+    // Takes as much of the wanted amount as the stripe holds, returning how much was taken
+    private long takeUpTo(int stripe, long wanted) {
+        int slot = stripe * PADDING;
+        while (true) {
+            long current = cells.get(slot);
+            long take = Math.min(current, wanted);
+            if (take <= 0) {
+                return 0;
+            }
+            if (cells.compareAndSet(slot, current, current - take)) {
+                return take;
+            }
+        }
+    }
+
+    private int home() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33) % stripes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.recommendation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The evaluation harness on small seeded data: results must be reproducible, the served strategy
+ * must beat the random baseline, and the time split must keep each order on one side.
+ */
+class OfflineEvaluatorTest {
+    private static final long SEED = 7;
+    private static final int USERS = 2000;
+    private static final int PRODUCTS = 500;
+    private static final int K = 10;
+
+    @Test
+    void sameSeedGivesTheSameQualityNumbers() {
+        EvaluationReport first = evaluate();
+        EvaluationReport second = evaluate();
+
+        assertThat(second.getTrainingPurchases()).isEqualTo(first.getTrainingPurchases());
+        assertThat(second.getEvaluatedUsers()).isEqualTo(first.getEvaluatedUsers());
+        for (EvaluationReport.StrategyResult result : first.getStrategies()) {
+            EvaluationReport.StrategyResult again = second.strategy(result.getName());
+            assertThat(again.getPrecisionAtK()).isEqualTo(result.getPrecisionAtK());
+            assertThat(again.getRecallAtK()).isEqualTo(result.getRecallAtK());
+            assertThat(again.getCoverage()).isEqualTo(result.getCoverage());
+        }
+    }
+
+    @Test
+    void servedRecommendationsBeatRandomOnes() {
+        EvaluationReport report = evaluate();
+
+        double served = report.strategy("served").getPrecisionAtK();
+        assertThat(served).isGreaterThan(5 * report.strategy("random").getPrecisionAtK());
+        assertThat(served).isGreaterThan(report.strategy("popularity").getPrecisionAtK());
+    }
+
+    @Test
+    void strategiesNeverRecommendWhatTheCustomerBought() {
+        EvaluationDataset data = SyntheticPurchases.generate(SEED, USERS, PRODUCTS);
+        long[] history = {1, 2, 3, 21, 41};
+
+        for (RecommendationStrategy strategy : RecommendationStrategies.standard(50, 500, SEED)) {
+            strategy.train(data, data.purchaseCount() * 8 / 10);
+            long[] recommended = strategy.recommend(history, K);
+
+            assertThat(recommended).as(strategy.name()).hasSizeLessThanOrEqualTo(K).doesNotHaveDuplicates();
+            assertThat(Arrays.stream(recommended).boxed()).as(strategy.name())
+                    .doesNotContainAnyElementsOf(Arrays.stream(history).boxed().toList());
+        }
+    }
+
+    @Test
+    void splitKeepsAnOrdersItemsTogether() {
+        EvaluationDataset.Builder builder = new EvaluationDataset.Builder();
+        for (int i = 0; i < 10; i++) {
+            // Purchases 4 to 6 are one order, straddling the halfway point
+            builder.addPurchase(1 + i % 3, 100 + i, i >= 4 && i <= 6 ? 4 : i);
+        }
+        builder.addProduct(100, 4.0, 1, 1, "category-0", true);
+
+        EvaluationReport report = new OfflineEvaluator(K, 0.5, 0).evaluate("orders", builder.build(), List.of());
+
+        assertThat(report.getTrainingPurchases()).isEqualTo(7);
+    }
+
+    private static EvaluationReport evaluate() {
+        return new OfflineEvaluator(K, 0.8, 100).evaluate("synthetic seed " + SEED,
+                SyntheticPurchases.generate(SEED, USERS, PRODUCTS), RecommendationStrategies.standard(50, 500, SEED));
+    }
+}
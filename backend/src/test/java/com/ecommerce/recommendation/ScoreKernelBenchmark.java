@@ -0,0 +1,76 @@
+package com.ecommerce.recommendation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH comparison of the scoring kernels over a synthetic catalog. Not a unit test; run it with
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath -Dmdep.includeScope=test
+ * java -cp "target/test-classes:target/classes:$(cat target/test.classpath)" \
+ *     com.ecommerce.recommendation.ScoreKernelBenchmark
+ * </pre>
+ *
+ * The forked JVMs get {@code --add-modules jdk.incubator.vector}, so both kernels are measured on
+ * the same JVM build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ScoreKernelBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int products;
+
+    private FeatureSnapshot features;
+    private double[] scores;
+    private final ScoreKernel scalar = new ScalarScoreKernel();
+    private final ScoreKernel vector = new VectorScoreKernel();
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        FeatureSnapshot.Builder builder = new FeatureSnapshot.Builder();
+        for (int i = 0; i < products; i++) {
+            builder.add(i + 1, random.nextInt(51) / 10.0, random.nextInt(300), random.nextInt(-5, 50),
+                    "category-" + random.nextInt(20), random.nextDouble(), random.nextInt(10) > 0);
+        }
+        features = builder.build();
+        scores = new double[products];
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        scalar.score(features, 0, products, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public double[] vector() {
+        vector.score(features, 0, products, scores);
+        return scores;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ScoreKernelBenchmark.class.getSimpleName()).build()).run();
+    }
+}
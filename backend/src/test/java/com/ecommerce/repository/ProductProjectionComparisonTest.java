@@ -0,0 +1,196 @@
+package com.ecommerce.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductDTO;
+import com.ecommerce.entity.Product;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Before/after measurement of catalog reads on a large catalog against MySQL: walking every listing
+ * page as managed entities copied into DTOs, as the read paths used to, and as read-only
+ * {@link ProductRow} projections, as they do now. Each page runs in its own transaction, like a
+ * request. Allocation is counted on the calling thread, where Hibernate and the driver do all the
+ * work. Allocation and latency of both are printed as a before/after table with the change between
+ * them; the projection must allocate less and must not be slower.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+// Pages run in their own transactions, as separate requests would
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class ProductProjectionComparisonTest {
+    private static final int PRODUCTS = 20_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP_WALKS = 3;
+    private static final int MEASURED_WALKS = 5;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seedCatalog() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        if (count != null && count >= PRODUCTS) {
+            return;
+        }
+        // Listing rows carry realistic TEXT columns; they dominate what each row costs to read
+        String description = "A product description of the length sellers usually write. ".repeat(25);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(new Object[] {"Product " + i, description, new BigDecimal("19.99"), 10, "Category " + (i % 20),
+                    "Brand " + (i % 50), "https://images.example.com/products/" + i + ".jpg", 4.0, 12, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, quantity, category, brand, "
+                + "image_url, rating, review_count, approval_status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'APPROVED', ?, ?)", rows);
+    }
+
+    @Test
+    void projectionsAreCheaperThanEntityHydration() {
+        Measurement entities = measure(this::walkAsEntities);
+        Measurement projections = measure(this::walkAsProjections);
+
+        log.info(String.format("%nCatalog walk of %d products in pages of %d (median of %d walks)%n"
+                        + "%-28s %14s %12s%n"
+                        + "%-28s %14s %12d%n"
+                        + "%-28s %14s %12d%n"
+                        + "%-28s %13.0f%% %11.0f%%",
+                PRODUCTS, PAGE_SIZE, MEASURED_WALKS,
+                "", "MB allocated", "ms",
+                "before: entities + DTOs", entities.megabytes(), entities.millis(),
+                "after: ProductRow rows", projections.megabytes(), projections.millis(),
+                "change", change(entities.allocatedBytes, projections.allocatedBytes),
+                change(entities.elapsedNanos, projections.elapsedNanos)));
+
+        assertThat(projections.allocatedBytes).isLessThan(entities.allocatedBytes);
+        // Medians of several walks; the margin only absorbs timer and GC noise
+        assertThat(projections.elapsedNanos).isLessThan(entities.elapsedNanos + entities.elapsedNanos / 10);
+    }
+
+    // Before: each page hydrated as managed entities in a read-write transaction, then copied into DTOs
+    private long walkAsEntities() {
+        long read = 0;
+        ProductCursor after = null;
+        List<Product> page;
+        do {
+            ProductCursor cursor = after;
+            page = transactionTemplate.execute(status -> {
+                List<Product> products = productRepository.findKeysetPage(query(cursor));
+                products.forEach(ProductDTO::of);
+                return products;
+            });
+            read += page.size();
+            if (!page.isEmpty()) {
+                after = ProductCursor.after(page.get(page.size() - 1), ProductSortKey.ID, false);
+            }
+        } while (page.size() == PAGE_SIZE);
+        return read;
+    }
+
+    // After: each page read as ProductRow projections in the repository's read-only transaction
+    private long walkAsProjections() {
+        long read = 0;
+        ProductCursor after = null;
+        List<ProductRow> page;
+        do {
+            page = productRepository.findKeysetRows(query(after));
+            read += page.size();
+            if (!page.isEmpty()) {
+                after = ProductCursor.after(page.get(page.size() - 1), ProductSortKey.ID, false);
+            }
+        } while (page.size() == PAGE_SIZE);
+        return read;
+    }
+
+    private static ProductPageQuery query(ProductCursor after) {
+        return ProductPageQuery.builder()
+                .approvedOnly(true)
+                .sortKey(ProductSortKey.ID)
+                .after(after)
+                .limit(PAGE_SIZE)
+                .build();
+    }
+
+    private static Measurement measure(LongSupplier walk) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_WALKS; i++) {
+            assertThat(walk.getAsLong()).isGreaterThanOrEqualTo(PRODUCTS);
+        }
+        long[] bytes = new long[MEASURED_WALKS];
+        long[] nanos = new long[MEASURED_WALKS];
+        for (int i = 0; i < MEASURED_WALKS; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long started = System.nanoTime();
+            walk.getAsLong();
+            nanos[i] = System.nanoTime() - started;
+            bytes[i] = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        return new Measurement(median(bytes), median(nanos));
+    }
+
+    private static double change(long before, long after) {
+        return 100.0 * (after - before) / before;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static final class Measurement {
+        final long allocatedBytes;
+        final long elapsedNanos;
+
+        Measurement(long allocatedBytes, long elapsedNanos) {
+            this.allocatedBytes = allocatedBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        String megabytes() {
+            return String.format("%.1f", allocatedBytes / (1024.0 * 1024.0));
+        }
+
+        long millis() {
+            return elapsedNanos / 1_000_000;
+        }
+    }
+}
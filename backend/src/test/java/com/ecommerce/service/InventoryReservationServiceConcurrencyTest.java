@@ -0,0 +1,176 @@
+package com.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.ProductRepository;
+
+/**
+ * Many buyers of the same products at once, against MySQL: the conditional stock update must never
+ * sell more than there is, and carts sharing products must queue rather than deadlock.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({InventoryReservationService.class, FlashSaleService.class, ThreadPoolTaskScheduler.class})
+// Each buyer commits in its own transaction, so the test itself must not hold one open
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryReservationServiceConcurrencyTest {
+    private static final int BUYERS = 300;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private InventoryReservationService reservations;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void sellsExactlyTheStockOfOneProduct() throws InterruptedException {
+        long productId = product(50);
+
+        Outcome outcome = buy(orderId -> Map.of(productId, 1));
+
+        assertThat(outcome.placed.get()).isEqualTo(50);
+        assertThat(outcome.failures).allSatisfy(message -> assertThat(message).startsWith("Not enough stock"));
+        assertThat(stock(productId)).isZero();
+        assertThat(reserved(productId)).isEqualTo(50);
+    }
+
+    @Test
+    void cartsSharingProductsDoNotDeadlock() throws InterruptedException {
+        long first = product(40);
+        long second = product(40);
+
+        // Every cart holds both products, listed in both orders
+        Outcome outcome = buy(orderId -> orderId % 2 == 0
+                ? Map.of(first, 1, second, 1)
+                : Map.of(second, 1, first, 1));
+
+        assertThat(outcome.placed.get()).isEqualTo(40);
+        assertThat(outcome.failures).allSatisfy(message -> assertThat(message).startsWith("Not enough stock"));
+        assertThat(stock(first)).isZero();
+        assertThat(stock(second)).isZero();
+    }
+
+    @Test
+    void releasingAnOrderReturnsItsStock() {
+        long productId = product(5);
+        long orderId = nextOrderId();
+
+        transactionTemplate.executeWithoutResult(status -> reservations.reserve(orderId, Map.of(productId, 3), true));
+        assertThat(stock(productId)).isEqualTo(2);
+
+        reservations.release(orderId);
+        assertThat(stock(productId)).isEqualTo(5);
+        assertThat(reserved(productId)).isZero();
+    }
+
+    @Test
+    void cancellingAConfirmedOrderReturnsItsCommittedStock() {
+        long productId = product(5);
+        long orderId = nextOrderId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reservations.reserve(orderId, Map.of(productId, 3), false);
+            reservations.commit(orderId);
+        });
+        assertThat(stock(productId)).isEqualTo(2);
+
+        reservations.release(orderId);
+        assertThat(stock(productId)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_reservations "
+                + "WHERE order_id = ? AND status <> 'RELEASED'", Integer.class, orderId)).isZero();
+    }
+
+    private Outcome buy(LongFunction<Map<Long, Integer>> cart) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(BUYERS);
+        long firstOrderId = nextOrderId();
+        for (int i = 0; i < BUYERS; i++) {
+            long orderId = firstOrderId + i;
+            buyers.execute(() -> {
+                try {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status -> reservations.reserve(orderId, cart.apply(orderId), true));
+                    outcome.placed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    outcome.failures.add(String.valueOf(e.getMessage()));
+                }
+            });
+        }
+        start.countDown();
+        buyers.shutdown();
+        assertThat(buyers.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        return outcome;
+    }
+
+    private long product(int quantity) {
+        Product product = new Product();
+        product.setName("Concurrency test product");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setQuantity(quantity);
+        product.setCategory("Test");
+        product.setBrand("Test");
+        product.setRating(0.0);
+        product.setReviewCount(0);
+        return productRepository.save(product).getId();
+    }
+
+    // Reservations only reference orders by id, so distinct ids per test are enough
+    private long nextOrderId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(order_id), 0) FROM inventory_reservations", Long.class);
+        return max + 1_000;
+    }
+
+    private int stock(long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private int reserved(long productId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM inventory_reservations "
+                + "WHERE product_id = ? AND status = 'ACTIVE'", Integer.class, productId);
+    }
+
+    private static final class Outcome {
+        final AtomicInteger placed = new AtomicInteger();
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The decayed sketch and the heavy-hitter candidates read from it: estimates only err upwards,
+ * weights decay by 1/e per time constant, rebasing keeps them, and the heaviest keys surface.
+ */
+class DecayedCountMinSketchTest {
+    private static final long LANDMARK = 1_000_000L;
+    private static final long TAU = 3_600_000L;
+
+    @Test
+    void neverUnderestimatesACount() {
+        DecayedCountMinSketch sketch = new DecayedCountMinSketch(4, 256, TAU, LANDMARK);
+        SplittableRandom random = new SplittableRandom(1);
+        Map<Long, Integer> counts = new HashMap<>();
+        // Far more keys than cells, so rows collide
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2000);
+            sketch.add(key, 1, LANDMARK);
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        counts.forEach((key, count) -> assertThat(sketch.raw(key)).isGreaterThanOrEqualTo(count));
+    }
+
+    @Test
+    void weightFallsToOneOverEAfterOneTimeConstant() {
+        DecayedCountMinSketch sketch = new DecayedCountMinSketch(4, 64, TAU, LANDMARK);
+        sketch.add(7, 1, LANDMARK);
+
+        assertThat(sketch.decayed(sketch.raw(7), LANDMARK)).isCloseTo(1, within(1e-12));
+        assertThat(sketch.decayed(sketch.raw(7), LANDMARK + TAU)).isCloseTo(Math.exp(-1), within(1e-12));
+    }
+
+    @Test
+    void rebasingKeepsDecayedWeights() {
+        DecayedCountMinSketch sketch = new DecayedCountMinSketch(4, 64, TAU, LANDMARK);
+        sketch.add(8, 2, LANDMARK + 1000);
+        DecayedCountMinSketch rebased = sketch.rebased(LANDMARK + TAU / 2);
+
+        long later = LANDMARK + 2 * TAU;
+        assertThat(rebased.decayed(rebased.raw(8), later)).isCloseTo(sketch.decayed(sketch.raw(8), later), within(1e-12));
+    }
+
+    @Test
+    void heavyHittersKeepTheHeaviestKeys() {
+        DecayedCountMinSketch sketch = new DecayedCountMinSketch(4, 4096, TAU, LANDMARK);
+        HeavyHitters candidates = new HeavyHitters(10);
+        for (long key = 1; key <= 1000; key++) {
+            candidates.offer(key, sketch.add(key, key <= 5 ? 10 : 1, LANDMARK), sketch);
+        }
+        // A key that only gets hot after the set was pruned must still get in
+        for (int i = 0; i < 5; i++) {
+            candidates.offer(5000, sketch.add(5000, 10, LANDMARK), sketch);
+        }
+
+        assertThat(candidates.top(sketch, 6, null)).containsExactly(5000, 1, 2, 3, 4, 5);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecommerce.event.ProductChangedEvent;
+
+/**
+ * Feeds built from recorded views and purchases, without the startup warm-up from order history.
+ */
+class TrendingTrackerTest {
+    // Warm-up and rebasing are only scheduled on startup, so they need neither
+    private final TrendingTracker tracker = new TrendingTracker(null, null, 4096, 200, 10);
+
+    @Test
+    void ranksProductsByRecentActivity() {
+        view(1, "Books", 3);
+        view(2, "Books", 1);
+        tracker.recordPurchase(3, "Toys", 1);
+
+        for (TrendingWindow window : TrendingWindow.values()) {
+            assertThat(tracker.top(window, null, 3)).as(window.getParam()).containsExactly(3, 1, 2);
+        }
+    }
+
+    @Test
+    void categoryFeedsOnlyHoldTheirCategory() {
+        view(1, "Books", 2);
+        view(2, "Toys", 5);
+        view(3, " books ", 1);
+
+        assertThat(tracker.top(TrendingWindow.HOUR, "BOOKS", 10)).containsExactly(1, 3);
+        assertThat(tracker.top(TrendingWindow.HOUR, "Garden", 10)).isEmpty();
+    }
+
+    @Test
+    void deletedProductsLeaveTheFeeds() {
+        view(1, "Books", 2);
+        view(2, "Books", 1);
+
+        tracker.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        assertThat(tracker.top(TrendingWindow.DAY, null, 10)).containsExactly(2);
+        assertThat(tracker.top(TrendingWindow.DAY, "Books", 10)).containsExactly(2);
+    }
+
+    @Test
+    void windowsAreNamedByTheirLength() {
+        assertThat(TrendingWindow.fromParam(" 1H")).isEqualTo(TrendingWindow.HOUR);
+        assertThat(TrendingWindow.fromParam(null)).isEqualTo(TrendingWindow.DAY);
+        assertThat(TrendingWindow.fromParam("week")).isEqualTo(TrendingWindow.WEEK);
+        assertThatThrownBy(() -> TrendingWindow.fromParam("30d")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void view(long productId, String category, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordView(productId, category);
+        }
+    }
+}
@@ -35,12 +35,23 @@ CREATE TABLE products (
     rating DOUBLE DEFAULT 0.0,
     review_count INT DEFAULT 0,
     ai_recommendation_score DOUBLE,
+    seller_id BIGINT,
+    approval_status VARCHAR(20),
+    approved_by BIGINT,
+    approved_at TIMESTAMP NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_category (category),
     INDEX idx_brand (brand),
     INDEX idx_rating (rating),
-    INDEX idx_ai_score (ai_recommendation_score)
+    INDEX idx_ai_score (ai_recommendation_score),
+    -- Keyset pagination: sort column + id tie-breaker behind the approval filter
+    INDEX idx_products_status_id (approval_status, id),
+    INDEX idx_products_status_rating (approval_status, rating, id),
+    INDEX idx_products_status_price (approval_status, price, id),
+    INDEX idx_products_status_created (approval_status, created_at, id),
+    INDEX idx_products_category_status (category, approval_status, id),
+    INDEX idx_products_seller (seller_id, id)
 );
 
 -- Orders Table
@@ -92,6 +103,118 @@ CREATE TABLE reviews (
     INDEX idx_rating (rating)
 );
 
+-- Recommendation Scoring Runs Table (one row per run of the catalog scoring job)
+CREATE TABLE recommendation_scoring_runs (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    model_version VARCHAR(255) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NULL,
+    duration_millis BIGINT,
+    products_scored INT,
+    products_updated INT,
+    succeeded BOOLEAN NOT NULL DEFAULT FALSE,
+    error VARCHAR(1000),
+    INDEX idx_scoring_runs_started (started_at)
+);
+
+-- Product Embeddings Table (semantic search vectors, keyed by hash of model id and embedded text)
+CREATE TABLE product_embeddings (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    model_id VARCHAR(255) NOT NULL,
+    dimensions INT NOT NULL,
+    vector LONGBLOB NOT NULL,
+    created_at TIMESTAMP NULL
+);
+
+-- Generated Descriptions Table (keyed by hash of model id and product name, category and brand)
+CREATE TABLE generated_descriptions (
+    input_hash VARCHAR(64) PRIMARY KEY,
+    model_id VARCHAR(255) NOT NULL,
+    description TEXT NOT NULL,
+    created_at TIMESTAMP NULL
+);
+
+-- Review Sentiments Table (one label per review, written by the review sentiment job)
+CREATE TABLE review_sentiments (
+    review_id BIGINT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    label VARCHAR(16) NOT NULL,
+    score DOUBLE NOT NULL,
+    model_id VARCHAR(255) NOT NULL,
+    scored_at TIMESTAMP NULL,
+    INDEX idx_review_sentiments_product (product_id)
+);
+
+-- Product Sentiments Table (per-product review sentiment counts)
+CREATE TABLE product_sentiments (
+    product_id BIGINT PRIMARY KEY,
+    positive_count BIGINT NOT NULL DEFAULT 0,
+    neutral_count BIGINT NOT NULL DEFAULT 0,
+    negative_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NULL
+);
+
+-- Sentiment Checkpoints Table (last review labeled, per job)
+CREATE TABLE sentiment_checkpoints (
+    job_name VARCHAR(64) PRIMARY KEY,
+    model_id VARCHAR(255) NOT NULL,
+    last_review_id BIGINT NOT NULL,
+    reviews_scored BIGINT NOT NULL,
+    updated_at TIMESTAMP NULL
+);
+
+-- Inventory Reservations Table (stock held for pending orders, released when they are cancelled or abandoned)
+CREATE TABLE inventory_reservations (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    expires_at TIMESTAMP NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    UNIQUE KEY uk_inventory_reservations_order_product (order_id, product_id),
+    INDEX idx_inventory_reservations_expiry (status, expires_at)
+);
+
+-- Products in flash-sale mode; the row exists only while the sale runs
+CREATE TABLE flash_sales (
+    product_id BIGINT PRIMARY KEY,
+    started_by BIGINT,
+    started_at TIMESTAMP NULL
+);
+
+-- The instance that runs flash sales; one row, renewed by its holder
+CREATE TABLE flash_sale_lease (
+    id INT PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Flash-sale stock changes not yet applied to products.quantity
+CREATE TABLE pending_stock_changes (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    created_at TIMESTAMP NULL,
+    INDEX idx_pending_stock_changes_product (product_id)
+);
+
+-- Idempotency-Key claims and the responses replayed for retries
+CREATE TABLE idempotency_keys (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    response_status INT,
+    response_body MEDIUMTEXT,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NULL,
+    UNIQUE KEY uk_idempotency_keys_user_key (user_id, idempotency_key),
+    INDEX idx_idempotency_keys_expiry (expires_at)
+);
+
 -- Sample Data
 INSERT INTO products (name, description, price, quantity, category, brand, rating, review_count) VALUES
 ('Wireless Headphones', 'High-quality wireless headphones with noise cancellation', 79.99, 50, 'Electronics', 'AudioPro', 4.5, 120),
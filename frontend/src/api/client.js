@@ -20,17 +20,34 @@ api.interceptors.request.use((config) => {
 
 // Product API calls - userId extracted from JWT token on server
 export const productApi = {
-  getAllProducts: () => api.get('/products'),
+  // Listings are keyset-paginated: pass back `nextCursor` from the previous page as `cursor`
+  getAllProducts: (params) => api.get('/products', { params }),
   getProductById: (id) => api.get(`/products/${id}`),
-  getProductsByCategory: (category) => api.get(`/products/category/${category}`),
-  searchProducts: (keyword) => api.get('/products/search', { params: { keyword } }),
+  getSimilarProducts: (id, limit) => api.get(`/products/${id}/similar`, { params: { limit } }),
+  // One request for many ids, in the order given; `missingIds` lists products that no longer exist
+  getProductsBatch: (ids) => (ids.length > 100
+    ? api.post('/products/batch', { ids })
+    : api.get('/products/batch', { params: { ids: ids.join(',') } })),
+  getProductsByCategory: (category, params) => api.get(`/products/category/${category}`, { params }),
+  searchProducts: (keyword, params) => api.get('/products/search', { params: { keyword, ...params } }),
   getSearchSuggestions: (keyword) => api.get('/products/search/suggestions', { params: { keyword } }),
+  browseProducts: (params) => api.get('/products/browse', { params, paramsSerializer: { indexes: null } }),
   getTopRatedProducts: () => api.get('/products/trending/top-rated'),
+  getTrendingProducts: (window = '24h', category) => api.get('/products/trending/now', { params: { window, category } }),
   getRecommendedProducts: (userId) => api.get(`/products/recommendations/${userId}`),
   createProduct: (data) => api.post('/products', data),
+  importProducts: (file, format) => {
+    const form = new FormData();
+    form.append('file', file);
+    return api.post('/products/import', form, { params: { format }, headers: { 'Content-Type': 'multipart/form-data' } });
+  },
+  getImportStatus: (jobId) => api.get(`/products/import/${jobId}`),
+  // Descriptions are written in the background; poll the job for progress
+  generateDescriptions: (productIds) => api.post('/products/descriptions/generate', { productIds }),
+  getDescriptionJob: (jobId) => api.get(`/products/descriptions/jobs/${jobId}`),
   updateProduct: (id, data) => api.put(`/products/${id}`, data),
   deleteProduct: (id) => api.delete(`/products/${id}`),
-  getSellerProducts: (sellerId) => api.get(`/products/seller/${sellerId}`),
+  getSellerProducts: (sellerId, params) => api.get(`/products/seller/${sellerId}`, { params }),
 };
 
 // Auth API calls
@@ -52,14 +69,31 @@ export const sellerApplicationApi = {
 
 // Product Approval API calls (Admin only) - adminId extracted from JWT on server
 export const productApprovalApi = {
-  getPendingProducts: () => api.get('/products/pending'),
+  getPendingProducts: (params) => api.get('/products/pending', { params }),
   approveProduct: (id) => api.put(`/products/${id}/approve`),
   rejectProduct: (id) => api.put(`/products/${id}/reject`),
 };
 
+// Flash sale API calls (Admin only)
+export const flashSaleApi = {
+  getFlashSale: (id) => api.get(`/products/${id}/flash-sale`),
+  startFlashSale: (id) => api.put(`/products/${id}/flash-sale`),
+  endFlashSale: (id) => api.delete(`/products/${id}/flash-sale`),
+};
+
 // Order API calls - NEW
 export const orderApi = {
   createOrder: (orderData) => api.post('/orders', orderData),
+  // `queueTicket` is an admitted ticket from the checkout queue, needed only while checkout is busy.
+  // Retries sent with the same `idempotencyKey` get the first order back instead of placing another
+  checkout: (checkoutData, { queueTicket, idempotencyKey } = {}) => api.post('/orders/checkout', checkoutData, {
+    headers: {
+      ...(queueTicket ? { 'X-Queue-Ticket': queueTicket } : {}),
+      ...(idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}),
+    },
+  }),
+  joinCheckoutQueue: () => api.post('/orders/queue'),
+  pollCheckoutQueue: (queueTicket) => api.get('/orders/queue', { headers: { 'X-Queue-Ticket': queueTicket } }),
   getMyOrders: () => api.get('/orders'),
   getOrderById: (id) => api.get(`/orders/${id}`),
   getUserOrders: (userId) => api.get(`/orders/user/${userId}`),
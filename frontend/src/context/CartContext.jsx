@@ -1,5 +1,6 @@
 import React, { createContext, useContext, useState, useEffect } from 'react';
 import { toast } from 'react-toastify';
+import { productApi } from '../api/client';
 
 const CartContext = createContext();
 
@@ -22,6 +23,27 @@ export const CartProvider = ({ children }) => {
     return saved ? JSON.parse(saved) : [];
   });
 
+  // Saved carts and wishlists hold product snapshots; refresh prices and stock in one call on load
+  useEffect(() => {
+    const ids = [...new Set([...cartItems, ...wishlist].map(item => item.id))];
+    if (ids.length === 0) return;
+    productApi.getProductsBatch(ids)
+      .then(({ data }) => {
+        const current = new Map(data.items.map(product => [product.id, product]));
+        // Cart entries keep their own quantity; the product's quantity is its stock
+        setCartItems(prev => prev
+          .filter(item => current.has(item.id))
+          .map(item => ({ ...item, ...current.get(item.id), quantity: item.quantity })));
+        setWishlist(prev => prev
+          .filter(item => current.has(item.id))
+          .map(item => current.get(item.id)));
+        if (data.missingIds.length > 0) {
+          toast.info('Some saved items are no longer available and were removed');
+        }
+      })
+      .catch(error => console.error('Error refreshing saved products:', error));
+  }, []);
+
   useEffect(() => {
     localStorage.setItem('cart', JSON.stringify(cartItems));
   }, [cartItems]);
@@ -5,7 +5,7 @@ import {
   FaSave, FaTimes, FaSearch, FaImage, FaRupeeSign, FaLock,
   FaCheckCircle, FaTimesCircle, FaStore, FaClipboardList
 } from 'react-icons/fa';
-import api, { sellerApplicationApi, productApprovalApi, productApi } from '../api/client';
+import { sellerApplicationApi, productApprovalApi, productApi } from '../api/client';
 import { toast } from 'react-toastify';
 import { useAuth } from '../context/AuthContext';
 import ErrorInfoButton from '../components/ErrorInfoButton';
@@ -52,8 +52,8 @@ export default function Admin() {
 
   const fetchPendingProducts = async () => {
     try {
-      const response = await productApprovalApi.getPendingProducts();
-      setPendingProducts(response.data);
+      const response = await productApprovalApi.getPendingProducts({ size: 100 });
+      setPendingProducts(response.data.items);
     } catch (error) {
       console.error('Error fetching pending products:', error);
     }
@@ -176,8 +176,8 @@ export default function Admin() {
   const fetchProducts = async () => {
     setLoading(true);
     try {
-      const response = await api.get('/products');
-      setProducts(response.data);
+      const response = await productApi.getAllProducts({ size: 100 });
+      setProducts(response.data.items);
     } catch (error) {
       errorToast('Failed to fetch products', error);
     } finally {
@@ -189,8 +189,8 @@ export default function Admin() {
     setLoading(true);
     try {
       // userId extracted from JWT token on server
-      const response = await productApi.getSellerProducts(user.id);
-      setProducts(response.data);
+      const response = await productApi.getSellerProducts(user.id, { size: 100 });
+      setProducts(response.data.items);
     } catch (error) {
       errorToast('Failed to fetch your products', error);
     } finally {
@@ -12,6 +12,7 @@ export default function Checkout() {
   const { location } = useDeliveryLocation();
   const [step, setStep] = useState(1);
   const [isPlacingOrder, setIsPlacingOrder] = useState(false);
+  const [queuePosition, setQueuePosition] = useState(null);
   const [isVerifyingPincode, setIsVerifyingPincode] = useState(false);
   const [formData, setFormData] = useState({
     fullName: '', email: '', phone: '', address: '', city: '', state: '', pincode: '',
@@ -163,6 +164,43 @@ export default function Checkout() {
     return true;
   };
 
+  const wait = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+  // While checkout is busy the server answers 429: take a queue ticket, wait to be admitted, then retry with it
+  const placeOrder = async (checkoutData) => {
+    // One key for every attempt at this order, so a retry after a lost response cannot order twice
+    const idempotencyKey = crypto.randomUUID();
+    try {
+      return await orderApi.checkout(checkoutData, { idempotencyKey });
+    } catch (error) {
+      if (error?.response?.status !== 429) {
+        throw error;
+      }
+    }
+
+    let { data: place } = await orderApi.joinCheckoutQueue();
+    try {
+      while (!place.admitted) {
+        setQueuePosition(place.position);
+        await wait(place.pollAfterSeconds * 1000);
+        ({ data: place } = await orderApi.pollCheckoutQueue(place.ticket));
+      }
+    } finally {
+      setQueuePosition(null);
+    }
+
+    for (let attempt = 0; ; attempt += 1) {
+      try {
+        return await orderApi.checkout(checkoutData, { queueTicket: place.ticket, idempotencyKey });
+      } catch (error) {
+        if (error?.response?.status !== 429 || attempt >= 5) {
+          throw error;
+        }
+      }
+      await wait(1000);
+    }
+  };
+
   const handleSubmit = async (e) => {
     e.preventDefault();
     if (!validateStep()) {
@@ -188,27 +226,14 @@ export default function Checkout() {
           ? location.label
           : `Deliver to ${formData.city.trim()}`;
 
-        const subtotal = Number(cartTotal);
-        const tax = Math.round(subtotal * 0.18);
-        const total = Math.round(subtotal + tax);
-
-        const orderPayload = {
-          totalAmount: total,
-          taxAmount: tax,
-          shippingCost: 0,
+        // Totals are computed by the server from current catalog prices
+        const response = await placeOrder({
           shippingAddress,
           paymentMethod: formData.paymentMethod,
-        };
-
-        const response = await orderApi.createOrder(orderPayload);
+          items: cartItems.map((item) => ({ productId: item.id, quantity: item.quantity })),
+        });
         const createdOrder = response.data;
 
-        if (createdOrder?.id) {
-          await Promise.all(
-            cartItems.map((item) => orderApi.addItemToOrder(createdOrder.id, item.id, item.quantity))
-          );
-        }
-
         const successData = {
           orderNumber: createdOrder?.orderNumber || null,
           deliveryAddress: shippingAddress,
@@ -407,7 +432,7 @@ export default function Checkout() {
                   </button>
                 )}
                 <button type="submit" disabled={isPlacingOrder} className="flex-1 bg-emerald-500 text-white py-3 rounded-xl font-semibold hover:bg-emerald-600 transition-colors disabled:opacity-60 disabled:cursor-not-allowed">
-                  {step === 3 ? (isPlacingOrder ? 'Placing Order...' : 'Place Order') : 'Continue'}
+                  {step === 3 ? (isPlacingOrder ? (queuePosition ? `In queue: #${queuePosition}` : 'Placing Order...') : 'Place Order') : 'Continue'}
                 </button>
               </div>
               {step === 2 && isVerifyingPincode && (
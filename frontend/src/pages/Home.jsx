@@ -62,8 +62,8 @@ export default function Home() {
 
   const fetchProducts = async () => {
     try {
-      const response = await productApi.getAllProducts();
-      setProducts(response.data);
+      const response = await productApi.getAllProducts({ size: 48 });
+      setProducts(response.data.items);
     } catch (error) {
       console.error('Error fetching products:', error);
     } finally {
@@ -2,7 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { useParams, Link } from 'react-router-dom';
 import { FaStar, FaShoppingCart, FaHeart, FaTruck, FaShieldAlt, FaUndo, FaMinus, FaPlus, FaCheckCircle } from 'react-icons/fa';
 import { useCart } from '../context/CartContext';
-import api from '../api/client';
+import api, { productApi } from '../api/client';
 
 export default function ProductDetail() {
   const { id } = useParams();
@@ -11,10 +11,12 @@ export default function ProductDetail() {
   const [quantity, setQuantity] = useState(1);
   const [selectedImage, setSelectedImage] = useState(0);
   const [addedToCart, setAddedToCart] = useState(false);
+  const [similarProducts, setSimilarProducts] = useState([]);
   const { addToCart } = useCart();
 
   useEffect(() => {
     fetchProduct();
+    fetchSimilarProducts();
   }, [id]);
 
   const fetchProduct = async () => {
@@ -28,6 +30,16 @@ export default function ProductDetail() {
     }
   };
 
+  const fetchSimilarProducts = async () => {
+    try {
+      const response = await productApi.getSimilarProducts(id, 6);
+      setSimilarProducts(response.data);
+    } catch (error) {
+      console.error('Error fetching similar products:', error);
+      setSimilarProducts([]);
+    }
+  };
+
   const handleAddToCart = () => {
     addToCart({ ...product, quantity });
     setAddedToCart(true);
@@ -188,6 +200,30 @@ export default function ProductDetail() {
             </div>
           </div>
         </div>
+
+        {/* Similar Products */}
+        {similarProducts.length > 0 && (
+          <div className="mt-12">
+            <h2 className="text-xl font-bold text-white mb-4">Similar Products</h2>
+            <div className="grid grid-cols-2 md:grid-cols-3 lg:grid-cols-6 gap-4">
+              {similarProducts.map((similar) => (
+                <Link
+                  key={similar.id}
+                  to={`/product/${similar.id}`}
+                  className="bg-[#2f2f2f] rounded-xl border border-[#424242] p-3 hover:border-emerald-500 transition-colors"
+                >
+                  <img
+                    src={similar.imageUrl || `https://picsum.photos/seed/${similar.id}/200/200`}
+                    alt={similar.name}
+                    className="w-full h-28 object-cover rounded mb-2"
+                  />
+                  <h3 className="text-sm font-medium text-white truncate">{similar.name}</h3>
+                  <span className="text-sm font-bold text-emerald-500">₹{Number(similar.price).toLocaleString()}</span>
+                </Link>
+              ))}
+            </div>
+          </div>
+        )}
       </div>
     </div>
   );
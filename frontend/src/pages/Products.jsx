@@ -4,6 +4,14 @@ import { FaSearch, FaFilter, FaStar, FaShoppingCart, FaHeart, FaTimes, FaChevron
 import { useCart } from '../context/CartContext';
 import api, { productApi } from '../api/client';
 
+// Server-side ordering for the paginated listings (search results are ranked by relevance instead)
+const SORT_PARAMS = {
+  featured: { sort: 'id', direction: 'asc' },
+  'price-low': { sort: 'price', direction: 'asc' },
+  'price-high': { sort: 'price', direction: 'desc' },
+  rating: { sort: 'rating', direction: 'desc' },
+};
+
 export default function Products() {
   const [searchParams, setSearchParams] = useSearchParams();
   const [products, setProducts] = useState([]);
@@ -11,6 +19,8 @@ export default function Products() {
   const [searchQuery, setSearchQuery] = useState(searchParams.get('search') || '');
   const [selectedCategory, setSelectedCategory] = useState(searchParams.get('category') || 'All');
   const [sortBy, setSortBy] = useState('featured');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [showFilters, setShowFilters] = useState(false);
   const { addToCart } = useCart();
 
@@ -34,49 +44,57 @@ export default function Products() {
     }
   }, [searchParams]);
 
+  const fetchListingPage = useCallback((cursor) => {
+    // Search results are ranked by relevance on the server
+    if (searchQuery && searchQuery.trim()) {
+      return productApi.searchProducts(searchQuery.trim(), { cursor: cursor || undefined });
+    }
+    const params = { ...(SORT_PARAMS[sortBy] || SORT_PARAMS.featured), cursor: cursor || undefined };
+    if (selectedCategory && selectedCategory !== 'All') {
+      return productApi.getProductsByCategory(selectedCategory, params);
+    }
+    return productApi.getAllProducts(params);
+  }, [searchQuery, sortBy, selectedCategory]);
+
   const fetchProducts = useCallback(async () => {
     setLoading(true);
     try {
-      let response;
-      // If search query exists, use backend search API
-      if (searchQuery && searchQuery.trim()) {
-        response = await productApi.searchProducts(searchQuery.trim());
-      } else {
-        // Otherwise, fetch all products or filter by category
-        if (selectedCategory && selectedCategory !== 'All') {
-          response = await productApi.getProductsByCategory(selectedCategory);
-        } else {
-          response = await productApi.getAllProducts();
-        }
-      }
-      
-      let fetchedProducts = response.data;
-      
-      // Apply category filter if category is selected and we have a search query
-      if (selectedCategory && selectedCategory !== 'All' && searchQuery && searchQuery.trim()) {
-        fetchedProducts = fetchedProducts.filter(p => p.category === selectedCategory);
-      }
-      
-      setProducts(fetchedProducts);
+      // First page of search results, all products, or the selected category
+      const response = await fetchListingPage(null);
+      setProducts(response.data.items);
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       console.error('Error fetching products:', error);
       setProducts([]);
+      setNextCursor(null);
     } finally {
       setLoading(false);
     }
-  }, [searchQuery, selectedCategory]);
+  }, [fetchListingPage]);
+
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const response = await fetchListingPage(nextCursor);
+      setProducts(prev => [...prev, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (error) {
+      console.error('Error fetching more products:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
   useEffect(() => {
     fetchProducts();
   }, [fetchProducts]);
 
-  const filteredProducts = products
-    .sort((a, b) => {
-      if (sortBy === 'price-low') return a.price - b.price;
-      if (sortBy === 'price-high') return b.price - a.price;
-      if (sortBy === 'rating') return b.rating - a.rating;
-      return 0;
-    });
+  // Listing pages arrive already ordered by the server; search results are ranked by relevance
+  // and only narrowed to the selected category here
+  const filteredProducts = searchQuery && searchQuery.trim() && selectedCategory && selectedCategory !== 'All'
+    ? products.filter(p => p.category === selectedCategory)
+    : products;
 
   const handleAddToCart = (product) => {
     addToCart(product);
@@ -256,6 +274,18 @@ export default function Products() {
                 ))}
               </div>
             )}
+
+            {!loading && nextCursor && (
+              <div className="text-center mt-8">
+                <button
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  className="bg-[#2f2f2f] border border-[#424242] px-6 py-3 rounded-xl text-white hover:border-emerald-500 transition-colors disabled:opacity-50"
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </button>
+              </div>
+            )}
           </div>
         </div>
       </div>